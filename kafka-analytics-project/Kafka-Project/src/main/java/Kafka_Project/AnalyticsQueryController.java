@@ -0,0 +1,210 @@
+package Kafka_Project;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import Kafka_Project.query.AnalyticsQueryService;
+import Kafka_Project.query.ExportService;
+import Kafka_Project.query.SingleFlight;
+import Kafka_Project.query.TimeRange;
+import jakarta.servlet.http.HttpServletRequest;
+
+@RestController
+@RequestMapping("/analytics")
+public class AnalyticsQueryController {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnalyticsQueryController.class);
+
+    private final AnalyticsQueryService queryService;
+    private final ExportService exportService;
+    private final int defaultDays;
+    private final int maxDays;
+    private final int maxLimit;
+    private final int exportMaxDays;
+
+    public AnalyticsQueryController(AnalyticsQueryService queryService,
+                                    ExportService exportService,
+                                    @Value("${analytics.query.default-days:7}") int defaultDays,
+                                    @Value("${analytics.query.max-days:400}") int maxDays,
+                                    @Value("${analytics.query.max-limit:500}") int maxLimit,
+                                    @Value("${analytics.export.max-days:31}") int exportMaxDays) {
+        this.queryService = queryService;
+        this.exportService = exportService;
+        this.defaultDays = defaultDays;
+        this.maxDays = maxDays;
+        this.maxLimit = maxLimit;
+        this.exportMaxDays = exportMaxDays;
+    }
+
+    @GetMapping("/traffic")
+    public ResponseEntity<?> traffic(
+            @RequestParam("tracking_id") String trackingId,
+            @RequestParam(value = "from", required = false) String from,
+            @RequestParam(value = "to", required = false) String to,
+            @RequestParam(value = "interval", defaultValue = "auto") String interval) {
+        return respond(trackingId, from, to, range -> queryService.traffic(trackingId, range, interval));
+    }
+
+    @GetMapping("/ecommerce")
+    public ResponseEntity<?> ecommerce(
+            @RequestParam("tracking_id") String trackingId,
+            @RequestParam(value = "from", required = false) String from,
+            @RequestParam(value = "to", required = false) String to,
+            @RequestParam(value = "interval", defaultValue = "auto") String interval) {
+        return respond(trackingId, from, to, range -> queryService.ecommerce(trackingId, range, interval));
+    }
+
+    @GetMapping("/pages")
+    public ResponseEntity<?> pages(
+            @RequestParam("tracking_id") String trackingId,
+            @RequestParam(value = "from", required = false) String from,
+            @RequestParam(value = "to", required = false) String to,
+            @RequestParam(value = "limit", defaultValue = "50") int limit) {
+        return respond(trackingId, from, to, range -> queryService.pages(trackingId, range, clampLimit(limit)));
+    }
+
+    @GetMapping("/devices")
+    public ResponseEntity<?> devices(
+            @RequestParam("tracking_id") String trackingId,
+            @RequestParam(value = "from", required = false) String from,
+            @RequestParam(value = "to", required = false) String to,
+            @RequestParam(value = "limit", defaultValue = "50") int limit) {
+        return respond(trackingId, from, to, range -> queryService.devices(trackingId, range, clampLimit(limit)));
+    }
+
+    @GetMapping("/geo")
+    public ResponseEntity<?> geo(
+            @RequestParam("tracking_id") String trackingId,
+            @RequestParam(value = "from", required = false) String from,
+            @RequestParam(value = "to", required = false) String to,
+            @RequestParam(value = "limit", defaultValue = "50") int limit) {
+        return respond(trackingId, from, to, range -> queryService.geo(trackingId, range, clampLimit(limit)));
+    }
+
+    @GetMapping("/sources")
+    public ResponseEntity<?> sources(
+            @RequestParam("tracking_id") String trackingId,
+            @RequestParam(value = "from", required = false) String from,
+            @RequestParam(value = "to", required = false) String to,
+            @RequestParam(value = "limit", defaultValue = "50") int limit) {
+        return respond(trackingId, from, to, range -> queryService.sources(trackingId, range, clampLimit(limit)));
+    }
+
+    @GetMapping("/funnel")
+    public ResponseEntity<?> funnel(
+            @RequestParam("tracking_id") String trackingId,
+            @RequestParam(value = "from", required = false) String from,
+            @RequestParam(value = "to", required = false) String to) {
+        return respond(trackingId, from, to, range -> queryService.funnel(trackingId, range));
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<?> export(
+            @RequestParam("tracking_id") String trackingId,
+            @RequestParam("table") String table,
+            @RequestParam(value = "from", required = false) String from,
+            @RequestParam(value = "to", required = false) String to,
+            @RequestParam(value = "format", defaultValue = "csv") String format,
+            @RequestParam(value = "gzip", defaultValue = "false") boolean gzip,
+            HttpServletRequest request) {
+        if (!ExportService.isExportable(table)) {
+            return ResponseEntity.status(400).body(Map.of("error", "Table '" + table + "' is not exportable"));
+        }
+        TimeRange range;
+        ExportService.Format exportFormat;
+        try {
+            range = TimeRange.parse(from, to, 1, exportMaxDays);
+            exportFormat = ExportService.Format.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (Exception e) {
+            return ResponseEntity.status(400).body(Map.of("error", "Invalid export request: " + e.getMessage()));
+        }
+        ExportService.Export export = exportService.tryStart(table, trackingId, range, exportFormat, gzip);
+        if (export == null) {
+            return ResponseEntity.status(429).body(Map.of("error", "Too many exports running, retry shortly"));
+        }
+        // Frees the slot if the request completes, times out or fails before the body runs
+        WebAsyncUtils.getAsyncManager(request).registerCallableInterceptor("export-slot",
+            new CallableProcessingInterceptor() {
+                @Override
+                public <T> void afterCompletion(NativeWebRequest webRequest, Callable<T> task) {
+                    export.close();
+                }
+            });
+
+        StreamingResponseBody body = export::writeTo;
+        String filename = table + "_" + range.from().toLocalDate() + "_" + range.to().toLocalDate()
+            + "." + exportFormat.extension();
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(exportFormat.contentType()))
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"");
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
+    @GetMapping("/exports")
+    public ResponseEntity<?> exports() {
+        return ResponseEntity.ok(exportService.stats());
+    }
+
+    @GetMapping("/cache")
+    public ResponseEntity<?> cache() {
+        return ResponseEntity.ok(queryService.cacheStats());
+    }
+
+    @GetMapping("/coalescing")
+    public ResponseEntity<?> coalescing() {
+        return ResponseEntity.ok(queryService.coalescingStats());
+    }
+
+    private ResponseEntity<?> respond(String trackingId, String from, String to,
+                                      Function<TimeRange, List<Map<String, Object>>> query) {
+        TimeRange range;
+        try {
+            // Open-ended ranges share a cache key for a recent-TTL step
+            range = TimeRange.parse(from, to, defaultDays, maxDays, queryService.recentTtl());
+        } catch (Exception e) {
+            return ResponseEntity.status(400).body(Map.of("error", "Invalid range: " + e.getMessage()));
+        }
+        try {
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("tracking_id", trackingId);
+            body.put("from", range.sqlFrom());
+            body.put("to", range.sqlTo());
+            body.put("rows", query.apply(range));
+            return ResponseEntity.ok(body);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(400).body(Map.of("error", e.getMessage()));
+        } catch (SingleFlight.WaitTimeoutException e) {
+            logger.warn(e.getMessage());
+            return ResponseEntity.status(503).body(Map.of("error", "Query still running, retry shortly"));
+        } catch (Exception e) {
+            logger.error("Analytics query failed for {}: {}", trackingId, e.getMessage());
+            return ResponseEntity.status(500).body(Map.of("error", "Query failed"));
+        }
+    }
+
+    private int clampLimit(int limit) {
+        return Math.max(1, Math.min(limit, maxLimit));
+    }
+}
@@ -19,6 +19,14 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
 import Kafka_Project.Redis.RateLimiter;
+import Kafka_Project.Redis.RedisService;
+import Kafka_Project.filter.EventSampler;
+import Kafka_Project.filter.IngestContext;
+import Kafka_Project.filter.IngestFilterPipeline;
+import Kafka_Project.health.DependencyProbes;
+import Kafka_Project.profiling.IngestBatchEvent;
+import Kafka_Project.quota.TenantQuotaService;
+import Kafka_Project.service.EventDeduplicator;
 import jakarta.servlet.http.HttpServletRequest;
 
 import org.slf4j.Logger;
@@ -32,6 +40,12 @@ public class ProducerController {
     private final RateLimiter rateLimiter;
     private final KafkaProducerService kafkaProducerService;
     private final ObjectMapper objectMapper;
+    private final IngestFilterPipeline filterPipeline;
+    private final EventSampler eventSampler;
+    private final TenantQuotaService quotaService;
+    private final RedisService redisService;
+    private final DependencyProbes dependencyProbes;
+    private final EventDeduplicator deduplicator;
 
     private static final Set<String> VALID_TOPICS = Set.of(
         "page_load", "page_view", "link_click", "button_click", "mouse_click",
@@ -44,10 +58,22 @@ public class ProducerController {
 
     public ProducerController(KafkaProducerService kafkaProducerService, 
                              RateLimiter rateLimiter,
-                             ObjectMapper objectMapper) {
+                             ObjectMapper objectMapper,
+                             IngestFilterPipeline filterPipeline,
+                             EventSampler eventSampler,
+                             TenantQuotaService quotaService,
+                             RedisService redisService,
+                             DependencyProbes dependencyProbes,
+                             EventDeduplicator deduplicator) {
         this.kafkaProducerService = kafkaProducerService;
         this.rateLimiter = rateLimiter;
         this.objectMapper = objectMapper;
+        this.filterPipeline = filterPipeline;
+        this.eventSampler = eventSampler;
+        this.quotaService = quotaService;
+        this.redisService = redisService;
+        this.dependencyProbes = dependencyProbes;
+        this.deduplicator = deduplicator;
     }
 
     private String getClientIP(HttpServletRequest request) {
@@ -182,13 +208,17 @@ public class ProducerController {
 public ResponseEntity<?> receiveData(
         @RequestBody JsonNode requests, 
         HttpServletRequest httpRequest,
-        @RequestHeader(value = "X-User-Id", required = false) String userIdHeader) {
+        @RequestHeader(value = "X-User-Id", required = false) String userIdHeader,
+        @RequestHeader(value = "User-Agent", required = false) String userAgent) {
 
     String clientIp = getClientIP(httpRequest);
+    IngestBatchEvent batchEvent = new IngestBatchEvent();
+    batchEvent.begin();
 
     try {
         if (!rateLimiter.rateLimiter(clientIp)) {
             logger.warn("Rate limit exceeded for IP: {}", clientIp);
+            commitBatchEvent(batchEvent, 429);
             return ResponseEntity.status(429)
                     .body(Map.of("error", "Too many requests, try again later"));
         }
@@ -201,6 +231,7 @@ public ResponseEntity<?> receiveData(
             events = objectMapper.createArrayNode().add(requests);
         } else {
             logger.warn("Invalid request format from IP: {}", clientIp);
+            commitBatchEvent(batchEvent, 400);
             return ResponseEntity.status(400)
                     .body(Map.of("error", "Invalid request format: expected object or array"));
         }
@@ -209,6 +240,9 @@ public ResponseEntity<?> receiveData(
         String userId = extractUserId(events);
         int processedCount = 0;
         int skippedCount = 0;
+        int filteredCount = 0;
+        int sampledOutCount = 0;
+        int shedCount = 0;
 
         for (JsonNode eventNode : events) { // <-- use 'events' here
             try {
@@ -229,11 +263,21 @@ JsonNode dataNode = eventNode.has("data")
         ? eventNode.get("data")
         : eventNode;  
 
+String rejectedBy = filterPipeline.evaluate(new IngestContext(eventType, dataNode, clientIp, userAgent));
+
 ObjectNode messageNode = objectMapper.createObjectNode();
 messageNode.put("timestamp", Instant.now().toString());
 messageNode.put("event_type", eventType);
 messageNode.put("user_id", userId);
 messageNode.put("client_ip", clientIp);
+if (userAgent != null) {
+    messageNode.put("user_agent", userAgent);
+}
+// The tracker sets event_id on the envelope, which for wrapped events is outside data
+JsonNode eventIdNode = eventNode.hasNonNull("event_id") ? eventNode.get("event_id") : dataNode.get("event_id");
+if (eventIdNode != null && !eventIdNode.isNull()) {
+    messageNode.put("event_id", eventIdNode.asText());
+}
 messageNode.set("data", dataNode);
 
 
@@ -254,8 +298,46 @@ messageNode.set("data", dataNode);
                     messageNode.set("metadata", eventNode.get("metadata"));
                 }
 
+                if (rejectedBy != null) {
+                    if (filterPipeline.getAction() == IngestFilterPipeline.Action.ROUTE) {
+                        messageNode.put("filter_reason", rejectedBy);
+                        kafkaProducerService.sendMessage(
+                            objectMapper.writeValueAsString(messageNode), filterPipeline.getRouteTopic());
+                    }
+                    filteredCount++;
+                    skippedCount++;
+                    continue;
+                }
+
+                double sampleRate = eventSampler.rateFor(dataNode.path("tracking_id").asText(null), eventType);
+                if (!eventSampler.keep(dataNode.path("session_id").asText(null), sampleRate)) {
+                    // Accepted, just represented by the kept sessions' weight
+                    sampledOutCount++;
+                    processedCount++;
+                    continue;
+                }
+                if (sampleRate < 1.0) {
+                    messageNode.put("sample_rate", sampleRate);
+                }
+
                 String message = objectMapper.writeValueAsString(messageNode);
-                kafkaProducerService.sendMessage(message, eventType);
+                String trackingId = dataNode.path("tracking_id").asText(null);
+                TenantQuotaService.Decision decision = quotaService.admit(trackingId, message.length());
+                if (decision == TenantQuotaService.Decision.SHED) {
+                    shedCount++;
+                    skippedCount++;
+                    continue;
+                }
+
+                // Keyed by session so retried copies of an event share a partition
+                String sessionId = dataNode.path("session_id").asText(null);
+                String eventId = messageNode.path("event_id").asText(null);
+                if (decision == TenantQuotaService.Decision.OVERFLOW) {
+                    kafkaProducerService.sendEventTo(quotaService.getOverflowTopic(), message, eventType,
+                            trackingId, sessionId, eventId);
+                } else {
+                    kafkaProducerService.sendEvent(message, eventType, trackingId, sessionId, eventId);
+                }
                 processedCount++;
 
             } catch (Exception e) {
@@ -264,21 +346,42 @@ messageNode.set("data", dataNode);
             }
         }
 
-        logger.info("Processed {} events, skipped {} events for user: {}",
-                processedCount, skippedCount, userId);
+        logger.info("Processed {} events, skipped {} events ({} filtered) for user: {}",
+                processedCount, skippedCount, filteredCount, userId);
+
+        batchEvent.events = events.size();
+        batchEvent.processed = processedCount;
+        batchEvent.skipped = skippedCount;
+        batchEvent.filtered = filteredCount;
+        batchEvent.sampledOut = sampledOutCount;
+        batchEvent.shed = shedCount;
+        commitBatchEvent(batchEvent, 200);
 
         return ResponseEntity.ok(Map.of(
                 "status", "success",
                 "processed", processedCount,
-                "skipped", skippedCount
+                "skipped", skippedCount,
+                "filtered", filteredCount,
+                "sampled_out", sampledOutCount,
+                "shed", shedCount
         ));
 
     } catch (Exception error) {
         logger.error("Error processing batch from IP: {}", clientIp, error);
+        commitBatchEvent(batchEvent, 500);
         return ResponseEntity.status(500)
                 .body(Map.of("error", "Internal server error: " + error.getMessage()));
     }
 }
+
+    private static void commitBatchEvent(IngestBatchEvent event, int status) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.status = status;
+            event.commit();
+        }
+    }
+
     @GetMapping("/health")
     public ResponseEntity<?> health() {
         return ResponseEntity.ok(Map.of(
@@ -287,6 +390,31 @@ messageNode.set("data", dataNode);
         ));
     }
 
+    @GetMapping("/filters")
+    public ResponseEntity<?> filterStats() {
+        return ResponseEntity.ok(filterPipeline.stats());
+    }
+
+    @GetMapping("/dedup")
+    public ResponseEntity<?> dedupStats() {
+        return ResponseEntity.ok(deduplicator.stats());
+    }
+
+    @GetMapping("/quotas")
+    public ResponseEntity<?> quotaStats() {
+        return ResponseEntity.ok(quotaService.stats());
+    }
+
+    @GetMapping("/sampling")
+    public ResponseEntity<?> samplingStats() {
+        return ResponseEntity.ok(eventSampler.stats());
+    }
+
+    @GetMapping("/redis")
+    public ResponseEntity<?> redisPoolStats() {
+        return ResponseEntity.ok(redisService.poolStats());
+    }
+
     // @GetMapping("/ready")
     // public ResponseEntity<?> ready() {
     //     return ResponseEntity.ok(Map.of(
@@ -295,14 +423,45 @@ messageNode.set("data", dataNode);
     //     ));
     // }
 
+    /**
+     * Served from the background probe results; never blocks on a dependency.
+     * 503 only while Kafka is unknown or unreachable, since ingest needs
+     * nothing else: Redis and ClickHouse are shared by every instance, so
+     * failing readiness on them would empty the whole pool at once. Their
+     * state is still reported, and "degraded" flags an outage.
+     */
     @GetMapping("/ready")
-public ResponseEntity<Map<String, Object>> ready() {
-    Map<String, Object> status = new HashMap<>();
-    status.put("timestamp", Instant.now().toString());
-    status.put("kafka", "connected"); // update with real check if needed
-    status.put("redis", "connected");
-    status.put("clickhouse", "connected");
-    return ResponseEntity.ok(status);
-}
+    public ResponseEntity<Map<String, Object>> ready() {
+        Map<String, Object> status = new HashMap<>();
+        Map<String, Object> checks = new HashMap<>();
+        boolean ready = false;
+        boolean degraded = false;
+        for (Map.Entry<String, DependencyProbes.ProbeResult> entry : dependencyProbes.results().entrySet()) {
+            DependencyProbes.ProbeResult result = entry.getValue();
+            boolean up = result != null && result.up();
+            if (DependencyProbes.KAFKA.equals(entry.getKey())) {
+                ready = up;
+            } else {
+                degraded |= !up;
+            }
+            if (result == null) {
+                status.put(entry.getKey(), "unknown");
+                continue;
+            }
+            status.put(entry.getKey(), result.up() ? "connected" : "disconnected");
+            Map<String, Object> check = new HashMap<>();
+            check.put("latency_ms", result.latencyMs());
+            check.put("checked_at", Instant.ofEpochMilli(result.checkedAt()).toString());
+            if (result.error() != null) {
+                check.put("error", result.error());
+            }
+            checks.put(entry.getKey(), check);
+        }
+        status.put("status", ready ? "ready" : "not_ready");
+        status.put("degraded", degraded);
+        status.put("checks", checks);
+        status.put("timestamp", Instant.now().toString());
+        return ResponseEntity.status(ready ? 200 : 503).body(status);
+    }
 
-}
\ No newline at end of file
+}
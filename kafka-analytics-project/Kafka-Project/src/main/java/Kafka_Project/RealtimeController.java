@@ -0,0 +1,146 @@
+package Kafka_Project;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Locale;
+import java.util.Map;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import Kafka_Project.realtime.ActiveUsersTracker;
+import Kafka_Project.realtime.FunnelEngine;
+import Kafka_Project.realtime.HeavyHitterTracker;
+import Kafka_Project.realtime.LaneMetrics;
+import Kafka_Project.realtime.LiveCounterService;
+import Kafka_Project.realtime.MinuteCounterService;
+import Kafka_Project.realtime.PagePerformanceTracker;
+import jakarta.servlet.http.HttpServletResponse;
+
+@RestController
+@RequestMapping("/realtime")
+public class RealtimeController {
+
+    private final PagePerformanceTracker performanceTracker;
+    private final HeavyHitterTracker heavyHitterTracker;
+    private final LiveCounterService liveCounters;
+    private final ActiveUsersTracker activeUsers;
+    private final FunnelEngine funnelEngine;
+    private final LaneMetrics laneMetrics;
+    private final MinuteCounterService minuteCounters;
+
+    public RealtimeController(PagePerformanceTracker performanceTracker,
+                              HeavyHitterTracker heavyHitterTracker,
+                              LiveCounterService liveCounters,
+                              ActiveUsersTracker activeUsers,
+                              FunnelEngine funnelEngine,
+                              LaneMetrics laneMetrics,
+                              MinuteCounterService minuteCounters) {
+        this.performanceTracker = performanceTracker;
+        this.heavyHitterTracker = heavyHitterTracker;
+        this.liveCounters = liveCounters;
+        this.activeUsers = activeUsers;
+        this.funnelEngine = funnelEngine;
+        this.laneMetrics = laneMetrics;
+        this.minuteCounters = minuteCounters;
+    }
+
+    @GetMapping("/lanes")
+    public ResponseEntity<?> lanes() {
+        return ResponseEntity.ok(laneMetrics.snapshot());
+    }
+
+    @GetMapping("/funnel")
+    public ResponseEntity<?> funnel(
+            @RequestParam("tracking_id") String trackingId,
+            @RequestParam(value = "date", required = false) String date) {
+        LocalDate day;
+        try {
+            day = date == null ? LocalDate.now(ZoneOffset.UTC) : LocalDate.parse(date);
+        } catch (Exception e) {
+            return ResponseEntity.status(400)
+                .body(Map.of("error", "Invalid date, expected yyyy-MM-dd"));
+        }
+        return ResponseEntity.ok(Map.of(
+            "tracking_id", trackingId,
+            "date", day.toString(),
+            "steps", funnelEngine.snapshot(trackingId, day)
+        ));
+    }
+
+    @GetMapping("/active-users")
+    public ResponseEntity<?> activeUsers(
+            @RequestParam("tracking_id") String trackingId,
+            @RequestParam(value = "scope", defaultValue = "global") String scope) {
+        boolean local = "local".equalsIgnoreCase(scope);
+        return ResponseEntity.ok(Map.of(
+            "tracking_id", trackingId,
+            "scope", local ? "local" : "global",
+            "active_users", local
+                ? activeUsers.localActiveUsers(trackingId)
+                : activeUsers.globalActiveUsers(trackingId)
+        ));
+    }
+
+    @GetMapping(value = "/live", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter live(@RequestParam("tracking_id") String trackingId, HttpServletResponse response) {
+        return liveCounters.subscribe(trackingId, response);
+    }
+
+    @GetMapping("/counters")
+    public ResponseEntity<?> counters(@RequestParam("tracking_id") String trackingId) {
+        return ResponseEntity.ok(liveCounters.snapshot(trackingId));
+    }
+
+    @GetMapping("/today")
+    public ResponseEntity<?> today(
+            @RequestParam("tracking_id") String trackingId,
+            @RequestParam(value = "minutes", defaultValue = "60") int minutes) {
+        try {
+            return ResponseEntity.ok(Map.of(
+                "tracking_id", trackingId,
+                "today", minuteCounters.today(trackingId),
+                "minutes", minuteCounters.lastMinutes(trackingId, Math.max(1, Math.min(minutes, 1440)))
+            ));
+        } catch (Exception e) {
+            return ResponseEntity.status(503).body(Map.of("error", "Counters unavailable: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/performance")
+    public ResponseEntity<?> performance(
+            @RequestParam("tracking_id") String trackingId,
+            @RequestParam(value = "page_url", required = false) String pageUrl,
+            @RequestParam(value = "windows", defaultValue = "1") int windows) {
+        return ResponseEntity.ok(Map.of(
+            "tracking_id", trackingId,
+            "page_url", pageUrl == null ? PagePerformanceTracker.ALL_PAGES : pageUrl,
+            "window_start", performanceTracker.currentWindowStart().toString(),
+            "metrics", performanceTracker.percentiles(trackingId, pageUrl, windows)
+        ));
+    }
+
+    @GetMapping("/top")
+    public ResponseEntity<?> top(
+            @RequestParam("tracking_id") String trackingId,
+            @RequestParam("dimension") String dimension,
+            @RequestParam(value = "k", defaultValue = "10") int k) {
+        HeavyHitterTracker.Dimension parsed;
+        try {
+            parsed = HeavyHitterTracker.Dimension.valueOf(dimension.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(400)
+                .body(Map.of("error", "Unknown dimension: " + dimension));
+        }
+        return ResponseEntity.ok(Map.of(
+            "tracking_id", trackingId,
+            "dimension", parsed.name().toLowerCase(Locale.ROOT),
+            "items", heavyHitterTracker.topK(trackingId, parsed, Math.max(1, k))
+        ));
+    }
+}
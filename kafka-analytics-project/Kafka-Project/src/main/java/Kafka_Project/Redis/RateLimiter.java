@@ -4,6 +4,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import Kafka_Project.profiling.RateLimitEvent;
+
 @Component
 public class RateLimiter {
     
@@ -19,8 +21,18 @@ public class RateLimiter {
             if (!rateLimitEnabled) {
                 return true; 
             }
+            RateLimitEvent event = new RateLimitEvent();
+            event.begin();
             Long requestCount = redisService.incrementCounter(key, 3600);
-            return requestCount <= 100;
+            boolean allowed = requestCount <= 100;
+            event.end();
+            if (event.shouldCommit()) {
+                event.limiter = "ip";
+                event.key = key;
+                event.decision = allowed ? "ALLOW" : "REJECT";
+                event.commit();
+            }
+            return allowed;
         } catch (Exception e) {
             return false;
         }
@@ -1,5 +1,7 @@
 package Kafka_Project.Redis;
 
+import java.time.Duration;
+
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -19,11 +21,32 @@ public class RedisConfig {
     private String password;
    
     @Value("${spring.data.redis.timeout}")
-    private String timeout;
+    private int timeout;
+
+    @Value("${analytics.redis.pool.max-total:64}")
+    private int maxTotal;
+
+    @Value("${analytics.redis.pool.max-idle:32}")
+    private int maxIdle;
+
+    @Value("${analytics.redis.pool.min-idle:8}")
+    private int minIdle;
+
+    @Value("${analytics.redis.pool.max-wait-ms:200}")
+    private long maxWaitMs;
 
     @Bean
     public JedisPool jedisPool() {
         JedisPoolConfig poolConfig = new JedisPoolConfig();
-        return new JedisPool(poolConfig, host, port, timeout, password);
+        poolConfig.setMaxTotal(maxTotal);
+        poolConfig.setMaxIdle(maxIdle);
+        poolConfig.setMinIdle(minIdle);
+        // Bounded wait so a saturated pool fails requests instead of piling up threads
+        poolConfig.setBlockWhenExhausted(true);
+        poolConfig.setMaxWait(Duration.ofMillis(maxWaitMs));
+        poolConfig.setTestWhileIdle(true);
+        poolConfig.setJmxEnabled(false);
+        return new JedisPool(poolConfig, host, port, timeout,
+            password == null || password.isBlank() ? null : password);
     }
  }
@@ -1,13 +1,26 @@
 package Kafka_Project.Redis;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
 
 @Service
 public class RedisService {
+
+    /**
+     * A value with its remaining time to live; ttlMillis is -1 without expiry.
+     */
+    public record ExpiringValue(String value, long ttlMillis) {}
     @Autowired
     private JedisPool jedisPool;
 
@@ -30,12 +43,155 @@ public class RedisService {
     }
 
     public Long incrementCounter(String key, int expireSeconds) {
+        return incrementCounters(List.of(key), expireSeconds).get(0);
+    }
+
+    /**
+     * INCRs every key in one pipeline; keys created by this call get
+     * expireSeconds in a second pipeline, as incrementCounter does.
+     */
+    public List<Long> incrementCounters(List<String> keys, int expireSeconds) {
+        try (Jedis jedis = jedisPool.getResource()) {
+            Pipeline pipeline = jedis.pipelined();
+            List<Response<Long>> responses = new ArrayList<>(keys.size());
+            for (String key : keys) {
+                responses.add(pipeline.incr(key));
+            }
+            pipeline.sync();
+            List<Long> counts = new ArrayList<>(keys.size());
+            boolean created = false;
+            for (int i = 0; i < keys.size(); i++) {
+                Long count = responses.get(i).get();
+                counts.add(count);
+                if (count == 1) {
+                    pipeline.expire(keys.get(i), expireSeconds);
+                    created = true;
+                }
+            }
+            if (created) {
+                pipeline.sync();
+            }
+            return counts;
+        }
+    }
+
+    /**
+     * GET and PTTL in one round trip; null when the key does not exist.
+     */
+    public ExpiringValue getDataWithTtl(String key) {
+        try (Jedis jedis = jedisPool.getResource()) {
+            Pipeline pipeline = jedis.pipelined();
+            Response<String> value = pipeline.get(key);
+            Response<Long> ttl = pipeline.pttl(key);
+            pipeline.sync();
+            return value.get() == null ? null : new ExpiringValue(value.get(), ttl.get());
+        }
+    }
+
+    public List<String> getMulti(List<String> keys) {
+        if (keys.isEmpty()) {
+            return List.of();
+        }
+        try (Jedis jedis = jedisPool.getResource()) {
+            return jedis.mget(keys.toArray(new String[0]));
+        }
+    }
+
+    public void saveDataBulk(Map<String, String> values, int time) {
+        if (values.isEmpty()) {
+            return;
+        }
+        try (Jedis jedis = jedisPool.getResource()) {
+            Pipeline pipeline = jedis.pipelined();
+            values.forEach((key, value) -> pipeline.setex(key, time, value));
+            pipeline.sync();
+        }
+    }
+
+    public void addToSet(String key, String member, int expireSeconds) {
         try (Jedis jedis = jedisPool.getResource()) {
-            Long count = jedis.incr(key);
-            if (count == 1) {
-                jedis.expire(key, expireSeconds);
+            jedis.sadd(key, member);
+            jedis.expire(key, expireSeconds);
+        }
+    }
+
+    public Set<String> getSetMembers(String key) {
+        try (Jedis jedis = jedisPool.getResource()) {
+            return jedis.smembers(key);
+        }
+    }
+
+    /**
+     * Marks member as alive in a sorted set scored by timestamp, drops
+     * members not seen within staleMillis and returns how many remain.
+     */
+    public long heartbeat(String key, String member, long nowMillis, long staleMillis) {
+        try (Jedis jedis = jedisPool.getResource()) {
+            jedis.zadd(key, nowMillis, member);
+            jedis.zremrangeByScore(key, 0, nowMillis - staleMillis);
+            jedis.pexpire(key, staleMillis * 2);
+            return jedis.zcard(key);
+        }
+    }
+
+    /**
+     * Applies all hash increments in one pipeline round trip and refreshes
+     * the expiry of every touched key.
+     */
+    public void incrementHashes(Map<String, Map<String, Long>> counts,
+                                Map<String, Map<String, Double>> amounts,
+                                int expireSeconds) {
+        try (Jedis jedis = jedisPool.getResource()) {
+            Pipeline pipeline = jedis.pipelined();
+            counts.forEach((key, fields) -> fields.forEach((field, delta) -> pipeline.hincrBy(key, field, delta)));
+            amounts.forEach((key, fields) -> fields.forEach((field, delta) -> pipeline.hincrByFloat(key, field, delta)));
+            for (String key : counts.keySet()) {
+                pipeline.expire(key, expireSeconds);
+            }
+            for (String key : amounts.keySet()) {
+                if (!counts.containsKey(key)) {
+                    pipeline.expire(key, expireSeconds);
+                }
             }
-            return count;
+            pipeline.sync();
         }
     }
-}
\ No newline at end of file
+
+    public List<Map<String, String>> getHashes(List<String> keys) {
+        try (Jedis jedis = jedisPool.getResource()) {
+            Pipeline pipeline = jedis.pipelined();
+            List<Response<Map<String, String>>> responses = new ArrayList<>(keys.size());
+            for (String key : keys) {
+                responses.add(pipeline.hgetAll(key));
+            }
+            pipeline.sync();
+            List<Map<String, String>> result = new ArrayList<>(keys.size());
+            for (Response<Map<String, String>> response : responses) {
+                result.add(response.get());
+            }
+            return result;
+        }
+    }
+
+    public String ping() {
+        try (Jedis jedis = jedisPool.getResource()) {
+            return jedis.ping();
+        }
+    }
+
+    /**
+     * Borrow wait times are the pool's rolling figures over recent borrows.
+     */
+    public Map<String, Object> poolStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("max_total", jedisPool.getMaxTotal());
+        stats.put("active", jedisPool.getNumActive());
+        stats.put("idle", jedisPool.getNumIdle());
+        stats.put("waiters", jedisPool.getNumWaiters());
+        stats.put("mean_borrow_wait_ms", jedisPool.getMeanBorrowWaitDuration().toMillis());
+        stats.put("max_borrow_wait_ms", jedisPool.getMaxBorrowWaitDuration().toMillis());
+        stats.put("created", jedisPool.getCreatedCount());
+        stats.put("borrowed", jedisPool.getBorrowedCount());
+        return stats;
+    }
+}
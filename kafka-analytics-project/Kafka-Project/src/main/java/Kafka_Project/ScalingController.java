@@ -0,0 +1,32 @@
+package Kafka_Project;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import Kafka_Project.scaling.ConsumerLagMonitor;
+import Kafka_Project.scaling.ScalingAdvisor;
+
+@RestController
+@RequestMapping("/scaling")
+public class ScalingController {
+
+    private final ConsumerLagMonitor lagMonitor;
+    private final ScalingAdvisor scalingAdvisor;
+
+    public ScalingController(ConsumerLagMonitor lagMonitor, ScalingAdvisor scalingAdvisor) {
+        this.lagMonitor = lagMonitor;
+        this.scalingAdvisor = scalingAdvisor;
+    }
+
+    @GetMapping
+    public ResponseEntity<?> recommendation() {
+        return ResponseEntity.ok(scalingAdvisor.recommend());
+    }
+
+    @GetMapping("/lag")
+    public ResponseEntity<?> lag() {
+        return ResponseEntity.ok(lagMonitor.snapshot());
+    }
+}
@@ -0,0 +1,43 @@
+package Kafka_Project.auth;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import Kafka_Project.auth.DashboardTokenVerifier.Scope;
+
+/**
+ * Routes that return tenant analytics or cross-tenant stats. Tracking ids
+ * are public (they sit in every tracker snippet), so these need a dashboard
+ * login whose token covers the requested site, or an operator role.
+ */
+@Configuration
+public class DashboardAuthConfig implements WebMvcConfigurer {
+
+    private final DashboardTokenVerifier verifier;
+    private final ObjectMapper objectMapper;
+
+    public DashboardAuthConfig(DashboardTokenVerifier verifier, ObjectMapper objectMapper) {
+        this.verifier = verifier;
+        this.objectMapper = objectMapper;
+    }
+
+    private static final String[] OPERATOR_PATHS = {
+        "/analytics/exports", "/analytics/cache", "/analytics/coalescing",
+        "/quotas", "/filters", "/sampling", "/redis", "/dedup"
+    };
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new DashboardAuthInterceptor(verifier, objectMapper, Scope.EXPORT))
+            .addPathPatterns("/analytics/export");
+        registry.addInterceptor(new DashboardAuthInterceptor(verifier, objectMapper, Scope.OPERATOR))
+            .addPathPatterns(OPERATOR_PATHS);
+        registry.addInterceptor(new DashboardAuthInterceptor(verifier, objectMapper, Scope.TENANT))
+            .addPathPatterns("/analytics/**")
+            .excludePathPatterns("/analytics/export")
+            .excludePathPatterns(OPERATOR_PATHS);
+    }
+}
@@ -0,0 +1,61 @@
+package Kafka_Project.auth;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Requires a dashboard bearer token granting the route's scope for the
+ * request's tracking_id parameter; answers 401 (403 when auth is not
+ * configured or the token doesn't cover the request) before the handler runs.
+ */
+public class DashboardAuthInterceptor implements HandlerInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(DashboardAuthInterceptor.class);
+
+    private final DashboardTokenVerifier verifier;
+    private final ObjectMapper objectMapper;
+    private final DashboardTokenVerifier.Scope scope;
+
+    public DashboardAuthInterceptor(DashboardTokenVerifier verifier, ObjectMapper objectMapper,
+                                    DashboardTokenVerifier.Scope scope) {
+        this.verifier = verifier;
+        this.objectMapper = objectMapper;
+        this.scope = scope;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws Exception {
+        if ("OPTIONS".equalsIgnoreCase(request.getMethod())) {
+            return true;
+        }
+        String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+        String token = authorization != null && authorization.regionMatches(true, 0, "Bearer ", 0, 7)
+            ? authorization.substring(7).trim()
+            : null;
+        String reason = verifier.reject(token, System.currentTimeMillis() / 1000, scope,
+            request.getParameter("tracking_id"));
+        if (reason == null) {
+            return true;
+        }
+        logger.warn("Rejected {} from {}: {}", request.getRequestURI(), request.getRemoteAddr(), reason);
+        boolean forbidden = !verifier.isConfigured() || reason.startsWith("Token does not grant")
+            || "Role not allowed".equals(reason);
+        response.setStatus(forbidden ? 403 : 401);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write(objectMapper.writeValueAsString(Map.of("error", reason)));
+        return false;
+    }
+}
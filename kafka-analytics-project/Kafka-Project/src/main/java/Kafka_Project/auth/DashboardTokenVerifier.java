@@ -0,0 +1,119 @@
+package Kafka_Project.auth;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Verifies the HS256 JWTs the Laravel dashboard issues (tymon/jwt-auth,
+ * signed with the shared JWT_SECRET) for routes that expose tenant data or
+ * cross-tenant stats. Checks the signature and exp/nbf, then what the scope
+ * needs: the "tracking_ids" claim must hold the requested tracking_id
+ * ("*" for all sites), and exports and operator stats also need a "role"
+ * claim from their configured roles. With no secret configured every token
+ * is refused.
+ */
+@Component
+public class DashboardTokenVerifier {
+
+    private static final long CLOCK_SKEW_SECONDS = 30;
+
+    /**
+     * TENANT: one site's analytics. EXPORT: one site's raw rows, also by
+     * role. OPERATOR: stats across all tenants, by role only.
+     */
+    public enum Scope { TENANT, EXPORT, OPERATOR }
+
+    private final byte[] secret;
+    private final Set<String> exportRoles;
+    private final Set<String> operatorRoles;
+    private final ObjectMapper objectMapper;
+
+    public DashboardTokenVerifier(@Value("${analytics.auth.jwt-secret:}") String secret,
+                                  @Value("${analytics.auth.export-roles:admin}") String exportRoles,
+                                  @Value("${analytics.auth.operator-roles:admin}") String operatorRoles,
+                                  ObjectMapper objectMapper) {
+        this.secret = secret.getBytes(StandardCharsets.UTF_8);
+        this.exportRoles = roles(exportRoles);
+        this.operatorRoles = roles(operatorRoles);
+        this.objectMapper = objectMapper;
+    }
+
+    private static Set<String> roles(String config) {
+        return Arrays.stream(config.split(","))
+            .map(String::trim)
+            .filter(role -> !role.isEmpty())
+            .collect(Collectors.toSet());
+    }
+
+    public boolean isConfigured() {
+        return secret.length > 0;
+    }
+
+    /**
+     * Null when the token grants the scope for trackingId (ignored for
+     * OPERATOR), otherwise the reason it does not.
+     */
+    public String reject(String token, long nowSeconds, Scope scope, String trackingId) {
+        if (!isConfigured()) {
+            return "Dashboard authentication is not configured";
+        }
+        if (token == null || token.isBlank()) {
+            return "Missing bearer token";
+        }
+        String[] parts = token.split("\\.");
+        if (parts.length != 3) {
+            return "Malformed token";
+        }
+        try {
+            JsonNode header = objectMapper.readTree(Base64.getUrlDecoder().decode(parts[0]));
+            if (!"HS256".equals(header.path("alg").asText())) {
+                return "Unsupported token algorithm";
+            }
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret, "HmacSHA256"));
+            byte[] expected = mac.doFinal((parts[0] + "." + parts[1]).getBytes(StandardCharsets.US_ASCII));
+            if (!MessageDigest.isEqual(expected, Base64.getUrlDecoder().decode(parts[2]))) {
+                return "Invalid token signature";
+            }
+            JsonNode claims = objectMapper.readTree(Base64.getUrlDecoder().decode(parts[1]));
+            if (!claims.hasNonNull("exp") || claims.get("exp").asLong() + CLOCK_SKEW_SECONDS < nowSeconds) {
+                return "Token expired";
+            }
+            if (claims.hasNonNull("nbf") && claims.get("nbf").asLong() - CLOCK_SKEW_SECONDS > nowSeconds) {
+                return "Token not yet valid";
+            }
+            Set<String> roles = scope == Scope.EXPORT ? exportRoles : scope == Scope.OPERATOR ? operatorRoles : Set.of();
+            if (!roles.isEmpty() && !roles.contains(claims.path("role").asText(""))) {
+                return "Role not allowed";
+            }
+            if (scope == Scope.OPERATOR) {
+                return null;
+            }
+            if (trackingId == null || trackingId.isBlank()) {
+                return "Missing tracking_id";
+            }
+            Set<String> sites = new HashSet<>();
+            claims.path("tracking_ids").forEach(site -> sites.add(site.asText()));
+            if (!sites.contains(trackingId) && !sites.contains("*")) {
+                return "Token does not grant tracking_id " + trackingId;
+            }
+            return null;
+        } catch (Exception e) {
+            return "Malformed token";
+        }
+    }
+}
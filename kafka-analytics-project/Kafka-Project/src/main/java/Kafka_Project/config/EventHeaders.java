@@ -0,0 +1,54 @@
+package Kafka_Project.config;
+
+import java.nio.charset.StandardCharsets;
+
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+
+/**
+ * Routing metadata the producer attaches to every tracker event, so
+ * consumers can route, filter and dedupe without decoding the payload.
+ * All values are UTF-8 strings.
+ */
+public final class EventHeaders {
+
+    public static final String EVENT_TYPE = "event_type";
+    public static final String TRACKING_ID = "tracking_id";
+    public static final String SESSION_ID = "session_id";
+    public static final String EVENT_ID = "event_id";
+    public static final String INGEST_TS = "ingest_ts";
+    public static final String SCHEMA_VERSION = "schema_version";
+
+    // Bump when the envelope layout changes incompatibly
+    public static final int CURRENT_SCHEMA_VERSION = 1;
+
+    private EventHeaders() {
+    }
+
+    public static void put(Headers headers, String name, String value) {
+        if (value != null && !value.isEmpty()) {
+            headers.add(name, value.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    public static String get(Headers headers, String name) {
+        Header header = headers.lastHeader(name);
+        return header == null ? null : new String(header.value(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Schema version of the record, or 0 for records produced before
+     * headers were added.
+     */
+    public static int schemaVersion(Headers headers) {
+        String value = get(headers, SCHEMA_VERSION);
+        if (value == null) {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
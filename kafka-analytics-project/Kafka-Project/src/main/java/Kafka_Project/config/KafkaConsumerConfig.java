@@ -5,9 +5,12 @@ import java.util.Map;
 
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.kafka.annotation.EnableKafka;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
@@ -19,6 +22,9 @@ public class KafkaConsumerConfig {
     
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
+
+    @Autowired
+    private Environment environment;
     
     public Map<String, Object> consumerConfig() {
         Map<String, Object> props = new HashMap<>();
@@ -45,6 +51,72 @@ public class KafkaConsumerConfig {
         factory.setConsumerFactory(consumerFactory());
         factory.setConcurrency(3);
         factory.getContainerProperties().setPollTimeout(3000);
+        // Listeners take the whole poll so records can be reordered fairly across tenants
+        factory.setBatchListener(true);
+        return factory;
+    }
+
+    /*
+     * One container factory per event family ("lane"), each with its own
+     * consumer threads, poll size and fetch wait, so a slow table in one
+     * family never holds up another. Defaults favour latency for ecommerce
+     * and batch fill for telemetry; every value can be overridden with
+     * analytics.lanes.<lane>.<setting>.
+     */
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, String> pageLaneContainerFactory() {
+        return laneFactory("page", new LaneSettings(3, 500, 1, 100, 1000));
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, String> interactionLaneContainerFactory() {
+        return laneFactory("interaction", new LaneSettings(2, 500, 1, 250, 1000));
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, String> formLaneContainerFactory() {
+        return laneFactory("form", new LaneSettings(1, 500, 1, 250, 1000));
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, String> ecommerceLaneContainerFactory() {
+        return laneFactory("ecommerce", new LaneSettings(3, 50, 1, 10, 500));
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, String> telemetryLaneContainerFactory() {
+        return laneFactory("telemetry", new LaneSettings(2, 2000, 65536, 1000, 3000));
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, String> overflowLaneContainerFactory() {
+        return laneFactory("overflow", new LaneSettings(1, 500, 65536, 1000, 3000));
+    }
+
+    private record LaneSettings(int concurrency, int maxPollRecords, int fetchMinBytes,
+                                int fetchMaxWaitMs, long pollTimeoutMs) {}
+
+    private ConcurrentKafkaListenerContainerFactory<String, String> laneFactory(String lane, LaneSettings defaults) {
+        String prefix = "analytics.lanes." + lane + ".";
+        int concurrency = environment.getProperty(prefix + "concurrency", Integer.class, defaults.concurrency());
+        Map<String, Object> props = consumerConfig();
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG,
+            environment.getProperty(prefix + "max-poll-records", Integer.class, defaults.maxPollRecords()));
+        props.put(ConsumerConfig.FETCH_MIN_BYTES_CONFIG,
+            environment.getProperty(prefix + "fetch-min-bytes", Integer.class, defaults.fetchMinBytes()));
+        props.put(ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG,
+            environment.getProperty(prefix + "fetch-max-wait-ms", Integer.class, defaults.fetchMaxWaitMs()));
+
+        ConcurrentKafkaListenerContainerFactory<String, String> factory =
+            new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(new DefaultKafkaConsumerFactory<>(props));
+        factory.setConcurrency(concurrency);
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setPollTimeout(
+            environment.getProperty(prefix + "poll-timeout-ms", Long.class, defaults.pollTimeoutMs()));
+        // Dedicated, named consumer threads per lane
+        factory.getContainerProperties().setListenerTaskExecutor(new SimpleAsyncTaskExecutor("lane-" + lane + "-"));
         return factory;
     }
 }
\ No newline at end of file
@@ -17,6 +17,15 @@ public class KafkaProducerConfig {
         
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
+
+    @Value("${analytics.partitioner.window-ms:10000}")
+    private long partitionerWindowMs;
+
+    @Value("${analytics.partitioner.max-spread:8}")
+    private int partitionerMaxSpread;
+
+    @Value("${analytics.partitioner.tracked-sessions:200000}")
+    private int partitionerTrackedSessions;
         
     @Bean
     public ProducerFactory<String, String> producerFactory() {
@@ -38,6 +47,12 @@ public class KafkaProducerConfig {
         config.put(ProducerConfig.LINGER_MS_CONFIG, 10);
         config.put(ProducerConfig.BUFFER_MEMORY_CONFIG, 33554432);
         
+        // Per-session ordering with hot tenants spread over several partitions
+        config.put(ProducerConfig.PARTITIONER_CLASS_CONFIG, SessionAwarePartitioner.class);
+        config.put(SessionAwarePartitioner.WINDOW_MS_CONFIG, partitionerWindowMs);
+        config.put(SessionAwarePartitioner.MAX_SPREAD_CONFIG, partitionerMaxSpread);
+        config.put(SessionAwarePartitioner.TRACKED_SESSIONS_CONFIG, partitionerTrackedSessions);
+        
         // Timeout settings
         config.put(ProducerConfig.REQUEST_TIMEOUT_MS_CONFIG, 30000);
         config.put(ProducerConfig.DELIVERY_TIMEOUT_MS_CONFIG, 120000);
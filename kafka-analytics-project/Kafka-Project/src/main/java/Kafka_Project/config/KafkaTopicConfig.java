@@ -4,6 +4,7 @@ import java.util.List;
 import org.springframework.kafka.core.KafkaAdmin;
 
 import org.apache.kafka.clients.admin.NewTopic;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.TopicBuilder;
@@ -18,9 +19,13 @@ public class KafkaTopicConfig {
         "file_download", "page_visible"
     );
 
+    // Per-type topics; in family mode only while analytics.topics.consume-legacy
+    // is set for a migration
     @Bean
-    public KafkaAdmin.NewTopics createTopics() {
-        
+    public KafkaAdmin.NewTopics createTopics(TopicRouting topicRouting) {
+        if (!topicRouting.usesPerTypeTopics()) {
+            return new KafkaAdmin.NewTopics();
+        }
         return new KafkaAdmin.NewTopics(
             TOPIC_NAMES.stream()
                 .map(name -> TopicBuilder.name(name)
@@ -32,4 +37,48 @@ public class KafkaTopicConfig {
                 .toArray(NewTopic[]::new)
         );
     }
+
+    // Family topics carry several event types each (event_type header); only
+    // created when analytics.topics.mode=family
+    @Bean
+    public KafkaAdmin.NewTopics familyTopics(TopicRouting topicRouting,
+                                             @Value("${analytics.topics.family-partitions:6}") int partitions) {
+        if (topicRouting.getMode() != TopicRouting.Mode.FAMILY) {
+            return new KafkaAdmin.NewTopics();
+        }
+        return new KafkaAdmin.NewTopics(
+            topicRouting.familyTopics().stream()
+                .map(name -> TopicBuilder.name(name)
+                    .partitions(partitions)
+                    .replicas(3)
+                    .config("min.insync.replicas", "2")
+                    .config("retention.ms", "604800000")
+                    .build())
+                .toArray(NewTopic[]::new)
+        );
+    }
+
+    // Tenants over their ingest quota are demoted here and consumed by a
+    // single low-priority listener
+    @Bean
+    public NewTopic overflowEventsTopic(@Value("${analytics.quota.overflow-topic:overflow_events}") String name) {
+        return TopicBuilder.name(name)
+            .partitions(3)
+            .replicas(3)
+            .config("min.insync.replicas", "2")
+            .config("retention.ms", "86400000")
+            .build();
+    }
+
+    // Events rejected by the ingest filters when analytics.filter.action=route;
+    // kept briefly for inspection and never consumed by the main pipeline
+    @Bean
+    public NewTopic filteredEventsTopic(@Value("${analytics.filter.route-topic:filtered_events}") String name) {
+        return TopicBuilder.name(name)
+            .partitions(1)
+            .replicas(3)
+            .config("min.insync.replicas", "2")
+            .config("retention.ms", "86400000")
+            .build();
+    }
 }   
\ No newline at end of file
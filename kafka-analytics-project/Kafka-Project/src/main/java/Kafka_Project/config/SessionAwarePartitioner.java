@@ -0,0 +1,137 @@
+package Kafka_Project.config;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.kafka.clients.producer.Partitioner;
+import org.apache.kafka.common.Cluster;
+import org.apache.kafka.common.PartitionInfo;
+
+import Kafka_Project.util.Hashing;
+import Kafka_Project.util.LruCache;
+
+/**
+ * Places tracker events by their "tracking_id|session_id" key.
+ *
+ * A tenant hashes to a home partition and, normally, all of its sessions
+ * go there. When one tenant carries more than a partition's fair share of
+ * a topic's traffic it is spread over a run of consecutive partitions
+ * starting at home, each session picking one by its own hash.
+ *
+ * Spread widths are recomputed per window from observed traffic; they grow
+ * as soon as a tenant runs hot but only shrink once its load has fallen to
+ * half. A width change only affects sessions this producer has not seen:
+ * the partition a session was first placed on is pinned (bounded LRU of
+ * tracked-sessions entries), so a live session stays on one partition,
+ * ordered and deduplicated in one place, however the width moves. Only a
+ * session evicted from the pins, or one whose events come through another
+ * ingest instance during a width change, can move.
+ */
+public class SessionAwarePartitioner implements Partitioner {
+
+    public static final String WINDOW_MS_CONFIG = "analytics.partitioner.window-ms";
+    public static final String MAX_SPREAD_CONFIG = "analytics.partitioner.max-spread";
+    public static final String MIN_SAMPLES_CONFIG = "analytics.partitioner.min-samples";
+    public static final String TRACKED_SESSIONS_CONFIG = "analytics.partitioner.tracked-sessions";
+
+    private final ConcurrentHashMap<String, TopicWindow> topics = new ConcurrentHashMap<>();
+    private long windowMs = 10_000;
+    private int maxSpread = 8;
+    private long minSamples = 1_000;
+    private LruCache<String, Integer> pins = new LruCache<>(200_000);
+
+    private static final class TopicWindow {
+        final ConcurrentHashMap<String, LongAdder> counts = new ConcurrentHashMap<>();
+        final LongAdder total = new LongAdder();
+        volatile Map<String, Integer> widths = Map.of();
+        volatile long startedAt;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs) {
+        windowMs = longConfig(configs, WINDOW_MS_CONFIG, windowMs);
+        maxSpread = (int) longConfig(configs, MAX_SPREAD_CONFIG, maxSpread);
+        minSamples = longConfig(configs, MIN_SAMPLES_CONFIG, minSamples);
+        pins = new LruCache<>((int) longConfig(configs, TRACKED_SESSIONS_CONFIG, 200_000));
+    }
+
+    @Override
+    public int partition(String topic, Object key, byte[] keyBytes, Object value, byte[] valueBytes, Cluster cluster) {
+        List<PartitionInfo> partitions = cluster.partitionsForTopic(topic);
+        int count = partitions.size();
+        if (key == null || count <= 1) {
+            return count <= 1 ? 0 : ThreadLocalRandom.current().nextInt(count);
+        }
+        String keyText = key instanceof String text ? text : new String(keyBytes, StandardCharsets.UTF_8);
+        int split = keyText.lastIndexOf('|');
+        if (split < 0) {
+            return (int) Long.remainderUnsigned(Hashing.hash64(keyText), count);
+        }
+        String tenant = keyText.substring(0, split);
+        String session = keyText.substring(split + 1);
+        return partitionFor(topic, tenant, session, count, System.currentTimeMillis());
+    }
+
+    int partitionFor(String topic, String tenant, String session, int partitionCount, long nowMillis) {
+        TopicWindow window = topics.computeIfAbsent(topic, key -> new TopicWindow());
+        if (window.startedAt == 0) {
+            window.startedAt = nowMillis;
+        } else if (nowMillis - window.startedAt >= windowMs) {
+            roll(window, partitionCount, nowMillis);
+        }
+        window.counts.computeIfAbsent(tenant, key -> new LongAdder()).increment();
+        window.total.increment();
+
+        int home = (int) Long.remainderUnsigned(Hashing.hash64(tenant), partitionCount);
+        String pinKey = topic + '|' + tenant + '|' + session;
+        Integer pinned = pins.get(pinKey);
+        if (pinned != null) {
+            return (home + pinned) % partitionCount;
+        }
+        int width = Math.min(window.widths.getOrDefault(tenant, 1), partitionCount);
+        int offset = width <= 1 ? 0 : (int) Long.remainderUnsigned(Hashing.hash64(session), width);
+        pins.put(pinKey, offset);
+        return (home + offset) % partitionCount;
+    }
+
+    private synchronized void roll(TopicWindow window, int partitionCount, long nowMillis) {
+        if (nowMillis - window.startedAt < windowMs) {
+            return;
+        }
+        long total = window.total.sumThenReset();
+        Map<String, LongAdder> counts = new HashMap<>(window.counts);
+        window.counts.clear();
+        window.startedAt = nowMillis;
+        if (total < minSamples) {
+            return;
+        }
+
+        Map<String, Integer> previous = window.widths;
+        Map<String, Integer> next = new HashMap<>();
+        counts.forEach((tenant, adder) -> {
+            double share = (double) adder.sum() / total;
+            // Partitions needed so no single one carries more than its fair share
+            int desired = Math.min(Math.min(maxSpread, partitionCount), (int) Math.ceil(share * partitionCount));
+            int current = previous.getOrDefault(tenant, 1);
+            int width = desired > current ? desired : (desired * 2 <= current ? Math.max(1, desired) : current);
+            if (width > 1) {
+                next.put(tenant, width);
+            }
+        });
+        window.widths = next;
+    }
+
+    private static long longConfig(Map<String, ?> configs, String name, long defaultValue) {
+        Object value = configs.get(name);
+        return value == null ? defaultValue : Long.parseLong(value.toString());
+    }
+
+    @Override
+    public void close() {
+    }
+}
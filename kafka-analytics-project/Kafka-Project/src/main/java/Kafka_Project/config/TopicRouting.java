@@ -0,0 +1,109 @@
+package Kafka_Project.config;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.kafka.common.header.Headers;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Decides which topic an event type is produced to and which topics each
+ * consumer family listens on.
+ *
+ * In per-type mode (the original layout) every event type has its own
+ * topic. In family mode event types are grouped into a handful of family
+ * topics and the type travels in the event_type record header, so small
+ * types share well-filled batches and consumers dispatch on the header.
+ * consume-legacy is a migration flag: while it is on, family mode still
+ * creates the per-type topics and its listeners drain them, so the mode can
+ * be switched without losing in-flight events. Off by default, so family
+ * mode neither creates nor subscribes to the per-type topics.
+ */
+@Component("topicRouting")
+public class TopicRouting {
+
+    public enum Mode { PER_TYPE, FAMILY }
+
+    private static final Map<String, List<String>> FAMILIES = new LinkedHashMap<>();
+    private static final Map<String, String> FAMILY_BY_TYPE = new HashMap<>();
+
+    static {
+        FAMILIES.put("page", List.of("page_load", "page_view", "page_unload", "page_hidden", "page_visible"));
+        FAMILIES.put("interaction", List.of("mouse_click", "button_click", "link_click", "file_download"));
+        FAMILIES.put("form", List.of("form_submit", "form_focus", "form_input"));
+        FAMILIES.put("ecommerce", List.of("product_view", "cart_add", "cart_remove", "checkout_step", "purchase"));
+        FAMILIES.put("telemetry", List.of("mouse_move", "periodic_events", "scroll_depth", "video_Events", "custom_event"));
+        FAMILIES.forEach((family, types) -> types.forEach(type -> FAMILY_BY_TYPE.put(type, family)));
+    }
+
+    private final Mode mode;
+    private final String familyPrefix;
+    private final boolean consumeLegacy;
+
+    public TopicRouting(@Value("${analytics.topics.mode:per-type}") String mode,
+                        @Value("${analytics.topics.family-prefix:events_}") String familyPrefix,
+                        @Value("${analytics.topics.consume-legacy:false}") boolean consumeLegacy) {
+        this.mode = Mode.valueOf(mode.trim().toUpperCase().replace('-', '_'));
+        this.familyPrefix = familyPrefix;
+        this.consumeLegacy = consumeLegacy;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Whether the per-type topics are in use: always in per-type mode, and
+     * in family mode only while migrating off them.
+     */
+    public boolean usesPerTypeTopics() {
+        return mode == Mode.PER_TYPE || consumeLegacy;
+    }
+
+    public String topicFor(String eventType) {
+        String family = FAMILY_BY_TYPE.get(eventType);
+        if (mode == Mode.PER_TYPE || family == null) {
+            return eventType;
+        }
+        return familyPrefix + family;
+    }
+
+    /**
+     * Topics a family's listener subscribes to; used from @KafkaListener SpEL.
+     */
+    public String[] topicsFor(String family) {
+        List<String> types = FAMILIES.get(family);
+        if (types == null) {
+            throw new IllegalArgumentException("Unknown event family: " + family);
+        }
+        if (mode == Mode.PER_TYPE) {
+            return types.toArray(String[]::new);
+        }
+        List<String> topics = new ArrayList<>();
+        topics.add(familyPrefix + family);
+        if (consumeLegacy) {
+            topics.addAll(types);
+        }
+        return topics.toArray(String[]::new);
+    }
+
+    public static String familyOf(String eventType) {
+        return FAMILY_BY_TYPE.get(eventType);
+    }
+
+    public List<String> familyTopics() {
+        return FAMILIES.keySet().stream().map(family -> familyPrefix + family).toList();
+    }
+
+    /**
+     * The event type from the record header, or null for records produced
+     * before headers were added.
+     */
+    public static String eventTypeOf(Headers headers) {
+        return EventHeaders.get(headers, EventHeaders.EVENT_TYPE);
+    }
+}
@@ -0,0 +1,65 @@
+package Kafka_Project.enrichment;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Offline IP-to-country lookups from a local range database. The index is
+ * rebuilt off to the side whenever the file changes and swapped in with a
+ * single volatile write, so lookups never block or see a half-loaded file.
+ */
+@Service
+public class GeoIpService {
+
+    private static final Logger logger = LoggerFactory.getLogger(GeoIpService.class);
+
+    private final String databasePath;
+    private volatile IpCountryIndex index = IpCountryIndex.EMPTY;
+    private volatile long loadedModifiedTime = -1;
+
+    public GeoIpService(@Value("${analytics.geoip.path:}") String databasePath) {
+        this.databasePath = databasePath;
+        reloadIfChanged();
+    }
+
+    public GeoLocation lookup(String ip) {
+        return index.lookup(ip);
+    }
+
+    public int rangeCount() {
+        return index.size();
+    }
+
+    @Scheduled(fixedDelayString = "${analytics.geoip.reload-check-ms:60000}")
+    public void reloadIfChanged() {
+        if (databasePath == null || databasePath.isBlank()) {
+            return;
+        }
+        Path path = Path.of(databasePath);
+        try {
+            if (!Files.isReadable(path)) {
+                logger.warn("GeoIP database not readable at {}", path);
+                return;
+            }
+            long modified = Files.getLastModifiedTime(path).toMillis();
+            if (modified == loadedModifiedTime) {
+                return;
+            }
+            long started = System.currentTimeMillis();
+            IpCountryIndex loaded = IpCountryIndex.load(path);
+            index = loaded;
+            loadedModifiedTime = modified;
+            logger.info("Loaded {} GeoIP ranges from {} in {} ms",
+                loaded.size(), path, System.currentTimeMillis() - started);
+        } catch (Exception e) {
+            // Keep serving the previous index
+            logger.error("Failed to load GeoIP database {}: {}", path, e.getMessage());
+        }
+    }
+}
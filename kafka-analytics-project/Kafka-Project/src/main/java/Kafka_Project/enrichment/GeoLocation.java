@@ -0,0 +1,6 @@
+package Kafka_Project.enrichment;
+
+public record GeoLocation(String country, String countryCode) {
+
+    public static final GeoLocation UNKNOWN = new GeoLocation("Unknown", "XX");
+}
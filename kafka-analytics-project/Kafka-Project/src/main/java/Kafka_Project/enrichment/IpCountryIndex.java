@@ -0,0 +1,218 @@
+package Kafka_Project.enrichment;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Immutable IPv4 range-to-country index. Ranges are held in parallel
+ * primitive arrays sorted by start address (unsigned ints), so a full
+ * country database costs a few MB and a lookup is one binary search.
+ *
+ * Accepts the common "start,end,country_code[,country_name]" CSV layout
+ * (db-ip / ip2location lite style) with dotted or numeric addresses and
+ * optionally quoted fields ("Korea, Republic of"); IPv6 rows, comments and
+ * headers are skipped.
+ */
+public final class IpCountryIndex {
+
+    public static final IpCountryIndex EMPTY =
+        new IpCountryIndex(new int[0], new int[0], new short[0], new GeoLocation[0]);
+
+    private final int[] starts;
+    private final int[] ends;
+    private final short[] locationIds;
+    private final GeoLocation[] locations;
+
+    private IpCountryIndex(int[] starts, int[] ends, short[] locationIds, GeoLocation[] locations) {
+        this.starts = starts;
+        this.ends = ends;
+        this.locationIds = locationIds;
+        this.locations = locations;
+    }
+
+    public GeoLocation lookup(String ip) {
+        long address = parseIpv4(ip);
+        if (address < 0 || starts.length == 0) {
+            return GeoLocation.UNKNOWN;
+        }
+        int key = (int) address;
+        int low = 0;
+        int high = starts.length - 1;
+        int candidate = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (Integer.compareUnsigned(starts[mid], key) <= 0) {
+                candidate = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        if (candidate >= 0 && Integer.compareUnsigned(key, ends[candidate]) <= 0) {
+            return locations[locationIds[candidate]];
+        }
+        return GeoLocation.UNKNOWN;
+    }
+
+    public int size() {
+        return starts.length;
+    }
+
+    public static IpCountryIndex load(Path path) throws IOException {
+        int[] rangeStarts = new int[1024];
+        int[] rangeEnds = new int[1024];
+        short[] rangeLocations = new short[1024];
+        Map<String, Short> locationIds = new HashMap<>();
+        GeoLocation[] locations = new GeoLocation[256];
+        int count = 0;
+
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                List<String> fields = splitCsv(line);
+                if (fields.size() < 3) {
+                    continue;
+                }
+                long start = parseAddress(fields.get(0).trim());
+                long end = parseAddress(fields.get(1).trim());
+                String code = fields.get(2).trim().toUpperCase(Locale.ROOT);
+                if (start < 0 || end < start || code.length() != 2 || "-".equals(code)) {
+                    continue;
+                }
+                String name = fields.size() > 3 && !fields.get(3).isBlank()
+                    ? fields.get(3).trim()
+                    : Locale.of("", code).getDisplayCountry(Locale.ENGLISH);
+
+                Short id = locationIds.get(code);
+                if (id == null) {
+                    id = (short) locationIds.size();
+                    if (id >= locations.length) {
+                        locations = Arrays.copyOf(locations, locations.length * 2);
+                    }
+                    locations[id] = new GeoLocation(name, code);
+                    locationIds.put(code, id);
+                }
+
+                if (count == rangeStarts.length) {
+                    rangeStarts = Arrays.copyOf(rangeStarts, count * 2);
+                    rangeEnds = Arrays.copyOf(rangeEnds, count * 2);
+                    rangeLocations = Arrays.copyOf(rangeLocations, count * 2);
+                }
+                rangeStarts[count] = (int) start;
+                rangeEnds[count] = (int) end;
+                rangeLocations[count] = id;
+                count++;
+            }
+        }
+
+        // Published databases are already ordered; only sort when they are not
+        boolean sorted = true;
+        for (int i = 1; i < count && sorted; i++) {
+            sorted = Integer.compareUnsigned(rangeStarts[i - 1], rangeStarts[i]) <= 0;
+        }
+        int[] starts = Arrays.copyOf(rangeStarts, count);
+        int[] ends = Arrays.copyOf(rangeEnds, count);
+        short[] ids = Arrays.copyOf(rangeLocations, count);
+        if (!sorted) {
+            // Unsigned start in the high bits, row number in the low 31: one primitive sort
+            long[] order = new long[count];
+            for (int i = 0; i < count; i++) {
+                order[i] = Integer.toUnsignedLong(rangeStarts[i]) << 31 | i;
+            }
+            Arrays.sort(order);
+            for (int i = 0; i < count; i++) {
+                int row = (int) (order[i] & 0x7FFFFFFF);
+                starts[i] = rangeStarts[row];
+                ends[i] = rangeEnds[row];
+                ids[i] = rangeLocations[row];
+            }
+        }
+        return new IpCountryIndex(starts, ends, ids, Arrays.copyOf(locations, locationIds.size()));
+    }
+
+    /**
+     * Splits one CSV line, honouring double-quoted fields with embedded
+     * commas and doubled quotes.
+     */
+    static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>(4);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static long parseAddress(String value) {
+        if (value.indexOf('.') >= 0) {
+            return parseIpv4(value);
+        }
+        try {
+            long numeric = Long.parseLong(value);
+            return numeric >= 0 && numeric <= 0xFFFFFFFFL ? numeric : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Dotted-quad IPv4 to its unsigned value, or -1 for anything else.
+     */
+    static long parseIpv4(String ip) {
+        if (ip == null || ip.isEmpty()) {
+            return -1;
+        }
+        long result = 0;
+        int octets = 0;
+        int value = -1;
+        for (int i = 0; i <= ip.length(); i++) {
+            char c = i < ip.length() ? ip.charAt(i) : '.';
+            if (c == '.') {
+                if (value < 0 || value > 255 || ++octets > 4) {
+                    return -1;
+                }
+                result = (result << 8) | value;
+                value = -1;
+            } else if (c >= '0' && c <= '9') {
+                value = (value < 0 ? 0 : value * 10) + (c - '0');
+                if (value > 255) {
+                    return -1;
+                }
+            } else {
+                return -1;
+            }
+        }
+        return octets == 4 ? result : -1;
+    }
+}
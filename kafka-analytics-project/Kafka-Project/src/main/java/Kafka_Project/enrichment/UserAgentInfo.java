@@ -0,0 +1,6 @@
+package Kafka_Project.enrichment;
+
+public record UserAgentInfo(String deviceType, String operatingSystem, String browser) {
+
+    public static final UserAgentInfo UNKNOWN = new UserAgentInfo("Unknown", "Unknown", "Unknown");
+}
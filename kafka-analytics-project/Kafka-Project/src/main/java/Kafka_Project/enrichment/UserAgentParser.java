@@ -0,0 +1,95 @@
+package Kafka_Project.enrichment;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import Kafka_Project.util.LruCache;
+
+/**
+ * Maps a raw User-Agent header to device type, OS and browser family.
+ * A handful of UA strings covers most traffic, so results sit behind a
+ * bounded LRU keyed by the raw string and the regexes only run on a miss.
+ */
+@Component
+public class UserAgentParser {
+
+    private record Rule(Pattern pattern, String value) {}
+
+    private static final Pattern BOT = Pattern.compile(
+        "bot|crawl|spider|slurp|headless|lighthouse|facebookexternalhit|curl/|wget/|python-requests|okhttp",
+        Pattern.CASE_INSENSITIVE);
+    private static final Pattern TABLET = Pattern.compile(
+        "ipad|tablet|kindle|silk/|playbook|android(?!.*mobile)", Pattern.CASE_INSENSITIVE);
+    private static final Pattern MOBILE = Pattern.compile(
+        "mobi|iphone|ipod|windows phone|blackberry|opera mini", Pattern.CASE_INSENSITIVE);
+
+    // Order matters: iOS and Android UAs also mention Mac OS X / Linux
+    private static final List<Rule> OPERATING_SYSTEMS = List.of(
+        rule("windows phone", "Windows Phone"),
+        rule("windows nt|win64|win32", "Windows"),
+        rule("iphone|ipad|ipod", "iOS"),
+        rule("android", "Android"),
+        // Case-sensitive and whole-word: "cros" also occurs inside "Microsoft"
+        new Rule(Pattern.compile("\\bCrOS\\b"), "Chrome OS"),
+        rule("mac os x|macintosh", "macOS"),
+        rule("linux|x11", "Linux")
+    );
+
+    // Order matters: Edge, Opera and Samsung UAs all contain "Chrome" and "Safari"
+    private static final List<Rule> BROWSERS = List.of(
+        rule("edg(e|a|ios)?/", "Edge"),
+        rule("opr/|opera", "Opera"),
+        rule("samsungbrowser/", "Samsung Internet"),
+        rule("firefox/|fxios/", "Firefox"),
+        rule("chrome/|crios/|chromium/", "Chrome"),
+        rule("version/[\\d.]+.*safari/", "Safari"),
+        rule("msie |trident/", "Internet Explorer")
+    );
+
+    private final LruCache<String, UserAgentInfo> cache;
+
+    public UserAgentParser(@Value("${analytics.enrichment.ua-cache-size:10000}") int cacheSize) {
+        this.cache = new LruCache<>(cacheSize);
+    }
+
+    public UserAgentInfo parse(String userAgent) {
+        if (userAgent == null || userAgent.isBlank()) {
+            return UserAgentInfo.UNKNOWN;
+        }
+        return cache.getOrCompute(userAgent, UserAgentParser::parseUncached);
+    }
+
+    public LruCache<String, UserAgentInfo> getCache() {
+        return cache;
+    }
+
+    static UserAgentInfo parseUncached(String ua) {
+        String deviceType;
+        if (BOT.matcher(ua).find()) {
+            deviceType = "Bot";
+        } else if (TABLET.matcher(ua).find()) {
+            deviceType = "Tablet";
+        } else if (MOBILE.matcher(ua).find()) {
+            deviceType = "Mobile";
+        } else {
+            deviceType = "Desktop";
+        }
+        return new UserAgentInfo(deviceType, firstMatch(OPERATING_SYSTEMS, ua), firstMatch(BROWSERS, ua));
+    }
+
+    private static Rule rule(String regex, String value) {
+        return new Rule(Pattern.compile(regex, Pattern.CASE_INSENSITIVE), value);
+    }
+
+    private static String firstMatch(List<Rule> rules, String ua) {
+        for (Rule rule : rules) {
+            if (rule.pattern().matcher(ua).find()) {
+                return rule.value();
+            }
+        }
+        return "Unknown";
+    }
+}
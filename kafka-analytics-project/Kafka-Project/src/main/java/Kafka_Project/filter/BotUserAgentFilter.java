@@ -0,0 +1,40 @@
+package Kafka_Project.filter;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import Kafka_Project.enrichment.UserAgentParser;
+
+/**
+ * Drops traffic from known crawler / scripted-client signatures. Reuses the
+ * enrichment parser so the signature list lives in one place and repeated
+ * UA strings are answered from its cache.
+ */
+@Component
+@Order(1)
+public class BotUserAgentFilter implements EventFilter {
+
+    private final UserAgentParser userAgentParser;
+    private final boolean rejectMissing;
+
+    public BotUserAgentFilter(UserAgentParser userAgentParser,
+                              @Value("${analytics.filter.bot.reject-missing-ua:false}") boolean rejectMissing) {
+        this.userAgentParser = userAgentParser;
+        this.rejectMissing = rejectMissing;
+    }
+
+    @Override
+    public String name() {
+        return "bot_user_agent";
+    }
+
+    @Override
+    public boolean reject(IngestContext context) {
+        String userAgent = context.userAgent();
+        if (userAgent == null || userAgent.isBlank()) {
+            return rejectMissing;
+        }
+        return "Bot".equals(userAgentParser.parse(userAgent).deviceType());
+    }
+}
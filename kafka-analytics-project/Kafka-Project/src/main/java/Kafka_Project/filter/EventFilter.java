@@ -0,0 +1,13 @@
+package Kafka_Project.filter;
+
+/**
+ * A single ingest rule. Implementations are Spring beans and are picked up
+ * by {@link IngestFilterPipeline} automatically; they run on the request
+ * thread, so anything expensive must be precompiled or cached.
+ */
+public interface EventFilter {
+
+    String name();
+
+    boolean reject(IngestContext context);
+}
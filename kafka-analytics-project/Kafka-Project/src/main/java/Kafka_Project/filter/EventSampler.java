@@ -0,0 +1,151 @@
+package Kafka_Project.filter;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import Kafka_Project.util.Hashing;
+
+/**
+ * Ingest-time sampling for high-volume telemetry topics. The keep decision
+ * is a pure function of the session id and the current rate, so a session
+ * is either fully in or fully out, and lowering the rate only ever removes
+ * whole sessions (a session kept at rate r is kept at every rate above r).
+ *
+ * Rates come from config per topic, optionally overridden per tracking id.
+ * When the kept volume of a topic exceeds the per-second budget the rate is
+ * scaled down right away and recovers gradually once traffic drops. The
+ * budget is per instance.
+ *
+ * Only topics whose rows carry a sample_rate column (mouse_events and
+ * batch_events) can be re-weighted at query time; rates configured for any
+ * other topic are ignored with a warning instead of silently undercounting.
+ */
+@Service
+public class EventSampler {
+
+    private static final Logger logger = LoggerFactory.getLogger(EventSampler.class);
+
+    public static final Set<String> SAMPLEABLE_TOPICS = Set.of("mouse_move", "periodic_events");
+
+    private final Map<String, Double> topicRates;
+    private final Map<String, Double> tenantRates;
+    private final double budgetPerSecond;
+    private final double minRate;
+    private final Map<String, LongAdder> seen = new ConcurrentHashMap<>();
+    private final Map<String, Double> adaptiveFactors = new ConcurrentHashMap<>();
+    private long lastAdjustMillis = System.currentTimeMillis();
+
+    public EventSampler(@Value("${analytics.sampling.rates:}") String rates,
+                        @Value("${analytics.sampling.tenant-rates:}") String tenantRates,
+                        @Value("${analytics.sampling.budget-per-second:0}") double budgetPerSecond,
+                        @Value("${analytics.sampling.min-rate:0.01}") double minRate) {
+        this.topicRates = parseRates(rates);
+        this.tenantRates = parseRates(tenantRates);
+        this.budgetPerSecond = budgetPerSecond;
+        this.minRate = minRate;
+        for (String topic : topicRates.keySet()) {
+            seen.put(topic, new LongAdder());
+        }
+    }
+
+    /**
+     * Current sample rate for a tenant's topic; 1.0 for unsampled topics.
+     */
+    public double rateFor(String trackingId, String topic) {
+        Double base = trackingId == null ? null : tenantRates.get(trackingId + "/" + topic);
+        if (base == null) {
+            base = topicRates.get(topic);
+        }
+        if (base == null) {
+            return 1.0;
+        }
+        LongAdder counter = seen.get(topic);
+        if (counter != null) {
+            counter.increment();
+        }
+        double rate = base * adaptiveFactors.getOrDefault(topic, 1.0);
+        return Math.min(1.0, Math.max(minRate, rate));
+    }
+
+    public boolean keep(String sessionId, double rate) {
+        if (rate >= 1.0) {
+            return true;
+        }
+        // Top 53 bits of the session hash as a uniform value in [0, 1)
+        double position = (Hashing.hash64(sessionId == null ? "" : sessionId) >>> 11) * 0x1.0p-53;
+        return position < rate;
+    }
+
+    @Scheduled(fixedRateString = "${analytics.sampling.adjust-interval-ms:5000}")
+    public void adjust() {
+        long now = System.currentTimeMillis();
+        double seconds = Math.max(0.001, (now - lastAdjustMillis) / 1000.0);
+        lastAdjustMillis = now;
+        if (budgetPerSecond <= 0) {
+            return;
+        }
+        for (Map.Entry<String, LongAdder> entry : seen.entrySet()) {
+            String topic = entry.getKey();
+            double incoming = entry.getValue().sumThenReset() / seconds;
+            double kept = incoming * topicRates.get(topic);
+            double target = kept <= budgetPerSecond ? 1.0 : budgetPerSecond / kept;
+            double current = adaptiveFactors.getOrDefault(topic, 1.0);
+            // Back off immediately, recover a quarter of the gap per interval
+            double next = target < current ? target : current + (target - current) * 0.25;
+            if (Math.abs(next - current) > 0.01) {
+                logger.info("Sampling factor for {} changed {} -> {} ({} events/s incoming)",
+                    topic, String.format("%.3f", current), String.format("%.3f", next), Math.round(incoming));
+            }
+            adaptiveFactors.put(topic, next);
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        for (String topic : topicRates.keySet()) {
+            double factor = adaptiveFactors.getOrDefault(topic, 1.0);
+            stats.put(topic, Map.of(
+                "configured_rate", topicRates.get(topic),
+                "adaptive_factor", factor,
+                "effective_rate", Math.min(1.0, Math.max(minRate, topicRates.get(topic) * factor))
+            ));
+        }
+        return stats;
+    }
+
+    private static Map<String, Double> parseRates(String config) {
+        Map<String, Double> rates = new HashMap<>();
+        if (config == null || config.isBlank()) {
+            return rates;
+        }
+        for (String part : config.split(",")) {
+            String[] pair = part.trim().split(":");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Invalid sampling rate entry: " + part);
+            }
+            double rate = Double.parseDouble(pair[1].trim());
+            if (rate <= 0 || rate > 1) {
+                throw new IllegalArgumentException("Sampling rate must be in (0, 1]: " + part);
+            }
+            String key = pair[0].trim();
+            String topic = key.substring(key.lastIndexOf('/') + 1);
+            if (!SAMPLEABLE_TOPICS.contains(topic)) {
+                logger.warn("Ignoring sampling rate for {}: {} rows have no sample_rate to re-weight by",
+                    key, topic);
+                continue;
+            }
+            rates.put(key, rate);
+        }
+        return rates;
+    }
+}
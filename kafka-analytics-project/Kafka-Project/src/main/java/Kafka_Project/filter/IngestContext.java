@@ -0,0 +1,23 @@
+package Kafka_Project.filter;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * One incoming event as seen by the ingest filters, before it is wrapped
+ * in the Kafka envelope.
+ */
+public record IngestContext(String eventType, JsonNode data, String clientIp, String userAgent) {
+
+    public String sessionId() {
+        return text("session_id");
+    }
+
+    public String trackingId() {
+        return text("tracking_id");
+    }
+
+    private String text(String field) {
+        JsonNode node = data == null ? null : data.get(field);
+        return node == null || node.isNull() ? null : node.asText();
+    }
+}
@@ -0,0 +1,87 @@
+package Kafka_Project.filter;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Runs every registered {@link EventFilter} in order against an incoming
+ * event and keeps a hit counter per rule. The first rule that rejects
+ * wins; later rules are not evaluated.
+ */
+@Service
+public class IngestFilterPipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(IngestFilterPipeline.class);
+
+    public enum Action { DROP, ROUTE }
+
+    private final List<EventFilter> filters;
+    private final LongAdder[] hits;
+    private final LongAdder evaluated = new LongAdder();
+    private final boolean enabled;
+    private final Action action;
+    private final String routeTopic;
+
+    public IngestFilterPipeline(List<EventFilter> filters,
+                                @Value("${analytics.filter.enabled:true}") boolean enabled,
+                                @Value("${analytics.filter.action:drop}") String action,
+                                @Value("${analytics.filter.route-topic:filtered_events}") String routeTopic) {
+        this.filters = List.copyOf(filters);
+        this.hits = new LongAdder[this.filters.size()];
+        for (int i = 0; i < hits.length; i++) {
+            hits[i] = new LongAdder();
+        }
+        this.enabled = enabled;
+        this.action = Action.valueOf(action.trim().toUpperCase());
+        this.routeTopic = routeTopic;
+        logger.info("Ingest filters {}: {} (action={})", enabled ? "enabled" : "disabled",
+            this.filters.stream().map(EventFilter::name).toList(), this.action);
+    }
+
+    /**
+     * Returns the name of the rule that rejected the event, or null when it
+     * should be produced normally.
+     */
+    public String evaluate(IngestContext context) {
+        if (!enabled) {
+            return null;
+        }
+        evaluated.increment();
+        for (int i = 0; i < filters.size(); i++) {
+            EventFilter filter = filters.get(i);
+            if (filter.reject(context)) {
+                hits[i].increment();
+                return filter.name();
+            }
+        }
+        return null;
+    }
+
+    public Action getAction() {
+        return action;
+    }
+
+    public String getRouteTopic() {
+        return routeTopic;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Long> rules = new LinkedHashMap<>();
+        for (int i = 0; i < filters.size(); i++) {
+            rules.put(filters.get(i).name(), hits[i].sum());
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("action", action.name().toLowerCase());
+        stats.put("evaluated", evaluated.sum());
+        stats.put("hits", rules);
+        return stats;
+    }
+}
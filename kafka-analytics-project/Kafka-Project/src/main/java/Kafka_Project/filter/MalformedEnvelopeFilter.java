@@ -0,0 +1,58 @@
+package Kafka_Project.filter;
+
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Rejects payloads the tracker could never have produced: no session or
+ * tracking id, non-object data, or field counts and string lengths far
+ * beyond anything the browser snippet sends.
+ */
+@Component
+@Order(0)
+public class MalformedEnvelopeFilter implements EventFilter {
+
+    private final int maxFields;
+    private final int maxStringLength;
+
+    public MalformedEnvelopeFilter(@Value("${analytics.filter.envelope.max-fields:100}") int maxFields,
+                                   @Value("${analytics.filter.envelope.max-string-length:4096}") int maxStringLength) {
+        this.maxFields = maxFields;
+        this.maxStringLength = maxStringLength;
+    }
+
+    @Override
+    public String name() {
+        return "malformed_envelope";
+    }
+
+    @Override
+    public boolean reject(IngestContext context) {
+        JsonNode data = context.data();
+        if (data == null || !data.isObject()) {
+            return true;
+        }
+        if (isBlank(context.sessionId()) || isBlank(context.trackingId())) {
+            return true;
+        }
+        if (data.size() > maxFields) {
+            return true;
+        }
+        for (Map.Entry<String, JsonNode> field : data.properties()) {
+            JsonNode value = field.getValue();
+            if (value.isTextual() && value.textValue().length() > maxStringLength) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
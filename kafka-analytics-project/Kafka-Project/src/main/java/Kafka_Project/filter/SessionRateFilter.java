@@ -0,0 +1,59 @@
+package Kafka_Project.filter;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import Kafka_Project.util.LruCache;
+
+/**
+ * Caps events per session per fixed window. A human browsing a page tops
+ * out well below the default limit; sessions above it are scripted. Only
+ * the most recently active sessions are tracked, so memory stays bounded.
+ */
+@Component
+@Order(2)
+public class SessionRateFilter implements EventFilter {
+
+    private static final class Window {
+        long start;
+        int count;
+    }
+
+    private final LruCache<String, Window> windows;
+    private final int maxEvents;
+    private final long windowMillis;
+
+    public SessionRateFilter(@Value("${analytics.filter.session-rate.max-events:600}") int maxEvents,
+                             @Value("${analytics.filter.session-rate.window-seconds:60}") int windowSeconds,
+                             @Value("${analytics.filter.session-rate.tracked-sessions:100000}") int trackedSessions) {
+        this.maxEvents = maxEvents;
+        this.windowMillis = windowSeconds * 1000L;
+        this.windows = new LruCache<>(trackedSessions);
+    }
+
+    @Override
+    public String name() {
+        return "session_rate";
+    }
+
+    @Override
+    public boolean reject(IngestContext context) {
+        String sessionId = context.sessionId();
+        if (sessionId == null) {
+            return false;
+        }
+        return !tryAcquire(sessionId, System.currentTimeMillis());
+    }
+
+    boolean tryAcquire(String sessionId, long now) {
+        Window window = windows.getOrCompute(sessionId, key -> new Window());
+        synchronized (window) {
+            if (now - window.start >= windowMillis) {
+                window.start = now;
+                window.count = 0;
+            }
+            return ++window.count <= maxEvents;
+        }
+    }
+}
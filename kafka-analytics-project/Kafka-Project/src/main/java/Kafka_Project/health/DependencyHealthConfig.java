@@ -0,0 +1,44 @@
+package Kafka_Project.health;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Actuator health contributors "kafka", "redis" and "clickhouse", backed
+ * by the cached probe results so health requests never block on I/O.
+ * Grouped under /actuator/health/readiness.
+ */
+@Configuration
+public class DependencyHealthConfig {
+
+    @Bean
+    public HealthIndicator kafkaHealthIndicator(DependencyProbes probes) {
+        return () -> health(probes, DependencyProbes.KAFKA);
+    }
+
+    @Bean
+    public HealthIndicator redisHealthIndicator(DependencyProbes probes) {
+        return () -> health(probes, DependencyProbes.REDIS);
+    }
+
+    @Bean
+    public HealthIndicator clickhouseHealthIndicator(DependencyProbes probes) {
+        return () -> health(probes, DependencyProbes.CLICKHOUSE);
+    }
+
+    private static Health health(DependencyProbes probes, String name) {
+        DependencyProbes.ProbeResult result = probes.result(name);
+        if (result == null) {
+            return Health.unknown().withDetail("reason", "Not checked yet").build();
+        }
+        Health.Builder builder = result.up() ? Health.up() : Health.down();
+        builder.withDetail("latency_ms", result.latencyMs())
+            .withDetail("checked_at", result.checkedAt());
+        if (result.error() != null) {
+            builder.withDetail("error", result.error());
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,166 @@
+package Kafka_Project.health;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import Kafka_Project.Redis.RedisService;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Background readiness probes for the three dependencies: a Kafka cluster
+ * metadata fetch, a Redis PING and a ClickHouse SELECT 1. Each probe runs on
+ * its own thread with a timeout, so one hung dependency cannot delay the
+ * others, and the last result is cached; readers never touch the network.
+ * A result older than stale-after-ms counts as down.
+ */
+@Component
+public class DependencyProbes {
+
+    private static final Logger logger = LoggerFactory.getLogger(DependencyProbes.class);
+
+    public static final String KAFKA = "kafka";
+    public static final String REDIS = "redis";
+    public static final String CLICKHOUSE = "clickhouse";
+
+    public record ProbeResult(boolean up, double latencyMs, long checkedAt, String error) {}
+
+    private final RedisService redisService;
+    private final JdbcTemplate jdbcTemplate;
+    private final String bootstrapServers;
+    private final long timeoutMs;
+    private final long staleAfterMs;
+    private final ExecutorService executor;
+    private final Map<String, Callable<Void>> probes = new LinkedHashMap<>();
+    private final ConcurrentHashMap<String, ProbeResult> results = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Future<?>> running = new ConcurrentHashMap<>();
+    private AdminClient admin;
+
+    public DependencyProbes(RedisService redisService,
+                            JdbcTemplate jdbcTemplate,
+                            @Value("${spring.kafka.bootstrap-servers}") String bootstrapServers,
+                            @Value("${analytics.health.timeout-ms:2000}") long timeoutMs,
+                            @Value("${analytics.health.stale-after-ms:30000}") long staleAfterMs) {
+        this.redisService = redisService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.bootstrapServers = bootstrapServers;
+        this.timeoutMs = timeoutMs;
+        this.staleAfterMs = staleAfterMs;
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "dependency-probe-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        probes.put(KAFKA, () -> {
+            admin().describeCluster().nodes().get(timeoutMs, TimeUnit.MILLISECONDS);
+            return null;
+        });
+        probes.put(REDIS, () -> {
+            String reply = redisService.ping();
+            if (!"PONG".equalsIgnoreCase(reply)) {
+                throw new IllegalStateException("Unexpected PING reply: " + reply);
+            }
+            return null;
+        });
+        probes.put(CLICKHOUSE, () -> {
+            jdbcTemplate.queryForObject("SELECT 1", Integer.class);
+            return null;
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${analytics.health.interval-ms:5000}")
+    public void probeAll() {
+        probes.forEach((name, probe) -> {
+            Future<?> previous = running.get(name);
+            if (previous != null && !previous.isDone()) {
+                // Still waiting on the last attempt; its timeout records the failure
+                return;
+            }
+            running.put(name, executor.submit(() -> run(name, probe)));
+        });
+    }
+
+    private void run(String name, Callable<Void> probe) {
+        long started = System.nanoTime();
+        Future<Void> attempt = executor.submit(probe);
+        ProbeResult result;
+        try {
+            attempt.get(timeoutMs, TimeUnit.MILLISECONDS);
+            result = new ProbeResult(true, elapsedMs(started), System.currentTimeMillis(), null);
+        } catch (TimeoutException e) {
+            attempt.cancel(true);
+            result = new ProbeResult(false, elapsedMs(started), System.currentTimeMillis(),
+                "Timed out after " + timeoutMs + " ms");
+        } catch (Exception e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            result = new ProbeResult(false, elapsedMs(started), System.currentTimeMillis(),
+                cause.getClass().getSimpleName() + ": " + cause.getMessage());
+        }
+        ProbeResult previous = results.put(name, result);
+        if (previous == null || previous.up() != result.up()) {
+            if (result.up()) {
+                logger.info("{} is reachable ({} ms)", name, String.format("%.1f", result.latencyMs()));
+            } else {
+                logger.warn("{} is unreachable: {}", name, result.error());
+            }
+        }
+    }
+
+    /**
+     * Last result per dependency; null when no probe has finished yet.
+     */
+    public ProbeResult result(String name) {
+        ProbeResult result = results.get(name);
+        if (result != null && result.up() && System.currentTimeMillis() - result.checkedAt() > staleAfterMs) {
+            return new ProbeResult(false, result.latencyMs(), result.checkedAt(), "Last successful check is stale");
+        }
+        return result;
+    }
+
+    public Map<String, ProbeResult> results() {
+        Map<String, ProbeResult> snapshot = new LinkedHashMap<>();
+        for (String name : probes.keySet()) {
+            snapshot.put(name, result(name));
+        }
+        return snapshot;
+    }
+
+    private static double elapsedMs(long startedNanos) {
+        return (System.nanoTime() - startedNanos) / 1_000_000.0;
+    }
+
+    private synchronized AdminClient admin() {
+        if (admin == null) {
+            admin = AdminClient.create(Map.of(
+                AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers,
+                AdminClientConfig.REQUEST_TIMEOUT_MS_CONFIG, (int) timeoutMs,
+                AdminClientConfig.DEFAULT_API_TIMEOUT_MS_CONFIG, (int) timeoutMs));
+        }
+        return admin;
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        executor.shutdownNow();
+        if (admin != null) {
+            admin.close();
+        }
+    }
+}
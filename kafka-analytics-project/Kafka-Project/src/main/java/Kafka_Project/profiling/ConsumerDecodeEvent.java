@@ -0,0 +1,26 @@
+package Kafka_Project.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("analytics.ConsumerDecode")
+@Label("Consumer Decode")
+@Category({"Analytics", "Kafka"})
+public class ConsumerDecodeEvent extends Event {
+
+    @Label("Topic")
+    public String topic;
+
+    @Label("Partition")
+    public int partition;
+
+    @Label("Size")
+    @DataAmount
+    public long bytes;
+
+    @Label("Succeeded")
+    public boolean succeeded;
+}
@@ -0,0 +1,196 @@
+package Kafka_Project.profiling;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+
+/**
+ * One on-demand JFR recording per instance. With continuous mode on, it is
+ * started at boot as a ring buffer bounded by max-age and max-size, so a
+ * dump taken after a throughput drop already holds the minutes before it.
+ * Dumps are copies; the recording keeps running until stopped, and only
+ * the newest max-dumps files are kept.
+ *
+ * The JVM's environment-variable, system-property and JVM-argument events
+ * are disabled: they would put the Redis and ClickHouse credentials into
+ * every dump.
+ */
+@Service
+public class FlightRecorderService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FlightRecorderService.class);
+    private static final DateTimeFormatter DUMP_NAME =
+        DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZoneOffset.UTC);
+    private static final Set<String> SETTINGS = Set.of("default", "profile");
+    private static final List<String> SENSITIVE_EVENTS = List.of(
+        "jdk.InitialEnvironmentVariable", "jdk.InitialSystemProperty", "jdk.JVMInformation");
+
+    private final boolean continuous;
+    private final String defaultSettings;
+    private final Duration defaultMaxAge;
+    private final long defaultMaxSizeBytes;
+    private final Path dumpDir;
+    private final int maxDumps;
+    private final long maxAgeCapMinutes;
+    private final long maxSizeCapMb;
+    private Recording recording;
+    private String settings;
+
+    public FlightRecorderService(@Value("${analytics.jfr.continuous:false}") boolean continuous,
+                                 @Value("${analytics.jfr.settings:default}") String defaultSettings,
+                                 @Value("${analytics.jfr.max-age-minutes:15}") long maxAgeMinutes,
+                                 @Value("${analytics.jfr.max-size-mb:100}") long maxSizeMb,
+                                 @Value("${analytics.jfr.dump-dir:${java.io.tmpdir}/jfr}") String dumpDir,
+                                 @Value("${analytics.jfr.max-dumps:5}") int maxDumps,
+                                 @Value("${analytics.jfr.max-age-cap-minutes:60}") long maxAgeCapMinutes,
+                                 @Value("${analytics.jfr.max-size-cap-mb:512}") long maxSizeCapMb) {
+        this.continuous = continuous;
+        this.defaultSettings = defaultSettings;
+        this.defaultMaxAge = Duration.ofMinutes(maxAgeMinutes);
+        this.defaultMaxSizeBytes = maxSizeMb * 1024 * 1024;
+        this.dumpDir = Path.of(dumpDir);
+        this.maxDumps = Math.max(1, maxDumps);
+        this.maxAgeCapMinutes = maxAgeCapMinutes;
+        this.maxSizeCapMb = maxSizeCapMb;
+    }
+
+    @PostConstruct
+    public void startContinuous() {
+        if (!continuous) {
+            return;
+        }
+        try {
+            start(null, null, null);
+        } catch (Exception e) {
+            logger.error("Failed to start continuous JFR recording: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Starts a recording with a JDK settings profile ("default" is roughly 1%
+     * overhead, "profile" adds allocation and lock detail). A running
+     * recording is left as is. Age and size are bounded by the configured
+     * caps; anything outside them is rejected.
+     */
+    public synchronized Map<String, Object> start(String settingsName, Integer maxAgeMinutes, Integer maxSizeMb)
+            throws IOException, ParseException {
+        if (recording == null || recording.getState() != RecordingState.RUNNING) {
+            String name = settingsName == null || settingsName.isBlank() ? defaultSettings : settingsName;
+            if (!SETTINGS.contains(name)) {
+                throw new IllegalArgumentException("settings must be one of " + SETTINGS);
+            }
+            if (maxAgeMinutes != null && (maxAgeMinutes < 1 || maxAgeMinutes > maxAgeCapMinutes)) {
+                throw new IllegalArgumentException("maxAgeMinutes must be between 1 and " + maxAgeCapMinutes);
+            }
+            if (maxSizeMb != null && (maxSizeMb < 1 || maxSizeMb > maxSizeCapMb)) {
+                throw new IllegalArgumentException("maxSizeMb must be between 1 and " + maxSizeCapMb);
+            }
+            Recording started = new Recording(Configuration.getConfiguration(name));
+            SENSITIVE_EVENTS.forEach(started::disable);
+            started.setName("analytics");
+            started.setToDisk(true);
+            started.setMaxAge(maxAgeMinutes != null ? Duration.ofMinutes(maxAgeMinutes) : defaultMaxAge);
+            started.setMaxSize(maxSizeMb != null ? maxSizeMb * 1024L * 1024 : defaultMaxSizeBytes);
+            started.start();
+            recording = started;
+            settings = name;
+            logger.info("Started JFR recording {} with '{}' settings", started.getId(), name);
+        }
+        return status();
+    }
+
+    public synchronized Map<String, Object> stop() {
+        if (recording != null) {
+            recording.close();
+            logger.info("Stopped JFR recording {}", recording.getId());
+            recording = null;
+        }
+        return status();
+    }
+
+    /**
+     * Copies what the running recording holds into a new file under the dump
+     * directory and returns it.
+     */
+    public synchronized Path dump() throws IOException {
+        if (recording == null || recording.getState() != RecordingState.RUNNING) {
+            throw new IllegalStateException("No recording is running");
+        }
+        Files.createDirectories(dumpDir);
+        Path file = dumpDir.resolve("analytics-" + DUMP_NAME.format(Instant.now()) + "-" + recording.getId() + ".jfr");
+        recording.dump(file);
+        logger.info("Dumped JFR recording {} to {} ({} bytes)", recording.getId(), file, Files.size(file));
+        pruneDumps();
+        return file;
+    }
+
+    private void pruneDumps() throws IOException {
+        List<Path> dumps;
+        try (Stream<Path> files = Files.list(dumpDir)) {
+            dumps = files.filter(path -> path.getFileName().toString().startsWith("analytics-")
+                    && path.getFileName().toString().endsWith(".jfr"))
+                .sorted(Comparator.comparing((Path path) -> path.toFile().lastModified())
+                    .thenComparing(Path::getFileName).reversed())
+                .toList();
+        }
+        for (Path old : dumps.subList(Math.min(maxDumps, dumps.size()), dumps.size())) {
+            Files.deleteIfExists(old);
+        }
+    }
+
+    /**
+     * A previous dump by file name; names with path separators are rejected.
+     */
+    public Path dumpFile(String fileName) {
+        if (fileName == null || !fileName.endsWith(".jfr") || fileName.contains("/")
+                || fileName.contains("\\") || fileName.contains("..")) {
+            return null;
+        }
+        Path file = dumpDir.resolve(fileName);
+        return Files.isRegularFile(file) ? file : null;
+    }
+
+    public synchronized Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        boolean running = recording != null && recording.getState() == RecordingState.RUNNING;
+        status.put("running", running);
+        status.put("continuous", continuous);
+        status.put("dump_dir", dumpDir.toString());
+        if (running) {
+            status.put("id", recording.getId());
+            status.put("settings", settings);
+            status.put("started_at", String.valueOf(recording.getStartTime()));
+            status.put("max_age_seconds", recording.getMaxAge() == null ? null : recording.getMaxAge().toSeconds());
+            status.put("max_size_bytes", recording.getMaxSize());
+            status.put("size_bytes", recording.getSize());
+        }
+        return status;
+    }
+
+    @PreDestroy
+    public void close() {
+        stop();
+    }
+}
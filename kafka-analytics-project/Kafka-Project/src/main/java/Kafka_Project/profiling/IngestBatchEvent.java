@@ -0,0 +1,35 @@
+package Kafka_Project.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("analytics.IngestBatch")
+@Label("Ingest Batch")
+@Category({"Analytics", "Ingest"})
+@Description("One /receive_data request, from rate limiting to the last producer send")
+public class IngestBatchEvent extends Event {
+
+    @Label("Events")
+    public int events;
+
+    @Label("Processed")
+    public int processed;
+
+    @Label("Skipped")
+    public int skipped;
+
+    @Label("Filtered")
+    public int filtered;
+
+    @Label("Sampled Out")
+    public int sampledOut;
+
+    @Label("Shed")
+    public int shed;
+
+    @Label("Status")
+    public int status;
+}
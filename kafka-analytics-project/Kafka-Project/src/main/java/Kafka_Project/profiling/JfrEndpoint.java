@@ -0,0 +1,84 @@
+package Kafka_Project.profiling;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+/**
+ * /actuator/jfr: GET for the recording status, POST /actuator/jfr/start|stop|dump
+ * to control it (start takes optional settings, maxAgeMinutes and maxSizeMb),
+ * and GET /actuator/jfr/{file} to download a dump. Actuator is served on
+ * the separate management port, which is not published or proxied.
+ */
+@Component
+@Endpoint(id = "jfr")
+public class JfrEndpoint {
+
+    private static final Logger logger = LoggerFactory.getLogger(JfrEndpoint.class);
+
+    private final FlightRecorderService recorder;
+
+    public JfrEndpoint(FlightRecorderService recorder) {
+        this.recorder = recorder;
+    }
+
+    @ReadOperation
+    public Map<String, Object> status() {
+        return recorder.status();
+    }
+
+    @WriteOperation
+    public WebEndpointResponse<Map<String, Object>> control(@Selector String action,
+                                                            @Nullable String settings,
+                                                            @Nullable Integer maxAgeMinutes,
+                                                            @Nullable Integer maxSizeMb) {
+        try {
+            switch (action) {
+                case "start":
+                    return new WebEndpointResponse<>(recorder.start(settings, maxAgeMinutes, maxSizeMb));
+                case "stop":
+                    return new WebEndpointResponse<>(recorder.stop());
+                case "dump":
+                    Path file = recorder.dump();
+                    Map<String, Object> dumped = new LinkedHashMap<>();
+                    dumped.put("file", file.getFileName().toString());
+                    dumped.put("path", file.toString());
+                    dumped.put("size_bytes", Files.size(file));
+                    return new WebEndpointResponse<>(dumped);
+                default:
+                    return new WebEndpointResponse<>(Map.of("error", "Unknown action: " + action),
+                        WebEndpointResponse.STATUS_BAD_REQUEST);
+            }
+        } catch (IllegalArgumentException e) {
+            return new WebEndpointResponse<>(Map.of("error", e.getMessage()), WebEndpointResponse.STATUS_BAD_REQUEST);
+        } catch (IllegalStateException e) {
+            return new WebEndpointResponse<>(Map.of("error", e.getMessage()), 409);
+        } catch (Exception e) {
+            logger.error("JFR {} failed: {}", action, e.getMessage());
+            return new WebEndpointResponse<>(Map.of("error", String.valueOf(e.getMessage())),
+                WebEndpointResponse.STATUS_INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    @ReadOperation(produces = "application/octet-stream")
+    public WebEndpointResponse<Resource> download(@Selector String file) {
+        Path path = recorder.dumpFile(file);
+        if (path == null) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        return new WebEndpointResponse<>(new FileSystemResource(path));
+    }
+}
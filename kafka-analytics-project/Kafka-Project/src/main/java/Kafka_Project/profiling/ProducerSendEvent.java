@@ -0,0 +1,34 @@
+package Kafka_Project.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("analytics.ProducerSend")
+@Label("Producer Send")
+@Category({"Analytics", "Kafka"})
+@Description("A record from send() to broker acknowledgement; committed on the producer I/O thread")
+public class ProducerSendEvent extends Event {
+
+    @Label("Topic")
+    public String topic;
+
+    @Label("Partition")
+    public int partition;
+
+    @Label("Offset")
+    public long offset;
+
+    @Label("Size")
+    @DataAmount
+    public long bytes;
+
+    @Label("Succeeded")
+    public boolean succeeded;
+
+    @Label("Error")
+    public String error;
+}
@@ -0,0 +1,21 @@
+package Kafka_Project.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("analytics.RateLimit")
+@Label("Rate Limit Decision")
+@Category({"Analytics", "Ingest"})
+public class RateLimitEvent extends Event {
+
+    @Label("Limiter")
+    public String limiter;
+
+    @Label("Key")
+    public String key;
+
+    @Label("Decision")
+    public String decision;
+}
@@ -0,0 +1,25 @@
+package Kafka_Project.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("analytics.SinkFlush")
+@Label("Sink Flush")
+@Category({"Analytics", "ClickHouse"})
+@Description("Writing one consumer poll of a lane to ClickHouse and the Redis counters")
+public class SinkFlushEvent extends Event {
+
+    @Label("Lane")
+    public String lane;
+
+    @Label("Rows")
+    public int rows;
+
+    @Label("Size")
+    @DataAmount
+    public long bytes;
+}
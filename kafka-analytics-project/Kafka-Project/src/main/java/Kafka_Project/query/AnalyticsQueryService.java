@@ -0,0 +1,328 @@
+package Kafka_Project.query;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+
+import Kafka_Project.query.RollupPlanner.Level;
+import Kafka_Project.query.RollupPlanner.Plan;
+import Kafka_Project.query.RollupPlanner.Segment;
+
+/**
+ * Typed reads over the *_metrics rollups. The materialized views append a
+ * partial row per insert block, so every query re-aggregates with sum() and
+ * derives rates from the summed counts rather than averaging stored rates.
+ *
+ * Breakdowns are planned by RollupPlanner: each segment becomes one branch
+ * of a UNION ALL (rollup rows, or the raw table for ragged edges of short
+ * ranges) and the outer query merges the partial counts in one round trip.
+ */
+@Service
+public class AnalyticsQueryService {
+
+    private static final TypeReference<List<Map<String, Object>>> ROWS = new TypeReference<>() {};
+    private static final List<Level> TRAFFIC_LEVELS = List.of(Level.FIVE_MINUTES, Level.HOUR, Level.DAY);
+    private static final List<Level> ROLLUP_LEVELS = List.of(Level.HOUR, Level.DAY);
+
+    private static final String ROLLUP_WHERE =
+        " WHERE tracking_id = ? AND interval_type = ? AND timestamp >= ? AND timestamp < ?";
+
+    /**
+     * rollup and raw produce the same columns for one segment; outer merges
+     * them and takes the union as its %s.
+     */
+    private record Breakdown(String name, String rollup, String raw, String outer) {}
+
+    private static final Breakdown PAGES = new Breakdown("pages",
+        """
+        SELECT page_url, pageviews, unique_visitors, total_clicks,
+            if(isNull(avg_load_time_ms), 0, avg_load_time_ms * pageviews) AS load_sum,
+            if(isNull(avg_load_time_ms), 0, pageviews) AS load_n,
+            if(isNull(avg_time_on_page_sec), 0, avg_time_on_page_sec * pageviews) AS time_sum,
+            if(isNull(avg_time_on_page_sec), 0, pageviews) AS time_n
+        FROM page_metrics""" + ROLLUP_WHERE,
+        """
+        SELECT page_url, count() AS pageviews, uniq(session_id) AS unique_visitors,
+            sum(coalesce(click_count, 0)) AS total_clicks,
+            sumIf(page_load_time, page_load_time IS NOT NULL) AS load_sum,
+            countIf(page_load_time IS NOT NULL) AS load_n,
+            sumIf(duration_ms, duration_ms IS NOT NULL) / 1000 AS time_sum,
+            countIf(duration_ms IS NOT NULL) AS time_n
+        FROM page_events
+        WHERE tracking_id = ? AND timestamp >= ? AND timestamp < ?
+        GROUP BY page_url""",
+        """
+        SELECT page_url,
+            sum(pageviews) AS pageviews,
+            sum(unique_visitors) AS unique_visitors,
+            sum(total_clicks) AS total_clicks,
+            sum(load_sum) / nullIf(sum(load_n), 0) AS avg_load_time_ms,
+            sum(time_sum) / nullIf(sum(time_n), 0) AS avg_time_on_page_sec
+        FROM (%s)
+        GROUP BY page_url
+        ORDER BY pageviews DESC
+        LIMIT ?""");
+
+    private static final Breakdown DEVICES = new Breakdown("devices",
+        """
+        SELECT device_type, operating_system, browser, sessions, unique_users, pageviews,
+            bounce_rate * sessions / 100 AS bounces
+        FROM device_metrics""" + ROLLUP_WHERE,
+        """
+        SELECT device_type, operating_system, browser, count() AS sessions, uniq(user_id) AS unique_users,
+            sum(page_views) AS pageviews, countIf(bounce = 1) AS bounces
+        FROM sessions
+        WHERE tracking_id = ? AND start_time >= ? AND start_time < ?
+        GROUP BY device_type, operating_system, browser""",
+        """
+        SELECT device_type, operating_system, browser,
+            sum(sessions) AS sessions,
+            sum(unique_users) AS unique_users,
+            sum(pageviews) AS pageviews,
+            if(sum(sessions) > 0, sum(bounces) * 100.0 / sum(sessions), 0) AS bounce_rate
+        FROM (%s)
+        GROUP BY device_type, operating_system, browser
+        ORDER BY sessions DESC
+        LIMIT ?""");
+
+    private static final Breakdown GEO = new Breakdown("geo",
+        """
+        SELECT country, country_code, sessions, unique_users, pageviews,
+            bounce_rate * sessions / 100 AS bounces
+        FROM geo_metrics""" + ROLLUP_WHERE,
+        """
+        SELECT coalesce(country, 'Unknown') AS country, coalesce(country_code, 'XX') AS country_code,
+            count() AS sessions, uniq(user_id) AS unique_users,
+            sum(page_views) AS pageviews, countIf(bounce = 1) AS bounces
+        FROM sessions
+        WHERE tracking_id = ? AND start_time >= ? AND start_time < ?
+        GROUP BY country, country_code""",
+        """
+        SELECT country, country_code,
+            sum(sessions) AS sessions,
+            sum(unique_users) AS unique_users,
+            sum(pageviews) AS pageviews,
+            if(sum(sessions) > 0, sum(bounces) * 100.0 / sum(sessions), 0) AS bounce_rate
+        FROM (%s)
+        GROUP BY country, country_code
+        ORDER BY sessions DESC
+        LIMIT ?""");
+
+    private static final Breakdown SOURCES = new Breakdown("sources",
+        """
+        SELECT source, sessions, unique_users, pageviews,
+            bounce_rate * sessions / 100 AS bounces
+        FROM source_metrics""" + ROLLUP_WHERE,
+        """
+        SELECT referrer AS source, count() AS sessions, uniq(user_id) AS unique_users,
+            sum(page_views) AS pageviews, countIf(bounce = 1) AS bounces
+        FROM sessions
+        WHERE tracking_id = ? AND start_time >= ? AND start_time < ?
+        GROUP BY referrer""",
+        """
+        SELECT if(source = '', 'direct', source) AS source,
+            sum(sessions) AS sessions,
+            sum(unique_users) AS unique_users,
+            sum(pageviews) AS pageviews,
+            if(sum(sessions) > 0, sum(bounces) * 100.0 / sum(sessions), 0) AS bounce_rate
+        FROM (%s)
+        GROUP BY source
+        ORDER BY sessions DESC
+        LIMIT ?""");
+
+    private static final String TRAFFIC_SQL = """
+        SELECT toString(timestamp) AS bucket,
+            sum(total_sessions) AS sessions,
+            sum(unique_users) AS unique_users,
+            sum(total_pageviews) AS pageviews,
+            sum(bounce_sessions) AS bounces,
+            if(sum(total_sessions) > 0, sum(bounce_sessions) * 100.0 / sum(total_sessions), 0) AS bounce_rate,
+            if(sum(total_sessions) > 0, sum(total_pageviews) / sum(total_sessions), 0) AS pages_per_session,
+            if(sum(total_sessions) > 0, sum(total_time_on_site_sec) / sum(total_sessions), 0) AS avg_session_duration_sec
+        FROM traffic_metrics
+        WHERE tracking_id = ? AND interval_type = ? AND timestamp >= ? AND timestamp < ?
+        GROUP BY timestamp
+        ORDER BY timestamp
+        """;
+
+    private static final String FUNNEL_SQL = """
+        SELECT funnel_step, sum(users) AS users
+        FROM conversion_funnel
+        WHERE tracking_id = ? AND date >= toDate(?) AND date <= toDate(?)
+        GROUP BY funnel_step
+        ORDER BY users DESC
+        """;
+
+    private static final String ECOMMERCE_SQL = """
+        SELECT toString(timestamp) AS bucket,
+            sum(product_views) AS product_views,
+            sum(cart_adds) AS cart_adds,
+            sum(cart_removes) AS cart_removes,
+            sum(checkouts) AS checkouts,
+            sum(total_orders) AS orders,
+            sum(total_revenue) AS revenue,
+            sum(unique_customers) AS unique_customers,
+            if(sum(total_orders) > 0, sum(total_revenue) / sum(total_orders), 0) AS avg_order_value,
+            if(sum(product_views) > 0, sum(cart_adds) * 100.0 / sum(product_views), 0) AS view_to_cart_rate,
+            if(sum(cart_adds) > 0, sum(checkouts) * 100.0 / sum(cart_adds), 0) AS cart_to_checkout_rate,
+            if(sum(checkouts) > 0, sum(total_orders) * 100.0 / sum(checkouts), 0) AS checkout_to_purchase_rate
+        FROM ecommerce_metrics
+        WHERE tracking_id = ? AND interval_type = ? AND timestamp >= ? AND timestamp < ?
+        GROUP BY timestamp
+        ORDER BY timestamp
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final QueryCache cache;
+    private final BucketedSeriesCache seriesCache;
+    private final RollupPlanner planner;
+    private final SingleFlight singleFlight;
+    private final Duration recentTtl;
+    private final Duration todayTtl;
+    private final Duration historicalTtl;
+
+    public AnalyticsQueryService(JdbcTemplate jdbcTemplate,
+                                 QueryCache cache,
+                                 BucketedSeriesCache seriesCache,
+                                 RollupPlanner planner,
+                                 SingleFlight singleFlight,
+                                 @Value("${analytics.query.ttl.recent-seconds:10}") long recentTtlSeconds,
+                                 @Value("${analytics.query.ttl.today-seconds:60}") long todayTtlSeconds,
+                                 @Value("${analytics.query.ttl.historical-seconds:3600}") long historicalTtlSeconds) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.cache = cache;
+        this.seriesCache = seriesCache;
+        this.planner = planner;
+        this.singleFlight = singleFlight;
+        this.recentTtl = Duration.ofSeconds(recentTtlSeconds);
+        this.todayTtl = Duration.ofSeconds(todayTtlSeconds);
+        this.historicalTtl = Duration.ofSeconds(historicalTtlSeconds);
+    }
+
+    public List<Map<String, Object>> traffic(String trackingId, TimeRange range, String interval) {
+        Level level = planner.seriesLevel(range, TRAFFIC_LEVELS, interval);
+        return seriesQuery("traffic", TRAFFIC_SQL, trackingId, range, level.intervalType());
+    }
+
+    public List<Map<String, Object>> ecommerce(String trackingId, TimeRange range, String interval) {
+        Level level = planner.seriesLevel(range, ROLLUP_LEVELS, interval);
+        return seriesQuery("ecommerce", ECOMMERCE_SQL, trackingId, range, level.intervalType());
+    }
+
+    public List<Map<String, Object>> pages(String trackingId, TimeRange range, int limit) {
+        return breakdownQuery(PAGES, trackingId, range, limit);
+    }
+
+    public List<Map<String, Object>> devices(String trackingId, TimeRange range, int limit) {
+        return breakdownQuery(DEVICES, trackingId, range, limit);
+    }
+
+    public List<Map<String, Object>> geo(String trackingId, TimeRange range, int limit) {
+        return breakdownQuery(GEO, trackingId, range, limit);
+    }
+
+    public List<Map<String, Object>> sources(String trackingId, TimeRange range, int limit) {
+        return breakdownQuery(SOURCES, trackingId, range, limit);
+    }
+
+    /**
+     * Steps come back widest first, which is step order since a session
+     * counted at a step is counted at every step before it; conversion is
+     * relative to the first step's summed users. Rows are per day, so the
+     * range covers every day it touches, up to the one holding its last second.
+     */
+    public List<Map<String, Object>> funnel(String trackingId, TimeRange range) {
+        String key = "funnel:" + trackingId + ":" + range.cacheKey();
+        return cache.get(key, ttlFor(range), ROWS, () -> {
+            List<Map<String, Object>> rows =
+                jdbcTemplate.queryForList(FUNNEL_SQL, trackingId, range.from().toLocalDate().toString(),
+                    range.to().minusSeconds(1).toLocalDate().toString());
+            double first = rows.isEmpty() ? 0 : ((Number) rows.get(0).get("users")).doubleValue();
+            List<Map<String, Object>> steps = new ArrayList<>(rows.size());
+            for (Map<String, Object> row : rows) {
+                Map<String, Object> step = new LinkedHashMap<>(row);
+                step.put("conversion_rate", first == 0 ? 0.0 : ((Number) row.get("users")).doubleValue() / first);
+                steps.add(step);
+            }
+            return steps;
+        });
+    }
+
+    public Duration recentTtl() {
+        return recentTtl;
+    }
+
+    public Map<String, Object> cacheStats() {
+        Map<String, Object> stats = new LinkedHashMap<>(cache.stats());
+        stats.put("series", seriesCache.stats());
+        return stats;
+    }
+
+    public Map<String, Object> coalescingStats() {
+        return singleFlight.stats();
+    }
+
+    /**
+     * Closed buckets come from the bucket cache; the open edge is shared by
+     * concurrent viewers through the result cache with the short TTL. First
+     * loads of closed runs are single-flighted as well.
+     */
+    private List<Map<String, Object>> seriesQuery(String name, String sql, String trackingId,
+                                                  TimeRange range, String interval) {
+        String series = name + ":" + trackingId + ":" + interval;
+        return seriesCache.fetch(series, interval, range,
+            closed -> singleFlight.execute(series + ":closed:" + closed.cacheKey(), () ->
+                jdbcTemplate.queryForList(sql, trackingId, interval, closed.sqlFrom(), closed.sqlTo())),
+            open -> cache.get(series + ":open:" + open.cacheKey(), recentTtl, ROWS, () ->
+                jdbcTemplate.queryForList(sql, trackingId, interval, open.sqlFrom(), open.sqlTo())));
+    }
+
+    private List<Map<String, Object>> breakdownQuery(Breakdown breakdown, String trackingId,
+                                                     TimeRange range, int limit) {
+        Plan plan = planner.plan(range, ROLLUP_LEVELS);
+        String key = breakdown.name() + ":" + trackingId + ":" + limit + ":" + plan.cacheKey();
+        return cache.get(key, ttlFor(plan.range()), ROWS, () -> {
+            List<String> branches = new ArrayList<>();
+            List<Object> args = new ArrayList<>();
+            for (Segment segment : plan.segments()) {
+                args.add(trackingId);
+                if (segment.level() == Level.RAW) {
+                    branches.add(breakdown.raw());
+                } else {
+                    branches.add(breakdown.rollup());
+                    args.add(segment.level().intervalType());
+                }
+                args.add(segment.range().sqlFrom());
+                args.add(segment.range().sqlTo());
+            }
+            args.add(limit);
+            String sql = String.format(breakdown.outer(), String.join("\nUNION ALL\n", branches));
+            return jdbcTemplate.queryForList(sql, args.toArray());
+        });
+    }
+
+    /**
+     * Windows that closed more than a day ago no longer change; windows
+     * touching the last few minutes change with every flush.
+     */
+    Duration ttlFor(TimeRange range) {
+        LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
+        if (range.to().isBefore(now.minusDays(1))) {
+            return historicalTtl;
+        }
+        if (range.to().isAfter(now.minusMinutes(5))) {
+            return recentTtl;
+        }
+        return todayTtl;
+    }
+}
@@ -0,0 +1,167 @@
+package Kafka_Project.query;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import Kafka_Project.util.LruCache;
+
+/**
+ * Per-bucket cache for time series. A bucket is closed once its end is
+ * older than the watermark (now minus the allowed lateness of the rollup
+ * pipeline), and only the still-open edge, plus closed buckets not cached,
+ * is queried on a refresh. The watermark is wall-clock, so a consumer that
+ * falls behind by more than the lateness can still add rows to a closed
+ * bucket: closed buckets are cached for a bounded TTL, and buckets that came
+ * back empty (the likeliest to be late rather than truly empty) for a much
+ * shorter one.
+ *
+ * Rows must carry the bucket start as "bucket" (yyyy-MM-dd HH:mm:ss), as the
+ * rollup tables store one timestamp per bucket.
+ */
+@Component
+public class BucketedSeriesCache {
+
+    private static final DateTimeFormatter BUCKET_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    // Marks a closed bucket with no rows so it is not queried again until it expires
+    private static final Map<String, Object> EMPTY_BUCKET = Map.of();
+
+    private record CachedBucket(Map<String, Object> row, LocalDateTime expiresAt) {}
+
+    private final LruCache<String, CachedBucket> closedBuckets;
+    private final Duration lateness;
+    private final Duration closedTtl;
+    private final Duration emptyTtl;
+    private final LongAdder bucketHits = new LongAdder();
+    private final LongAdder bucketsLoaded = new LongAdder();
+    private final LongAdder closedQueries = new LongAdder();
+    private final LongAdder openQueries = new LongAdder();
+    private final LongAdder expiredBuckets = new LongAdder();
+
+    public BucketedSeriesCache(@Value("${analytics.query.bucket-cache-size:200000}") int maxBuckets,
+                               @Value("${analytics.query.watermark-lateness-seconds:120}") long latenessSeconds,
+                               @Value("${analytics.query.closed-bucket-ttl-seconds:3600}") long closedTtlSeconds,
+                               @Value("${analytics.query.empty-bucket-ttl-seconds:60}") long emptyTtlSeconds) {
+        this.closedBuckets = new LruCache<>(maxBuckets);
+        this.lateness = Duration.ofSeconds(latenessSeconds);
+        this.closedTtl = Duration.ofSeconds(closedTtlSeconds);
+        this.emptyTtl = Duration.ofSeconds(emptyTtlSeconds);
+    }
+
+    public List<Map<String, Object>> fetch(String series, String interval, TimeRange range,
+                                           Function<TimeRange, List<Map<String, Object>>> closedLoader,
+                                           Function<TimeRange, List<Map<String, Object>>> openLoader) {
+        return fetch(series, interval, range, closedLoader, openLoader, LocalDateTime.now(ZoneOffset.UTC));
+    }
+
+    /**
+     * closedLoader is called once per run of consecutive uncached closed
+     * buckets; openLoader once for the open edge, so the caller can give it
+     * a short-lived cache of its own.
+     */
+    public List<Map<String, Object>> fetch(String series, String interval, TimeRange range,
+                                           Function<TimeRange, List<Map<String, Object>>> closedLoader,
+                                           Function<TimeRange, List<Map<String, Object>>> openLoader,
+                                           LocalDateTime now) {
+        Duration step = RollupPlanner.Level.ofInterval(interval).size();
+        LocalDateTime first = RollupPlanner.ceil(range.from(), step);
+        LocalDateTime watermark = RollupPlanner.floor(now.minus(lateness), step);
+
+        List<LocalDateTime> starts = new ArrayList<>();
+        for (LocalDateTime start = first; start.isBefore(range.to()); start = start.plus(step)) {
+            starts.add(start);
+        }
+        Map<LocalDateTime, Map<String, Object>> rows = new LinkedHashMap<>();
+
+        LocalDateTime runStart = null;
+        LocalDateTime openStart = null;
+        for (LocalDateTime start : starts) {
+            boolean closed = !start.plus(step).isAfter(watermark);
+            if (!closed) {
+                openStart = start;
+                break;
+            }
+            CachedBucket cached = closedBuckets.get(key(series, start));
+            if (cached != null && !now.isBefore(cached.expiresAt())) {
+                expiredBuckets.increment();
+                cached = null;
+            }
+            if (cached != null) {
+                bucketHits.increment();
+                rows.put(start, cached.row());
+                if (runStart != null) {
+                    loadClosed(series, runStart, start, step, closedLoader, rows, now);
+                    runStart = null;
+                }
+            } else if (runStart == null) {
+                runStart = start;
+            }
+        }
+        if (runStart != null) {
+            LocalDateTime runEnd = openStart != null ? openStart : starts.get(starts.size() - 1).plus(step);
+            loadClosed(series, runStart, runEnd, step, closedLoader, rows, now);
+        }
+        if (openStart != null) {
+            openQueries.increment();
+            LocalDateTime last = starts.get(starts.size() - 1);
+            for (Map<String, Object> row : openLoader.apply(new TimeRange(openStart, last.plus(step)))) {
+                rows.put(parseBucket(row), row);
+            }
+        }
+
+        List<Map<String, Object>> result = new ArrayList<>(rows.size());
+        for (LocalDateTime start : starts) {
+            Map<String, Object> row = rows.get(start);
+            if (row != null && row != EMPTY_BUCKET) {
+                result.add(row);
+            }
+        }
+        return result;
+    }
+
+    private void loadClosed(String series, LocalDateTime from, LocalDateTime to, Duration step,
+                            Function<TimeRange, List<Map<String, Object>>> loader,
+                            Map<LocalDateTime, Map<String, Object>> rows, LocalDateTime now) {
+        closedQueries.increment();
+        Map<LocalDateTime, Map<String, Object>> loaded = new LinkedHashMap<>();
+        for (Map<String, Object> row : loader.apply(new TimeRange(from, to))) {
+            loaded.put(parseBucket(row), row);
+        }
+        for (LocalDateTime start = from; start.isBefore(to); start = start.plus(step)) {
+            Map<String, Object> row = loaded.getOrDefault(start, EMPTY_BUCKET);
+            closedBuckets.put(key(series, start),
+                new CachedBucket(row, now.plus(row == EMPTY_BUCKET ? emptyTtl : closedTtl)));
+            rows.put(start, row);
+            bucketsLoaded.increment();
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("cached_buckets", closedBuckets.size());
+        stats.put("bucket_hits", bucketHits.sum());
+        stats.put("buckets_loaded", bucketsLoaded.sum());
+        stats.put("closed_queries", closedQueries.sum());
+        stats.put("open_queries", openQueries.sum());
+        stats.put("expired_buckets", expiredBuckets.sum());
+        return stats;
+    }
+
+    private static String key(String series, LocalDateTime start) {
+        return series + "@" + start;
+    }
+
+    private static LocalDateTime parseBucket(Map<String, Object> row) {
+        return LocalDateTime.parse(String.valueOf(row.get("bucket")), BUCKET_FORMAT);
+    }
+}
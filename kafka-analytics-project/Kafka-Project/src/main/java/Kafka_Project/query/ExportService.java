@@ -0,0 +1,247 @@
+package Kafka_Project.query;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Raw event exports streamed straight from ClickHouse's HTTP interface to
+ * the client. Nothing is materialized in the JVM: the response body is
+ * copied through a fixed buffer, and with gzip the bytes ClickHouse already
+ * compressed are passed through untouched. When the client goes away the
+ * upstream connection is dropped and the query is killed by its query_id.
+ */
+@Service
+public class ExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExportService.class);
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    public enum Format {
+        CSV("CSVWithNames", "text/csv", "csv"),
+        JSON("JSONEachRow", "application/x-ndjson", "ndjson");
+
+        private final String clickhouseFormat;
+        private final String contentType;
+        private final String extension;
+
+        Format(String clickhouseFormat, String contentType, String extension) {
+            this.clickhouseFormat = clickhouseFormat;
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String contentType() {
+            return contentType;
+        }
+
+        public String extension() {
+            return extension;
+        }
+    }
+
+    // Exportable tables and their time column
+    private static final Map<String, String> TABLES = Map.of(
+        "page_events", "timestamp",
+        "ecommerce_events", "timestamp",
+        "sessions", "start_time");
+
+    private final HttpClient httpClient;
+    private final URI endpoint;
+    private final String database;
+    private final String username;
+    private final String password;
+    private final long maxExecutionSeconds;
+    private final Semaphore slots;
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder cancelled = new LongAdder();
+    private final LongAdder bytesStreamed = new LongAdder();
+
+    public ExportService(@Value("${spring.datasource.url}") String jdbcUrl,
+                         @Value("${spring.datasource.username}") String username,
+                         @Value("${spring.datasource.password}") String password,
+                         @Value("${analytics.export.max-execution-seconds:600}") long maxExecutionSeconds,
+                         @Value("${analytics.export.max-concurrent:4}") int maxConcurrent) {
+        // jdbc:clickhouse://host:8123/db?... -> http://host:8123/ and db
+        String rest = jdbcUrl.replaceFirst("^jdbc:clickhouse:(http:)?//", "");
+        int slash = rest.indexOf('/');
+        String hostPort = slash < 0 ? rest : rest.substring(0, slash);
+        String path = slash < 0 ? "" : rest.substring(slash + 1).replaceAll("[;?].*$", "");
+        this.endpoint = URI.create("http://" + hostPort + "/");
+        this.database = path.isBlank() ? "default" : path;
+        this.username = username.replace(";", "");
+        this.password = password;
+        this.maxExecutionSeconds = maxExecutionSeconds;
+        this.slots = new Semaphore(maxConcurrent);
+        this.httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    }
+
+    public static boolean isExportable(String table) {
+        return TABLES.containsKey(table);
+    }
+
+    /**
+     * Reserves one of the concurrent export slots, or returns null when all
+     * are taken. The slot is held by the returned export until it is closed;
+     * close() is idempotent, so the streaming body and the request's async
+     * completion can both close it and the slot is freed even when the body
+     * never runs.
+     */
+    public Export tryStart(String table, String trackingId, TimeRange range, Format format, boolean gzip) {
+        if (!isExportable(table)) {
+            throw new IllegalArgumentException("Table '" + table + "' is not exportable");
+        }
+        return slots.tryAcquire() ? new Export(table, trackingId, range, format, gzip) : null;
+    }
+
+    public final class Export implements AutoCloseable {
+
+        private final String table;
+        private final String trackingId;
+        private final TimeRange range;
+        private final Format format;
+        private final boolean gzip;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Export(String table, String trackingId, TimeRange range, Format format, boolean gzip) {
+            this.table = table;
+            this.trackingId = trackingId;
+            this.range = range;
+            this.format = format;
+            this.gzip = gzip;
+        }
+
+        public void writeTo(OutputStream out) throws IOException {
+            if (closed.get()) {
+                throw new IllegalStateException("Export already closed");
+            }
+            try {
+                stream(table, trackingId, range, format, gzip, out);
+            } finally {
+                close();
+            }
+        }
+
+        @Override
+        public void close() {
+            if (closed.compareAndSet(false, true)) {
+                slots.release();
+            }
+        }
+    }
+
+    private void stream(String table, String trackingId, TimeRange range, Format format, boolean gzip,
+                        OutputStream out) throws IOException {
+        String timeColumn = TABLES.get(table);
+        String queryId = "export-" + UUID.randomUUID();
+        String sql = "SELECT * FROM " + table
+            + " WHERE tracking_id = {tid:String} AND " + timeColumn + " >= {from:DateTime} AND "
+            + timeColumn + " < {to:DateTime} ORDER BY " + timeColumn
+            + " FORMAT " + format.clickhouseFormat;
+        String uri = endpoint + "?database=" + encode(database)
+            + "&query_id=" + encode(queryId)
+            + "&max_execution_time=" + maxExecutionSeconds
+            + "&param_tid=" + encode(trackingId)
+            + "&param_from=" + encode(range.sqlFrom())
+            + "&param_to=" + encode(range.sqlTo())
+            + (gzip ? "&enable_http_compression=1" : "");
+
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(uri))
+            .header("X-ClickHouse-User", username)
+            .header("X-ClickHouse-Key", password)
+            .POST(HttpRequest.BodyPublishers.ofString(sql));
+        if (gzip) {
+            request.header("Accept-Encoding", "gzip");
+        }
+
+        long started = System.currentTimeMillis();
+        long copied = 0;
+        try {
+            HttpResponse<InputStream> response;
+            try {
+                response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofInputStream());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted starting export " + queryId, e);
+            }
+            try (InputStream in = response.body()) {
+                if (response.statusCode() != 200) {
+                    String error = new String(in.readNBytes(2048), StandardCharsets.UTF_8);
+                    throw new IOException("ClickHouse export failed (" + response.statusCode() + "): " + error);
+                }
+                boolean upstreamGzip = response.headers().firstValue("Content-Encoding")
+                    .map("gzip"::equalsIgnoreCase).orElse(false);
+                OutputStream sink = gzip && !upstreamGzip ? new GZIPOutputStream(out, BUFFER_SIZE) : out;
+                byte[] buffer = new byte[BUFFER_SIZE];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    try {
+                        sink.write(buffer, 0, read);
+                    } catch (IOException clientGone) {
+                        cancelled.increment();
+                        logger.info("Export {} cancelled by client after {} bytes", queryId, copied);
+                        kill(queryId);
+                        throw clientGone;
+                    }
+                    copied += read;
+                }
+                if (sink != out) {
+                    ((GZIPOutputStream) sink).finish();
+                }
+                sink.flush();
+            }
+            completed.increment();
+            logger.info("Export {} of {} for {} streamed {} bytes in {} ms",
+                queryId, table, trackingId, copied, System.currentTimeMillis() - started);
+        } finally {
+            bytesStreamed.add(copied);
+        }
+    }
+
+    private void kill(String queryId) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(endpoint.toString()))
+            .header("X-ClickHouse-User", username)
+            .header("X-ClickHouse-Key", password)
+            .timeout(Duration.ofSeconds(5))
+            .POST(HttpRequest.BodyPublishers.ofString("KILL QUERY WHERE query_id = '" + queryId + "' ASYNC"))
+            .build();
+        httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+            .whenComplete((response, error) -> {
+                if (error != null) {
+                    logger.warn("Failed to kill export query {}: {}", queryId, error.getMessage());
+                }
+            });
+    }
+
+    public Map<String, Object> stats() {
+        return Map.of(
+            "available_slots", slots.availablePermits(),
+            "completed", completed.sum(),
+            "cancelled", cancelled.sum(),
+            "bytes_streamed", bytesStreamed.sum());
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,109 @@
+package Kafka_Project.query;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import Kafka_Project.Redis.RedisService;
+import Kafka_Project.util.LruCache;
+
+/**
+ * Two-tier result cache for dashboard queries: a size-bounded in-process
+ * LRU in front of Redis, which is shared by every instance. Misses go
+ * through SingleFlight, so concurrent misses for the same key wait for a
+ * single load instead of each running the query. A value read from Redis
+ * is kept locally only for what is left of its Redis TTL, so neither tier
+ * serves it past the original expiry. Redis is optional; when it is
+ * unreachable the cache degrades to local-only.
+ */
+@Component
+public class QueryCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueryCache.class);
+    private static final String KEY_PREFIX = "query:";
+
+    private record Entry(Object value, long expiresAt) {}
+
+    private record RedisHit<T>(T value, long ttlMillis) {}
+
+    private final LruCache<String, Entry> local;
+    private final RedisService redisService;
+    private final ObjectMapper objectMapper;
+    private final SingleFlight singleFlight;
+    private final LongAdder localHits = new LongAdder();
+    private final LongAdder redisHits = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+
+    public QueryCache(RedisService redisService,
+                      ObjectMapper objectMapper,
+                      SingleFlight singleFlight,
+                      @Value("${analytics.query.local-cache-size:2000}") int localCacheSize) {
+        this.redisService = redisService;
+        this.objectMapper = objectMapper;
+        this.singleFlight = singleFlight;
+        this.local = new LruCache<>(localCacheSize);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(String key, Duration ttl, TypeReference<T> type, Supplier<T> loader) {
+        long now = System.currentTimeMillis();
+        Entry entry = local.get(key);
+        if (entry != null && entry.expiresAt() > now) {
+            localHits.increment();
+            return (T) entry.value();
+        }
+
+        return singleFlight.execute(key, () -> {
+            RedisHit<T> hit = readRedis(key, type);
+            if (hit != null) {
+                redisHits.increment();
+                long ttlMillis = hit.ttlMillis() < 0 ? ttl.toMillis() : Math.min(hit.ttlMillis(), ttl.toMillis());
+                local.put(key, new Entry(hit.value(), System.currentTimeMillis() + ttlMillis));
+                return hit.value();
+            }
+            loads.increment();
+            T value = loader.get();
+            writeRedis(key, value, ttl);
+            local.put(key, new Entry(value, now + ttl.toMillis()));
+            return value;
+        });
+    }
+
+    private <T> RedisHit<T> readRedis(String key, TypeReference<T> type) {
+        try {
+            RedisService.ExpiringValue cached = redisService.getDataWithTtl(KEY_PREFIX + key);
+            return cached == null ? null : new RedisHit<>(objectMapper.readValue(cached.value(), type), cached.ttlMillis());
+        } catch (Exception e) {
+            logger.debug("Query cache read from Redis failed for {}: {}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeRedis(String key, Object value, Duration ttl) {
+        try {
+            redisService.saveData(KEY_PREFIX + key, objectMapper.writeValueAsString(value),
+                (int) Math.max(1, ttl.toSeconds()));
+        } catch (Exception e) {
+            logger.debug("Query cache write to Redis failed for {}: {}", key, e.getMessage());
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("local_entries", local.size());
+        stats.put("local_hits", localHits.sum());
+        stats.put("redis_hits", redisHits.sum());
+        stats.put("loads", loads.sum());
+        return stats;
+    }
+}
@@ -0,0 +1,187 @@
+package Kafka_Project.query;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Splits a time range into segments served by the coarsest rollup that
+ * covers them: whole days from the 1d rows, the ragged hours around them
+ * from 1h, and so on down to the raw tables for what is left. Long ranges
+ * never reach the finer levels; their edges are snapped to the finest level
+ * allowed for that length instead, so a 90-day chart stays on rollups.
+ */
+@Component
+public class RollupPlanner {
+
+    public enum Level {
+        RAW(null, Duration.ZERO),
+        FIVE_MINUTES("5m", Duration.ofMinutes(5)),
+        HOUR("1h", Duration.ofHours(1)),
+        DAY("1d", Duration.ofDays(1));
+
+        private final String intervalType;
+        private final Duration size;
+
+        Level(String intervalType, Duration size) {
+            this.intervalType = intervalType;
+            this.size = size;
+        }
+
+        public String intervalType() {
+            return intervalType;
+        }
+
+        public Duration size() {
+            return size;
+        }
+
+        public static Level ofInterval(String interval) {
+            for (Level level : values()) {
+                if (interval.equals(level.intervalType)) {
+                    return level;
+                }
+            }
+            throw new IllegalArgumentException("Unsupported interval '" + interval + "'");
+        }
+    }
+
+    public record Segment(Level level, TimeRange range) {}
+
+    /**
+     * range is the range actually covered, which differs from the request
+     * when edges were snapped.
+     */
+    public record Plan(TimeRange range, List<Segment> segments) {
+
+        public String cacheKey() {
+            StringBuilder key = new StringBuilder();
+            for (Segment segment : segments) {
+                key.append(segment.level().ordinal()).append(segment.range().cacheKey()).append(';');
+            }
+            return key.toString();
+        }
+    }
+
+    private final Duration rawMaxRange;
+    private final Duration fiveMinuteMaxRange;
+    private final int maxPoints;
+
+    public RollupPlanner(@Value("${analytics.query.planner.raw-max-hours:24}") long rawMaxHours,
+                         @Value("${analytics.query.planner.five-minute-max-days:7}") long fiveMinuteMaxDays,
+                         @Value("${analytics.query.planner.max-points:500}") int maxPoints) {
+        this.rawMaxRange = Duration.ofHours(rawMaxHours);
+        this.fiveMinuteMaxRange = Duration.ofDays(fiveMinuteMaxDays);
+        this.maxPoints = maxPoints;
+    }
+
+    /**
+     * rollups lists the levels the table is materialized at, finest first.
+     */
+    public Plan plan(TimeRange range, List<Level> rollups) {
+        List<Level> allowed = allowedLevels(range, rollups);
+        TimeRange effective = range;
+        if (!allowed.contains(Level.RAW)) {
+            effective = snap(range, allowed.get(0).size());
+        }
+        List<Segment> segments = new ArrayList<>();
+        decompose(effective.from(), effective.to(), allowed, allowed.size() - 1, segments);
+        return new Plan(effective, segments);
+    }
+
+    /**
+     * Bucket level for a time series: the requested interval, or with
+     * "auto" the finest rollup that keeps the series under maxPoints.
+     */
+    public Level seriesLevel(TimeRange range, List<Level> rollups, String requested) {
+        if (!"auto".equals(requested)) {
+            Level level = Level.ofInterval(requested);
+            if (!rollups.contains(level)) {
+                throw new IllegalArgumentException("Unsupported interval '" + requested + "'");
+            }
+            return level;
+        }
+        for (Level level : rollups) {
+            if (level != Level.RAW && range.duration().dividedBy(level.size()) <= maxPoints) {
+                return level;
+            }
+        }
+        return rollups.get(rollups.size() - 1);
+    }
+
+    private List<Level> allowedLevels(TimeRange range, List<Level> rollups) {
+        List<Level> allowed = new ArrayList<>();
+        if (range.duration().compareTo(rawMaxRange) <= 0) {
+            allowed.add(Level.RAW);
+        }
+        for (Level level : rollups) {
+            if (level == Level.FIVE_MINUTES && range.duration().compareTo(fiveMinuteMaxRange) > 0) {
+                continue;
+            }
+            allowed.add(level);
+        }
+        if (allowed.isEmpty()) {
+            allowed.add(rollups.get(rollups.size() - 1));
+        }
+        return allowed;
+    }
+
+    private static void decompose(LocalDateTime from, LocalDateTime to, List<Level> levels, int index,
+                                  List<Segment> out) {
+        if (!from.isBefore(to)) {
+            return;
+        }
+        Level level = levels.get(index);
+        if (level == Level.RAW) {
+            out.add(new Segment(Level.RAW, new TimeRange(from, to)));
+            return;
+        }
+        LocalDateTime alignedFrom = ceil(from, level.size());
+        LocalDateTime alignedTo = floor(to, level.size());
+        if (index > 0 && !alignedFrom.isBefore(alignedTo)) {
+            decompose(from, to, levels, index - 1, out);
+            return;
+        }
+        if (index > 0) {
+            decompose(from, alignedFrom, levels, index - 1, out);
+        }
+        out.add(new Segment(level, new TimeRange(alignedFrom, alignedTo)));
+        if (index > 0) {
+            decompose(alignedTo, to, levels, index - 1, out);
+        }
+    }
+
+    /**
+     * Rounds both edges to the nearest boundary, keeping at least one bucket.
+     */
+    private static TimeRange snap(TimeRange range, Duration size) {
+        LocalDateTime from = round(range.from(), size);
+        LocalDateTime to = round(range.to(), size);
+        if (!from.isBefore(to)) {
+            from = floor(range.from(), size);
+            to = from.plus(size);
+        }
+        return new TimeRange(from, to);
+    }
+
+    static LocalDateTime floor(LocalDateTime time, Duration size) {
+        long seconds = time.toEpochSecond(ZoneOffset.UTC);
+        long step = size.toSeconds();
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(seconds, step) * step, 0, ZoneOffset.UTC);
+    }
+
+    static LocalDateTime ceil(LocalDateTime time, Duration size) {
+        LocalDateTime floor = floor(time, size);
+        return floor.isBefore(time) ? floor.plus(size) : floor;
+    }
+
+    private static LocalDateTime round(LocalDateTime time, Duration size) {
+        LocalDateTime floor = floor(time, size);
+        return Duration.between(floor, time).compareTo(size.dividedBy(2)) < 0 ? floor : floor.plus(size);
+    }
+}
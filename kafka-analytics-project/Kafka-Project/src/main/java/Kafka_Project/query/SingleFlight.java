@@ -0,0 +1,120 @@
+package Kafka_Project.query;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Collapses concurrent calls with the same key onto one execution: the
+ * first caller runs the loader on its own thread, later callers wait for
+ * its result for at most maxWait. Keys are normalized query descriptions
+ * ("metric:tracking_id:..."), and the prefix up to the first ':' is used to
+ * break the counters down per metric.
+ */
+@Component
+public class SingleFlight {
+
+    public static class WaitTimeoutException extends RuntimeException {
+        public WaitTimeoutException(String key, long waitMillis) {
+            super("Timed out after " + waitMillis + " ms waiting for in-flight query " + key);
+        }
+    }
+
+    private static final class Counters {
+        final LongAdder executions = new LongAdder();
+        final LongAdder shared = new LongAdder();
+        final LongAdder timeouts = new LongAdder();
+    }
+
+    private final ConcurrentHashMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Counters> counters = new ConcurrentHashMap<>();
+    private final long maxWaitMillis;
+
+    public SingleFlight(@Value("${analytics.query.single-flight.max-wait-ms:10000}") long maxWaitMillis) {
+        this.maxWaitMillis = maxWaitMillis;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String key, Supplier<T> loader) {
+        Counters metric = counters.computeIfAbsent(metricOf(key), k -> new Counters());
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            metric.shared.increment();
+            return (T) await(key, existing, metric);
+        }
+        metric.executions.increment();
+        try {
+            T value = loader.get();
+            mine.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    private Object await(String key, CompletableFuture<Object> future, Counters metric) {
+        try {
+            return future.get(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            metric.timeouts.increment();
+            throw new WaitTimeoutException(key, maxWaitMillis);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException runtime ? runtime : new RuntimeException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+
+    public Map<String, Object> stats() {
+        long executions = 0;
+        long shared = 0;
+        long timeouts = 0;
+        Map<String, Object> byMetric = new LinkedHashMap<>();
+        for (Map.Entry<String, Counters> entry : counters.entrySet()) {
+            Counters c = entry.getValue();
+            executions += c.executions.sum();
+            shared += c.shared.sum();
+            timeouts += c.timeouts.sum();
+            byMetric.put(entry.getKey(), Map.of(
+                "executions", c.executions.sum(),
+                "shared", c.shared.sum(),
+                "coalescing_ratio", ratio(c.shared.sum(), c.executions.sum())));
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("in_flight", inFlight.size());
+        stats.put("executions", executions);
+        stats.put("shared", shared);
+        stats.put("timeouts", timeouts);
+        stats.put("coalescing_ratio", ratio(shared, executions));
+        stats.put("max_wait_ms", maxWaitMillis);
+        stats.put("by_metric", byMetric);
+        return stats;
+    }
+
+    /**
+     * Share of callers that reused another caller's execution.
+     */
+    private static double ratio(long shared, long executions) {
+        long total = shared + executions;
+        return total == 0 ? 0.0 : (double) shared / total;
+    }
+
+    private static String metricOf(String key) {
+        int colon = key.indexOf(':');
+        return colon < 0 ? key : key.substring(0, colon);
+    }
+}
@@ -0,0 +1,84 @@
+package Kafka_Project.query;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Half-open UTC range [from, to) for dashboard queries, truncated to whole
+ * seconds so equal requests produce equal cache keys.
+ */
+public record TimeRange(LocalDateTime from, LocalDateTime to) {
+
+    private static final DateTimeFormatter SQL_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    public TimeRange {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("'from' must be before 'to'");
+        }
+    }
+
+    /**
+     * Accepts yyyy-MM-dd (start of day) or ISO date-times; missing bounds
+     * default to the last defaultDays days.
+     */
+    public static TimeRange parse(String from, String to, int defaultDays, int maxDays) {
+        return parse(from, to, defaultDays, maxDays, Duration.ofSeconds(1));
+    }
+
+    /**
+     * As above, with a missing 'to' rounded up from now to a multiple of
+     * openEndStep, so "up to now" requests within one step share a range
+     * and therefore a cache key.
+     */
+    public static TimeRange parse(String from, String to, int defaultDays, int maxDays, Duration openEndStep) {
+        LocalDateTime end = to == null || to.isBlank()
+            ? ceil(LocalDateTime.now(ZoneOffset.UTC), openEndStep)
+            : parseBound(to);
+        LocalDateTime start = from == null || from.isBlank()
+            ? end.minusDays(defaultDays)
+            : parseBound(from);
+        TimeRange range = new TimeRange(start.truncatedTo(ChronoUnit.SECONDS), end.truncatedTo(ChronoUnit.SECONDS));
+        if (range.duration().toDays() > maxDays) {
+            throw new IllegalArgumentException("Range exceeds " + maxDays + " days");
+        }
+        return range;
+    }
+
+    private static LocalDateTime ceil(LocalDateTime time, Duration step) {
+        long seconds = Math.max(1, step.toSeconds());
+        long epoch = time.toEpochSecond(ZoneOffset.UTC) + (time.getNano() > 0 ? 1 : 0);
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(epoch + seconds - 1, seconds) * seconds, 0, ZoneOffset.UTC);
+    }
+
+    private static LocalDateTime parseBound(String value) {
+        String trimmed = value.trim();
+        if (trimmed.length() == 10) {
+            return LocalDate.parse(trimmed).atStartOfDay();
+        }
+        if (trimmed.endsWith("Z") || trimmed.contains("+")) {
+            return LocalDateTime.ofInstant(OffsetDateTime.parse(trimmed).toInstant(), ZoneOffset.UTC);
+        }
+        return LocalDateTime.parse(trimmed);
+    }
+
+    public Duration duration() {
+        return Duration.between(from, to);
+    }
+
+    public String sqlFrom() {
+        return from.format(SQL_FORMAT);
+    }
+
+    public String sqlTo() {
+        return to.format(SQL_FORMAT);
+    }
+
+    public String cacheKey() {
+        return sqlFrom() + "/" + sqlTo();
+    }
+}
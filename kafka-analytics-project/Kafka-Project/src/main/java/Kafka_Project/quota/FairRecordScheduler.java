@@ -0,0 +1,83 @@
+package Kafka_Project.quota;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import Kafka_Project.config.EventHeaders;
+
+/**
+ * Reorders a polled batch with deficit round robin across tenants, so a
+ * burst from one tracking_id is interleaved with everyone else's records
+ * instead of being written first. Cost is the serialized record size and
+ * each tenant's quantum scales with its tier weight. Records of the same
+ * tenant keep their relative order, so per-session ordering is preserved.
+ *
+ * This only orders one poll. Across polls, the family lanes can also demote
+ * records of tenants over their drain budget to the overflow topic (see
+ * {@link TenantQuotaService#tenantsToDemote}).
+ */
+@Component
+public class FairRecordScheduler {
+
+    private final TenantTiers tiers;
+    private final boolean enabled;
+    private final int quantumBytes;
+
+    public FairRecordScheduler(TenantTiers tiers,
+                               @Value("${analytics.fairness.enabled:true}") boolean enabled,
+                               @Value("${analytics.fairness.quantum-bytes:4096}") int quantumBytes) {
+        this.tiers = tiers;
+        this.enabled = enabled;
+        this.quantumBytes = quantumBytes;
+    }
+
+    public <K, V> List<ConsumerRecord<K, V>> order(List<ConsumerRecord<K, V>> records) {
+        if (!enabled || records.size() < 2) {
+            return records;
+        }
+        Map<String, ArrayDeque<ConsumerRecord<K, V>>> queues = new LinkedHashMap<>();
+        for (ConsumerRecord<K, V> record : records) {
+            String tenant = EventHeaders.get(record.headers(), EventHeaders.TRACKING_ID);
+            queues.computeIfAbsent(tenant == null ? "" : tenant, key -> new ArrayDeque<>()).add(record);
+        }
+        if (queues.size() == 1) {
+            return records;
+        }
+
+        Map<String, Long> deficits = new LinkedHashMap<>();
+        List<ConsumerRecord<K, V>> ordered = new ArrayList<>(records.size());
+        while (!queues.isEmpty()) {
+            Iterator<Map.Entry<String, ArrayDeque<ConsumerRecord<K, V>>>> it = queues.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<String, ArrayDeque<ConsumerRecord<K, V>>> entry = it.next();
+                ArrayDeque<ConsumerRecord<K, V>> queue = entry.getValue();
+                long deficit = deficits.getOrDefault(entry.getKey(), 0L)
+                    + (long) quantumBytes * tiers.tierFor(entry.getKey()).weight();
+                while (!queue.isEmpty() && cost(queue.peekFirst()) <= deficit) {
+                    ConsumerRecord<K, V> record = queue.pollFirst();
+                    deficit -= cost(record);
+                    ordered.add(record);
+                }
+                if (queue.isEmpty()) {
+                    it.remove();
+                    deficits.remove(entry.getKey());
+                } else {
+                    deficits.put(entry.getKey(), deficit);
+                }
+            }
+        }
+        return ordered;
+    }
+
+    private static int cost(ConsumerRecord<?, ?> record) {
+        return Math.max(1, record.serializedValueSize());
+    }
+}
@@ -0,0 +1,211 @@
+package Kafka_Project.quota;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import Kafka_Project.Redis.RedisService;
+import Kafka_Project.profiling.RateLimitEvent;
+import Kafka_Project.util.LruCache;
+
+/**
+ * Per-tracking_id ingest quotas (events/s and bytes/s).
+ *
+ * Enforcement is purely local: each instance gives a tenant 1/N of its tier,
+ * where N is the number of live ingest instances from a Redis heartbeat, so
+ * the hot path never waits on Redis. Events over quota are demoted to the
+ * overflow topic while a second, equally sized overflow allowance lasts,
+ * and shed after that.
+ *
+ * Quotas are opt-in (analytics.quota.enabled), since turning them on with
+ * the default tier would start limiting existing large tenants.
+ *
+ * With analytics.fairness.demote-over-budget, the consumers also apply a
+ * drain-side budget per tenant. A tenant's records are only consumed from
+ * the partitions its sessions are placed on, normally its one home
+ * partition, so the instance assigned those partitions sees all of the
+ * tenant's traffic: the drain budget is the tenant's full tier rate on that
+ * instance, not 1/N of it. A poll's records of a tenant are moved to the
+ * overflow topic only when the tenant is past that budget and also takes
+ * more than its weighted share of a poll it shares with other tenants, so
+ * a tenant alone on its partition, or one within its rate, is never moved.
+ */
+@Service
+public class TenantQuotaService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TenantQuotaService.class);
+    private static final String INSTANCES_KEY = "quota:instances";
+
+    public enum Decision { ADMIT, OVERFLOW, SHED }
+
+    private static final class TenantBuckets {
+        final TokenBucket events = new TokenBucket();
+        final TokenBucket bytes = new TokenBucket();
+        final TokenBucket overflow = new TokenBucket();
+        final TokenBucket drain = new TokenBucket();
+    }
+
+    private final TenantTiers tiers;
+    private final RedisService redisService;
+    private final LruCache<String, TenantBuckets> buckets;
+    private final boolean enabled;
+    private final boolean overflowEnabled;
+    private final double burstSeconds;
+    private final String overflowTopic;
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder overflowed = new LongAdder();
+    private final LongAdder shed = new LongAdder();
+    private final LongAdder demoted = new LongAdder();
+    private volatile int instanceCount = 1;
+
+    @Value("${INSTANCE_ID:local}")
+    private String instanceId;
+
+    @Value("${analytics.quota.heartbeat-ms:5000}")
+    private long heartbeatMs;
+
+    @Value("${analytics.fairness.demote-over-budget:false}")
+    private boolean demoteOverBudget;
+
+    @Value("${analytics.fairness.drain-burst-seconds:10}")
+    private double drainBurstSeconds;
+
+    public TenantQuotaService(TenantTiers tiers,
+                              RedisService redisService,
+                              @Value("${analytics.quota.enabled:false}") boolean enabled,
+                              @Value("${analytics.quota.action:overflow}") String action,
+                              @Value("${analytics.quota.burst-seconds:2}") double burstSeconds,
+                              @Value("${analytics.quota.overflow-topic:overflow_events}") String overflowTopic,
+                              @Value("${analytics.quota.tracked-tenants:10000}") int trackedTenants) {
+        this.tiers = tiers;
+        this.redisService = redisService;
+        this.enabled = enabled;
+        this.overflowEnabled = "overflow".equalsIgnoreCase(action.trim());
+        this.burstSeconds = burstSeconds;
+        this.overflowTopic = overflowTopic;
+        this.buckets = new LruCache<>(trackedTenants);
+    }
+
+    public Decision admit(String trackingId, int bytes) {
+        if (!enabled || trackingId == null || trackingId.isEmpty()) {
+            return Decision.ADMIT;
+        }
+        TenantTier tier = tiers.tierFor(trackingId);
+        TenantBuckets tenant = buckets.getOrCompute(trackingId, key -> new TenantBuckets());
+        long now = System.currentTimeMillis();
+        double share = 1.0 / instanceCount;
+        double eventRate = tier.eventsPerSecond() * share;
+        double byteRate = tier.bytesPerSecond() * share;
+
+        // Both buckets are checked before either is charged, so an event
+        // rejected on bytes does not use up event quota
+        synchronized (tenant) {
+            if (tenant.events.available(eventRate, Math.max(1, eventRate * burstSeconds), now) >= 1
+                    && tenant.bytes.available(byteRate, Math.max(bytes, byteRate * burstSeconds), now) >= bytes) {
+                tenant.events.take(1);
+                tenant.bytes.take(bytes);
+                admitted.increment();
+                return recordDecision(trackingId, Decision.ADMIT);
+            }
+        }
+        if (overflowEnabled && tenant.overflow.tryAcquire(1, eventRate, Math.max(1, eventRate * burstSeconds), now)) {
+            overflowed.increment();
+            return recordDecision(trackingId, Decision.OVERFLOW);
+        }
+        shed.increment();
+        return recordDecision(trackingId, Decision.SHED);
+    }
+
+    private static Decision recordDecision(String trackingId, Decision decision) {
+        RateLimitEvent event = new RateLimitEvent();
+        if (event.shouldCommit()) {
+            event.limiter = "tenant-quota";
+            event.key = trackingId;
+            event.decision = decision.name();
+            event.commit();
+        }
+        return decision;
+    }
+
+    /**
+     * Consume-time check for one poll, given each tenant's record count in
+     * it: the tenants whose records the caller should move to the overflow
+     * topic. Tenants that are kept are charged for their records.
+     */
+    public Set<String> tenantsToDemote(Map<String, Integer> recordsPerTenant) {
+        Set<String> demote = new HashSet<>();
+        if (!isDemotingOverBudget() || recordsPerTenant.size() < 2) {
+            return demote;
+        }
+        long total = 0;
+        double weights = 0;
+        for (Map.Entry<String, Integer> entry : recordsPerTenant.entrySet()) {
+            total += entry.getValue();
+            weights += tiers.tierFor(entry.getKey()).weight();
+        }
+        long now = System.currentTimeMillis();
+        for (Map.Entry<String, Integer> entry : recordsPerTenant.entrySet()) {
+            TenantTier tier = tiers.tierFor(entry.getKey());
+            TenantBuckets tenant = buckets.getOrCompute(entry.getKey(), key -> new TenantBuckets());
+            double rate = tier.eventsPerSecond();
+            int records = entry.getValue();
+            synchronized (tenant) {
+                double available = tenant.drain.available(rate, Math.max(1, rate * drainBurstSeconds), now);
+                boolean overBudget = available < records;
+                boolean overShare = (double) records / total > tier.weight() / weights;
+                if (overBudget && overShare) {
+                    demote.add(entry.getKey());
+                    demoted.add(records);
+                } else {
+                    tenant.drain.take(Math.min(records, available));
+                }
+            }
+        }
+        return demote;
+    }
+
+    public boolean isDemotingOverBudget() {
+        return enabled && demoteOverBudget;
+    }
+
+    public String getOverflowTopic() {
+        return overflowTopic;
+    }
+
+    @Scheduled(fixedDelayString = "${analytics.quota.heartbeat-ms:5000}")
+    public void heartbeat() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            long live = redisService.heartbeat(INSTANCES_KEY, instanceId, System.currentTimeMillis(), heartbeatMs * 3);
+            int count = (int) Math.max(1, live);
+            if (count != instanceCount) {
+                logger.info("Ingest instances changed {} -> {}, rescaling tenant quotas", instanceCount, count);
+                instanceCount = count;
+            }
+        } catch (Exception e) {
+            // Keep the last known share; quotas stay enforced locally
+            logger.debug("Quota heartbeat failed: {}", e.getMessage());
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("instances", instanceCount);
+        stats.put("admitted", admitted.sum());
+        stats.put("overflowed", overflowed.sum());
+        stats.put("shed", shed.sum());
+        stats.put("demoted_at_consume", demoted.sum());
+        return stats;
+    }
+}
@@ -0,0 +1,8 @@
+package Kafka_Project.quota;
+
+/**
+ * Quota tier for a tracking id: cluster-wide events and bytes per second,
+ * and a weight for fair scheduling in the consumers.
+ */
+public record TenantTier(String name, double eventsPerSecond, double bytesPerSecond, int weight) {
+}
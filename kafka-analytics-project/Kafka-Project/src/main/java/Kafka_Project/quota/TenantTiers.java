@@ -0,0 +1,61 @@
+package Kafka_Project.quota;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Tier definitions and tracking_id assignments from configuration.
+ *
+ * Tiers are {@code name:events_per_sec:bytes_per_sec:weight} entries,
+ * assignments are {@code tracking_id:tier}; unassigned tenants get the
+ * default tier.
+ */
+@Component
+public class TenantTiers {
+
+    private final Map<String, TenantTier> tiers = new HashMap<>();
+    private final Map<String, TenantTier> assignments = new HashMap<>();
+    private final TenantTier defaultTier;
+
+    public TenantTiers(@Value("${analytics.quota.tiers:free:20:32768:1,standard:200:524288:2,enterprise:2000:8388608:8}") String tiersConfig,
+                       @Value("${analytics.quota.tenants:}") String tenantsConfig,
+                       @Value("${analytics.quota.default-tier:standard}") String defaultTier) {
+        for (String entry : tiersConfig.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 4) {
+                throw new IllegalArgumentException("Invalid quota tier: " + entry);
+            }
+            TenantTier tier = new TenantTier(parts[0].trim(), Double.parseDouble(parts[1].trim()),
+                Double.parseDouble(parts[2].trim()), Math.max(1, Integer.parseInt(parts[3].trim())));
+            tiers.put(tier.name(), tier);
+        }
+        this.defaultTier = tier(defaultTier.trim());
+        if (!tenantsConfig.isBlank()) {
+            for (String entry : tenantsConfig.split(",")) {
+                int split = entry.lastIndexOf(':');
+                if (split <= 0) {
+                    throw new IllegalArgumentException("Invalid quota tenant assignment: " + entry);
+                }
+                assignments.put(entry.substring(0, split).trim(), tier(entry.substring(split + 1).trim()));
+            }
+        }
+    }
+
+    public TenantTier tierFor(String trackingId) {
+        if (trackingId == null) {
+            return defaultTier;
+        }
+        return assignments.getOrDefault(trackingId, defaultTier);
+    }
+
+    private TenantTier tier(String name) {
+        TenantTier tier = tiers.get(name);
+        if (tier == null) {
+            throw new IllegalArgumentException("Unknown quota tier: " + name);
+        }
+        return tier;
+    }
+}
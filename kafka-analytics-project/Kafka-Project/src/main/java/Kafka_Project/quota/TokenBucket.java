@@ -0,0 +1,36 @@
+package Kafka_Project.quota;
+
+/**
+ * Lazily refilled token bucket. Rate and capacity are passed on every call
+ * so they can follow the instance count without rebuilding buckets.
+ */
+class TokenBucket {
+
+    private double tokens = -1;
+    private long updatedAt;
+
+    synchronized boolean tryAcquire(double amount, double ratePerSecond, double capacity, long nowMillis) {
+        if (available(ratePerSecond, capacity, nowMillis) < amount) {
+            return false;
+        }
+        tokens -= amount;
+        return true;
+    }
+
+    /**
+     * Refills and returns the current balance without taking anything.
+     */
+    synchronized double available(double ratePerSecond, double capacity, long nowMillis) {
+        if (tokens < 0) {
+            tokens = capacity;
+        } else {
+            tokens = Math.min(capacity, tokens + (nowMillis - updatedAt) * ratePerSecond / 1000.0);
+        }
+        updatedAt = nowMillis;
+        return tokens;
+    }
+
+    synchronized void take(double amount) {
+        tokens -= amount;
+    }
+}
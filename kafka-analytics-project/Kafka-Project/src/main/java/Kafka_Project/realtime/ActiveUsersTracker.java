@@ -0,0 +1,228 @@
+package Kafka_Project.realtime;
+
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import Kafka_Project.Redis.RedisService;
+import Kafka_Project.util.Hashing;
+
+/**
+ * "Users on site right now" per tracking_id. Each site keeps a ring of
+ * time slots covering the longest window, one HyperLogLog of session ids per
+ * slot, so memory is fixed per site no matter the traffic. Window counts are
+ * cached and recomputed at most once per refresh interval, making reads O(1).
+ *
+ * Every instance only sees the partitions it consumes, so each one publishes
+ * its merged window sketches to Redis; the global view is the register-wise
+ * union of all live instances' sketches.
+ */
+@Component
+public class ActiveUsersTracker {
+
+    private static final Logger logger = LoggerFactory.getLogger(ActiveUsersTracker.class);
+    private static final String INSTANCES_KEY = "active_users:instances";
+
+    private final ConcurrentHashMap<String, SiteRing> sites = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, CachedCounts> globalCounts = new ConcurrentHashMap<>();
+    private final RedisService redisService;
+
+    @Value("${analytics.active-users.windows-minutes:1,5,30}")
+    private int[] windowsMinutes;
+
+    @Value("${analytics.active-users.slot-seconds:10}")
+    private int slotSeconds;
+
+    @Value("${analytics.active-users.precision:9}")
+    private int precision;
+
+    @Value("${analytics.active-users.refresh-ms:5000}")
+    private long refreshMs;
+
+    @Value("${INSTANCE_ID:local}")
+    private String instanceId;
+
+    public ActiveUsersTracker(RedisService redisService) {
+        this.redisService = redisService;
+    }
+
+    public void record(String trackingId, String sessionId) {
+        if (trackingId == null || trackingId.isEmpty() || sessionId == null || sessionId.isEmpty()) {
+            return;
+        }
+        sites.computeIfAbsent(trackingId, k -> new SiteRing(slotCount()))
+            .add(System.currentTimeMillis() / slotMillis(), Hashing.hash64(sessionId));
+    }
+
+    /**
+     * Distinct sessions seen by this instance, keyed by window ("1m", "5m", ...).
+     */
+    public Map<String, Long> localActiveUsers(String trackingId) {
+        SiteRing ring = sites.get(trackingId);
+        if (ring == null) {
+            return emptyCounts();
+        }
+        return ring.counts(System.currentTimeMillis()).values;
+    }
+
+    /**
+     * Distinct sessions across every instance that published to Redis recently.
+     */
+    public Map<String, Long> globalActiveUsers(String trackingId) {
+        long now = System.currentTimeMillis();
+        CachedCounts cached = globalCounts.get(trackingId);
+        if (cached != null && now - cached.computedAt < refreshMs) {
+            return cached.values;
+        }
+        Map<String, Long> values = new LinkedHashMap<>();
+        try {
+            Set<String> instances = redisService.getSetMembers(INSTANCES_KEY);
+            for (int minutes : windowsMinutes) {
+                HyperLogLog union = new HyperLogLog(precision);
+                if (instances != null) {
+                    for (String instance : instances) {
+                        String encoded = redisService.getData(redisKey(trackingId, minutes, instance));
+                        if (encoded != null) {
+                            union.merge(HyperLogLog.fromBytes(Base64.getDecoder().decode(encoded)));
+                        }
+                    }
+                }
+                values.put(minutes + "m", union.estimate());
+            }
+        } catch (Exception e) {
+            logger.debug("Falling back to local active users for {}: {}", trackingId, e.getMessage());
+            return localActiveUsers(trackingId);
+        }
+        globalCounts.put(trackingId, new CachedCounts(now, values));
+        return values;
+    }
+
+    @Scheduled(fixedDelayString = "${analytics.active-users.publish-interval-ms:5000}")
+    public void publish() {
+        long now = System.currentTimeMillis();
+        int ttlSeconds = (int) Math.max(10, refreshMs * 3 / 1000);
+        long idleCutoff = now / slotMillis() - slotCount();
+
+        sites.forEach((trackingId, ring) -> {
+            if (ring.lastSlot() < idleCutoff) {
+                sites.remove(trackingId, ring);
+                return;
+            }
+            Map<Integer, HyperLogLog> merged = ring.mergedWindows(now);
+            try {
+                for (Map.Entry<Integer, HyperLogLog> entry : merged.entrySet()) {
+                    redisService.saveData(redisKey(trackingId, entry.getKey(), instanceId),
+                        Base64.getEncoder().encodeToString(entry.getValue().toBytes()), ttlSeconds);
+                }
+            } catch (Exception e) {
+                logger.debug("Could not publish active users for {}: {}", trackingId, e.getMessage());
+            }
+        });
+        globalCounts.values().removeIf(cached -> now - cached.computedAt > refreshMs * 10);
+
+        try {
+            redisService.addToSet(INSTANCES_KEY, instanceId, ttlSeconds * 10);
+        } catch (Exception e) {
+            logger.debug("Could not register instance {}: {}", instanceId, e.getMessage());
+        }
+    }
+
+    private Map<String, Long> emptyCounts() {
+        Map<String, Long> values = new LinkedHashMap<>();
+        for (int minutes : windowsMinutes) {
+            values.put(minutes + "m", 0L);
+        }
+        return values;
+    }
+
+    private String redisKey(String trackingId, int minutes, String instance) {
+        return "active_users:" + trackingId + ":" + minutes + "m:" + instance;
+    }
+
+    private long slotMillis() {
+        return slotSeconds * 1000L;
+    }
+
+    private int slotCount() {
+        int longest = Arrays.stream(windowsMinutes).max().orElse(30);
+        return (int) Math.ceil(longest * 60.0 / slotSeconds);
+    }
+
+    private record CachedCounts(long computedAt, Map<String, Long> values) {}
+
+    private final class SiteRing {
+        private final long[] slotIds;
+        private final HyperLogLog[] slots;
+        private volatile CachedCounts cached;
+
+        SiteRing(int size) {
+            slotIds = new long[size];
+            Arrays.fill(slotIds, -1);
+            slots = new HyperLogLog[size];
+        }
+
+        synchronized void add(long slotId, long hash) {
+            int i = (int) (slotId % slots.length);
+            if (slotIds[i] != slotId) {
+                slotIds[i] = slotId;
+                if (slots[i] == null) {
+                    slots[i] = new HyperLogLog(precision);
+                } else {
+                    slots[i].clear();
+                }
+            }
+            slots[i].add(hash);
+        }
+
+        synchronized long lastSlot() {
+            return Arrays.stream(slotIds).max().orElse(-1);
+        }
+
+        CachedCounts counts(long now) {
+            CachedCounts current = cached;
+            if (current != null && now - current.computedAt < refreshMs) {
+                return current;
+            }
+            Map<String, Long> values = new LinkedHashMap<>();
+            mergedWindows(now).forEach((minutes, hll) -> values.put(minutes + "m", hll.estimate()));
+            current = new CachedCounts(now, values);
+            cached = current;
+            return current;
+        }
+
+        // Walks the ring once from the newest slot, snapshotting the running
+        // union each time a window boundary is passed
+        synchronized Map<Integer, HyperLogLog> mergedWindows(long now) {
+            long currentSlot = now / slotMillis();
+            int[] sorted = windowsMinutes.clone();
+            Arrays.sort(sorted);
+            Map<Integer, HyperLogLog> result = new LinkedHashMap<>();
+            HyperLogLog running = new HyperLogLog(precision);
+            int next = 0;
+            for (int age = 0; age < slots.length && next < sorted.length; age++) {
+                long slotId = currentSlot - age;
+                int i = (int) Math.floorMod(slotId, (long) slots.length);
+                if (slotIds[i] == slotId && slots[i] != null) {
+                    running.merge(slots[i]);
+                }
+                while (next < sorted.length && (age + 1) * slotSeconds >= sorted[next] * 60) {
+                    result.put(sorted[next], HyperLogLog.fromBytes(running.toBytes()));
+                    next++;
+                }
+            }
+            while (next < sorted.length) {
+                result.put(sorted[next++], HyperLogLog.fromBytes(running.toBytes()));
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package Kafka_Project.realtime;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import Kafka_Project.util.Hashing;
+
+/**
+ * Streaming conversion funnel. For every (tracking_id, day) it remembers the
+ * furthest configured step each session has reached and keeps running
+ * "sessions that reached at least step i" counts, so funnel reads never
+ * rescan ecommerce_events. Counts grow monotonically; every flush writes the
+ * increase since the previous flush to conversion_funnel, so summing users
+ * per (date, funnel_step) gives the day's funnel. Rates don't add up across
+ * rows, so conversion_rate is written as 0 (as mv_conversion_funnel does)
+ * and readers derive it from the summed users.
+ *
+ * Steps are configured as a comma-separated list of event types, optionally
+ * narrowed to a checkout step number, e.g.
+ * {@code product_view,cart_add,checkout_step:1,checkout_step:2,purchase}.
+ */
+@Component
+public class FunnelEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(FunnelEngine.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final List<FunnelStep> steps;
+    private final int retentionDays;
+    private final ConcurrentHashMap<WindowKey, FunnelWindow> windows = new ConcurrentHashMap<>();
+
+    public FunnelEngine(JdbcTemplate jdbcTemplate,
+                        @Value("${analytics.funnel.steps:product_view,cart_add,checkout_step,purchase}") String stepsConfig,
+                        @Value("${analytics.funnel.retention-days:2}") int retentionDays) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.steps = parseSteps(stepsConfig);
+        this.retentionDays = Math.max(1, retentionDays);
+    }
+
+    public void record(String trackingId, String sessionId, String eventType, Integer stepNumber,
+                       LocalDateTime timestamp) {
+        if (trackingId == null || trackingId.isEmpty() || sessionId == null || sessionId.isEmpty()) {
+            return;
+        }
+        int level = 0;
+        for (int i = steps.size() - 1; i >= 0; i--) {
+            if (steps.get(i).matches(eventType, stepNumber)) {
+                level = i + 1;
+                break;
+            }
+        }
+        if (level == 0) {
+            return;
+        }
+        LocalDate date = timestamp.toLocalDate();
+        if (date.isBefore(LocalDate.now(ZoneOffset.UTC).minusDays(retentionDays - 1))) {
+            return;
+        }
+        windows.computeIfAbsent(new WindowKey(trackingId, date), k -> new FunnelWindow(steps.size()))
+            .advance(Hashing.hash64(sessionId), level);
+    }
+
+    /**
+     * Step counts for one day, with conversion from the first step and
+     * drop-off from the previous one.
+     */
+    public List<Map<String, Object>> snapshot(String trackingId, LocalDate date) {
+        FunnelWindow window = windows.get(new WindowKey(trackingId, date));
+        long[] counts = window == null ? new long[steps.size()] : window.counts();
+        List<Map<String, Object>> result = new ArrayList<>(steps.size());
+        for (int i = 0; i < steps.size(); i++) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("step", steps.get(i).name());
+            row.put("users", counts[i]);
+            row.put("conversion_rate", rate(counts[i], counts[0]));
+            row.put("drop_off_rate", i == 0 ? 0.0 : 1 - rate(counts[i], counts[i - 1]));
+            result.add(row);
+        }
+        return result;
+    }
+
+    @Scheduled(fixedDelayString = "${analytics.funnel.flush-interval-ms:60000}")
+    public void flush() {
+        LocalDate oldest = LocalDate.now(ZoneOffset.UTC).minusDays(retentionDays - 1);
+        List<Object[]> rows = new ArrayList<>();
+        List<Runnable> commits = new ArrayList<>();
+
+        windows.forEach((key, window) -> {
+            long[] counts = window.counts();
+            long[] deltas = window.pendingDeltas(counts);
+            for (int i = 0; i < deltas.length; i++) {
+                if (deltas[i] > 0) {
+                    rows.add(new Object[] {
+                        key.date().toString(), key.trackingId(), steps.get(i).name(),
+                        deltas[i], 0f
+                    });
+                }
+            }
+            commits.add(() -> window.markEmitted(counts));
+        });
+
+        if (!rows.isEmpty()) {
+            try {
+                jdbcTemplate.batchUpdate(
+                    "INSERT INTO conversion_funnel (date, tracking_id, funnel_step, users, conversion_rate) " +
+                    "VALUES (?, ?, ?, ?, ?)", rows);
+                commits.forEach(Runnable::run);
+                logger.info("Flushed {} funnel step rows", rows.size());
+            } catch (Exception e) {
+                // Deltas stay pending and are retried on the next flush
+                logger.error("Failed to flush funnel counts: {}", e.getMessage());
+                return;
+            }
+        }
+
+        windows.entrySet().removeIf(entry ->
+            entry.getKey().date().isBefore(oldest) && !entry.getValue().hasPending());
+    }
+
+    public List<String> stepNames() {
+        return steps.stream().map(FunnelStep::name).toList();
+    }
+
+    private static double rate(long numerator, long denominator) {
+        return denominator == 0 ? 0.0 : (double) numerator / denominator;
+    }
+
+    static List<FunnelStep> parseSteps(String config) {
+        List<FunnelStep> parsed = new ArrayList<>();
+        for (String raw : config.split(",")) {
+            String step = raw.trim();
+            if (step.isEmpty()) {
+                continue;
+            }
+            int colon = step.indexOf(':');
+            if (colon < 0) {
+                parsed.add(new FunnelStep(step, step, null));
+            } else {
+                parsed.add(new FunnelStep(step, step.substring(0, colon),
+                    Integer.parseInt(step.substring(colon + 1).trim())));
+            }
+        }
+        if (parsed.isEmpty() || parsed.size() > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("analytics.funnel.steps must define 1-127 steps");
+        }
+        return List.copyOf(parsed);
+    }
+
+    record FunnelStep(String name, String eventType, Integer stepNumber) {
+        boolean matches(String type, Integer number) {
+            return eventType.equals(type) && (stepNumber == null || stepNumber.equals(number));
+        }
+    }
+
+    private record WindowKey(String trackingId, LocalDate date) {}
+
+    private static final class FunnelWindow {
+        private final SessionStepMap furthest = new SessionStepMap(64);
+        private final long[] counts;
+        private final long[] emitted;
+
+        FunnelWindow(int stepCount) {
+            counts = new long[stepCount];
+            emitted = new long[stepCount];
+        }
+
+        synchronized void advance(long sessionHash, int level) {
+            int previous = furthest.get(sessionHash);
+            if (level <= previous) {
+                return;
+            }
+            furthest.put(sessionHash, level);
+            for (int i = previous; i < level; i++) {
+                counts[i]++;
+            }
+        }
+
+        synchronized long[] counts() {
+            return counts.clone();
+        }
+
+        synchronized long[] pendingDeltas(long[] snapshot) {
+            long[] deltas = new long[snapshot.length];
+            for (int i = 0; i < snapshot.length; i++) {
+                deltas[i] = snapshot[i] - emitted[i];
+            }
+            return deltas;
+        }
+
+        synchronized void markEmitted(long[] snapshot) {
+            System.arraycopy(snapshot, 0, emitted, 0, snapshot.length);
+        }
+
+        synchronized boolean hasPending() {
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] != emitted[i]) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package Kafka_Project.realtime;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import Kafka_Project.Redis.RedisService;
+
+/**
+ * Top pages, clicked elements and viewed products per tracking_id, kept in
+ * fixed-size Space-Saving summaries per window instead of GROUP BY queries.
+ * Readers are served from the snapshot built on every publish tick, which is
+ * also pushed to Redis so other services can read it.
+ */
+@Component
+public class HeavyHitterTracker {
+
+    public enum Dimension {
+        PAGES, ELEMENTS, PRODUCTS
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(HeavyHitterTracker.class);
+
+    private final ConcurrentHashMap<WindowKey, SpaceSaving> summaries = new ConcurrentHashMap<>();
+    private volatile Map<SnapshotKey, List<SpaceSaving.Entry>> snapshots = Map.of();
+
+    private final RedisService redisService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${analytics.heavy-hitters.window-minutes:60}")
+    private int windowMinutes;
+
+    @Value("${analytics.heavy-hitters.capacity:200}")
+    private int capacity;
+
+    @Value("${analytics.heavy-hitters.publish-top-k:50}")
+    private int publishTopK;
+
+    @Value("${INSTANCE_ID:local}")
+    private String instanceId;
+
+    public HeavyHitterTracker(RedisService redisService, ObjectMapper objectMapper) {
+        this.redisService = redisService;
+        this.objectMapper = objectMapper;
+    }
+
+    public void offer(String trackingId, Dimension dimension, String item, LocalDateTime timestamp) {
+        if (trackingId == null || trackingId.isEmpty() || item == null || item.isEmpty()) {
+            return;
+        }
+        long windowStart = windowStart(timestamp.toInstant(ZoneOffset.UTC).toEpochMilli());
+        if (windowStart < windowStart(System.currentTimeMillis()) - windowMillis()) {
+            return;
+        }
+        summaries.computeIfAbsent(new WindowKey(trackingId, dimension, windowStart),
+            k -> new SpaceSaving(capacity)).offer(item);
+    }
+
+    /**
+     * Top-k of the current window (or the previous one just after a rollover)
+     * as of the last published snapshot.
+     */
+    public List<SpaceSaving.Entry> topK(String trackingId, Dimension dimension, int k) {
+        List<SpaceSaving.Entry> entries = snapshots.get(new SnapshotKey(trackingId, dimension));
+        if (entries == null) {
+            return List.of();
+        }
+        return entries.size() <= k ? entries : entries.subList(0, k);
+    }
+
+    @Scheduled(fixedDelayString = "${analytics.heavy-hitters.publish-interval-ms:10000}")
+    public void publishSnapshots() {
+        long current = windowStart(System.currentTimeMillis());
+        summaries.keySet().removeIf(key -> key.windowStart() < current - windowMillis());
+
+        Map<SnapshotKey, List<SpaceSaving.Entry>> next = new HashMap<>();
+        summaries.forEach((key, summary) -> {
+            if (key.windowStart() == current) {
+                next.put(new SnapshotKey(key.trackingId(), key.dimension()), List.copyOf(summary.top(publishTopK)));
+            }
+        });
+        // Right after a window rolls over, keep serving the previous one
+        summaries.forEach((key, summary) -> {
+            if (key.windowStart() < current) {
+                next.putIfAbsent(new SnapshotKey(key.trackingId(), key.dimension()), List.copyOf(summary.top(publishTopK)));
+            }
+        });
+        snapshots = next;
+
+        next.forEach((key, entries) -> {
+            try {
+                String redisKey = "heavy_hitters:" + key.dimension().name().toLowerCase()
+                    + ":" + key.trackingId() + ":" + instanceId;
+                redisService.saveData(redisKey, objectMapper.writeValueAsString(entries), windowMinutes * 60);
+            } catch (Exception e) {
+                logger.debug("Could not publish heavy hitters for {}: {}", key.trackingId(), e.getMessage());
+            }
+        });
+    }
+
+    private long windowMillis() {
+        return windowMinutes * 60_000L;
+    }
+
+    private long windowStart(long epochMs) {
+        return epochMs - Math.floorMod(epochMs, windowMillis());
+    }
+
+    private record WindowKey(String trackingId, Dimension dimension, long windowStart) {}
+
+    private record SnapshotKey(String trackingId, Dimension dimension) {}
+}
@@ -0,0 +1,78 @@
+package Kafka_Project.realtime;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Per consumer lane throughput and freshness: batches and records handled,
+ * time spent writing them, and how old the newest batch was relative to
+ * its ingest_ts header.
+ */
+@Component
+public class LaneMetrics {
+
+    private static final class Lane {
+        final LongAdder batches = new LongAdder();
+        final LongAdder records = new LongAdder();
+        final LongAdder busyNanos = new LongAdder();
+        volatile long lastBatchMillis;
+        volatile long lastBatchSize;
+        volatile long lastFreshnessMs = -1;
+        volatile long maxBatchMillis;
+    }
+
+    private final ConcurrentHashMap<String, Lane> lanes = new ConcurrentHashMap<>();
+
+    /**
+     * @param oldestIngestTs oldest ingest_ts in the batch, or 0 when unknown
+     */
+    public void record(String lane, int batchSize, long elapsedNanos, long oldestIngestTs) {
+        Lane metrics = lanes.computeIfAbsent(lane, key -> new Lane());
+        long elapsedMillis = elapsedNanos / 1_000_000;
+        metrics.batches.increment();
+        metrics.records.add(batchSize);
+        metrics.busyNanos.add(elapsedNanos);
+        metrics.lastBatchSize = batchSize;
+        metrics.lastBatchMillis = elapsedMillis;
+        if (elapsedMillis > metrics.maxBatchMillis) {
+            metrics.maxBatchMillis = elapsedMillis;
+        }
+        if (oldestIngestTs > 0) {
+            metrics.lastFreshnessMs = Math.max(0, System.currentTimeMillis() - oldestIngestTs);
+        }
+    }
+
+    /**
+     * Records one listener thread handles per second of busy time, i.e. a
+     * consumer's capacity when it never waits on a poll; 0 until measured.
+     */
+    public double recordsPerBusySecond(String lane) {
+        Lane metrics = lanes.get(lane);
+        if (metrics == null) {
+            return 0;
+        }
+        long busyNanos = metrics.busyNanos.sum();
+        return busyNanos == 0 ? 0 : metrics.records.sum() * 1e9 / busyNanos;
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        lanes.forEach((name, lane) -> {
+            long batches = lane.batches.sum();
+            Map<String, Object> values = new LinkedHashMap<>();
+            values.put("batches", batches);
+            values.put("records", lane.records.sum());
+            values.put("avg_batch_ms", batches == 0 ? 0 : lane.busyNanos.sum() / 1_000_000 / batches);
+            values.put("max_batch_ms", lane.maxBatchMillis);
+            values.put("last_batch_size", lane.lastBatchSize);
+            values.put("last_batch_ms", lane.lastBatchMillis);
+            values.put("freshness_ms", lane.lastFreshnessMs);
+            result.put(name, values);
+        });
+        return result;
+    }
+}
@@ -0,0 +1,331 @@
+package Kafka_Project.realtime;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Per-site live counters (active sessions, events/s, recent conversions)
+ * updated by the Kafka listeners and pushed to dashboard subscribers over
+ * Server-Sent Events. Updates are coalesced: each tick builds and serializes
+ * one snapshot per subscribed site and writes that same payload to all of
+ * that site's emitters.
+ *
+ * Writes happen off the scheduler thread on a fixed pool of sender threads,
+ * one in flight per emitter. A client still busy with the previous snapshot
+ * skips this one, and a client whose write has been stuck longer than
+ * send-stall-ms is dropped: its write is interrupted and its response
+ * closed, so the sender thread is freed and a slow or half-open connection
+ * never holds up other dashboards.
+ *
+ * Events/s and recent conversions come from the Redis minute counters, which
+ * every instance adds to, so they are site-wide like the active users. When
+ * those counters are off or Redis can't be read, the snapshot falls back to
+ * this instance's own counters and says so in "scope".
+ */
+@Service
+public class LiveCounterService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LiveCounterService.class);
+
+    private final ConcurrentHashMap<String, SiteCounters> sites = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, CopyOnWriteArraySet<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final ObjectMapper objectMapper;
+    private final ActiveUsersTracker activeUsers;
+    private final MinuteCounterService minuteCounters;
+
+    @Value("${analytics.live.active-session-minutes:5}")
+    private int activeSessionMinutes;
+
+    @Value("${analytics.live.conversion-window-minutes:15}")
+    private int conversionWindowMinutes;
+
+    @Value("${analytics.live.emitter-timeout-ms:1800000}")
+    private long emitterTimeoutMs;
+
+    @Value("${analytics.live.send-stall-ms:10000}")
+    private long sendStallMs;
+
+    private volatile long lastTick = System.currentTimeMillis();
+    private final ThreadPoolExecutor sender;
+
+    public LiveCounterService(ObjectMapper objectMapper, ActiveUsersTracker activeUsers,
+                              MinuteCounterService minuteCounters,
+                              @Value("${analytics.live.sender-threads:8}") int senderThreads,
+                              @Value("${analytics.live.send-queue:4096}") int sendQueue) {
+        this.objectMapper = objectMapper;
+        this.activeUsers = activeUsers;
+        this.minuteCounters = minuteCounters;
+        AtomicInteger threads = new AtomicInteger();
+        this.sender = new ThreadPoolExecutor(senderThreads, senderThreads, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(sendQueue), runnable -> {
+                Thread thread = new Thread(runnable, "live-sse-" + threads.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+    }
+
+    public void record(String trackingId, String eventType, Double revenue) {
+        if (trackingId == null || trackingId.isEmpty()) {
+            return;
+        }
+        SiteCounters counters = sites.computeIfAbsent(trackingId,
+            k -> new SiteCounters(conversionWindowMinutes));
+        counters.events.increment();
+        if ("purchase".equals(eventType)) {
+            counters.recordConversion(System.currentTimeMillis(), revenue == null ? 0 : revenue);
+        }
+    }
+
+    public SseEmitter subscribe(String trackingId, HttpServletResponse response) {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        Subscriber subscriber = new Subscriber(emitter, response);
+        CopyOnWriteArraySet<Subscriber> emitters =
+            subscribers.computeIfAbsent(trackingId, k -> new CopyOnWriteArraySet<>());
+        emitters.add(subscriber);
+        Runnable remove = () -> emitters.remove(subscriber);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(e -> remove.run());
+        return emitter;
+    }
+
+    public Map<String, Object> snapshot(String trackingId) {
+        SiteCounters counters = sites.get(trackingId);
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("tracking_id", trackingId);
+        snapshot.put("timestamp", Instant.now().toString());
+        Map<String, Long> active = activeUsers.globalActiveUsers(trackingId);
+        snapshot.put("active_sessions", active.getOrDefault(activeSessionMinutes + "m", 0L));
+        snapshot.put("active_users", active);
+        if (!putSiteWide(snapshot, trackingId)) {
+            snapshot.put("scope", "instance");
+            snapshot.put("events_per_second", counters == null ? 0.0 : counters.eventsPerSecond);
+            snapshot.put("recent_conversions", counters == null ? 0 : counters.conversions(System.currentTimeMillis()));
+            snapshot.put("recent_revenue", counters == null ? 0.0 : counters.revenue(System.currentTimeMillis()));
+        }
+        return snapshot;
+    }
+
+    /**
+     * Events/s is taken over the previous and current minute buckets, so it
+     * never drops to zero just because a minute has started.
+     */
+    private boolean putSiteWide(Map<String, Object> snapshot, String trackingId) {
+        if (!minuteCounters.isEnabled()) {
+            return false;
+        }
+        List<Map<String, Object>> minutes;
+        try {
+            minutes = minuteCounters.lastMinutes(trackingId, Math.max(2, conversionWindowMinutes));
+        } catch (Exception e) {
+            logger.debug("Falling back to local live counters for {}: {}", trackingId, e.getMessage());
+            return false;
+        }
+        long events = 0;
+        long conversions = 0;
+        double revenue = 0;
+        for (int i = 0; i < minutes.size(); i++) {
+            Map<String, Object> minute = minutes.get(i);
+            if (i >= minutes.size() - 2) {
+                events += (long) number(minute.get("events"));
+            }
+            if (i >= minutes.size() - conversionWindowMinutes) {
+                conversions += (long) number(minute.get("purchases"));
+                revenue += number(minute.get("revenue"));
+            }
+        }
+        double seconds = 60 + (System.currentTimeMillis() % 60_000L) / 1000.0;
+        snapshot.put("scope", "global");
+        snapshot.put("events_per_second", events / seconds);
+        snapshot.put("recent_conversions", conversions);
+        snapshot.put("recent_revenue", revenue);
+        return true;
+    }
+
+    private static double number(Object value) {
+        if (value == null) {
+            return 0;
+        }
+        try {
+            return Double.parseDouble(value.toString());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    public int subscriberCount() {
+        return subscribers.values().stream().mapToInt(CopyOnWriteArraySet::size).sum();
+    }
+
+    @Scheduled(fixedRateString = "${analytics.live.tick-ms:1000}")
+    public void tick() {
+        long now = System.currentTimeMillis();
+        long elapsed = Math.max(1, now - lastTick);
+        lastTick = now;
+
+        sites.forEach((trackingId, counters) -> {
+            counters.eventsPerSecond = counters.events.sumThenReset() * 1000.0 / elapsed;
+            if (counters.eventsPerSecond == 0 && counters.conversions(now) == 0
+                    && !subscribers.containsKey(trackingId)) {
+                sites.remove(trackingId, counters);
+            }
+        });
+
+        subscribers.forEach((trackingId, emitters) -> {
+            if (emitters.isEmpty()) {
+                subscribers.remove(trackingId, emitters);
+                return;
+            }
+            String payload;
+            try {
+                payload = objectMapper.writeValueAsString(snapshot(trackingId));
+            } catch (IOException e) {
+                logger.error("Failed to serialize live counters for {}", trackingId, e);
+                return;
+            }
+            for (Subscriber subscriber : emitters) {
+                long sendingSince = subscriber.sendingSince.get();
+                if (sendingSince != 0) {
+                    if (now - sendingSince > sendStallMs) {
+                        logger.warn("Dropping live subscriber for {}: send stalled for {} ms",
+                            trackingId, now - sendingSince);
+                        emitters.remove(subscriber);
+                        subscriber.abort();
+                    }
+                    continue;
+                }
+                subscriber.sendingSince.set(now);
+                try {
+                    subscriber.inFlight = sender.submit(() -> send(emitters, subscriber, payload));
+                } catch (RejectedExecutionException e) {
+                    // Every sender busy and the queue full: skip this tick for the client
+                    subscriber.sendingSince.set(0);
+                }
+            }
+        });
+    }
+
+    private void send(CopyOnWriteArraySet<Subscriber> emitters, Subscriber subscriber, String payload) {
+        try {
+            subscriber.emitter.send(SseEmitter.event().name("counters").data(payload));
+        } catch (Exception e) {
+            emitters.remove(subscriber);
+            subscriber.emitter.completeWithError(e);
+        } finally {
+            subscriber.sendingSince.set(0);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        sender.shutdownNow();
+    }
+
+    private static final class Subscriber {
+        final SseEmitter emitter;
+        final HttpServletResponse response;
+        // Start of the write in flight, 0 when idle
+        final AtomicLong sendingSince = new AtomicLong();
+        volatile Future<?> inFlight;
+
+        Subscriber(SseEmitter emitter, HttpServletResponse response) {
+            this.emitter = emitter;
+            this.response = response;
+        }
+
+        /**
+         * Closing the response fails the blocked write at the socket;
+         * the interrupt covers writes parked waiting for the connector.
+         */
+        void abort() {
+            Future<?> write = inFlight;
+            if (write != null) {
+                write.cancel(true);
+            }
+            if (response != null) {
+                try {
+                    response.getOutputStream().close();
+                } catch (IOException | IllegalStateException e) {
+                    logger.debug("Closing stalled live response failed: {}", e.getMessage());
+                }
+            }
+            emitter.complete();
+        }
+    }
+
+    private static final class SiteCounters {
+        final LongAdder events = new LongAdder();
+        volatile double eventsPerSecond;
+
+        // One slot per minute for the conversion window
+        private final long[] slotMinute;
+        private final long[] slotConversions;
+        private final double[] slotRevenue;
+
+        SiteCounters(int windowMinutes) {
+            int slots = Math.max(1, windowMinutes);
+            slotMinute = new long[slots];
+            slotConversions = new long[slots];
+            slotRevenue = new double[slots];
+        }
+
+        synchronized void recordConversion(long now, double revenue) {
+            long minute = now / 60_000L;
+            int slot = (int) (minute % slotMinute.length);
+            if (slotMinute[slot] != minute) {
+                slotMinute[slot] = minute;
+                slotConversions[slot] = 0;
+                slotRevenue[slot] = 0;
+            }
+            slotConversions[slot]++;
+            slotRevenue[slot] += revenue;
+        }
+
+        synchronized long conversions(long now) {
+            long oldest = now / 60_000L - slotMinute.length + 1;
+            long total = 0;
+            for (int i = 0; i < slotMinute.length; i++) {
+                if (slotMinute[i] >= oldest) {
+                    total += slotConversions[i];
+                }
+            }
+            return total;
+        }
+
+        synchronized double revenue(long now) {
+            long oldest = now / 60_000L - slotMinute.length + 1;
+            double total = 0;
+            for (int i = 0; i < slotMinute.length; i++) {
+                if (slotMinute[i] >= oldest) {
+                    total += slotRevenue[i];
+                }
+            }
+            return total;
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package Kafka_Project.realtime;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import Kafka_Project.Redis.RedisService;
+
+/**
+ * Per-site counters in Redis, bucketed by minute and by day, for the
+ * dashboard's "today so far" and last-hour tiles. Listener threads add to a
+ * thread-local batch while they work through a poll and flush it once at
+ * the end, so a poll costs one pipelined round trip however many events it
+ * held. Counters are best effort: a failed flush is logged and dropped.
+ * Events count towards the minute and day they happened in, not the one
+ * they were consumed in, so a consumer catching up on a backlog does not
+ * pile it into the current minute.
+ *
+ * Keys are rt:{tracking_id}:m:{yyyyMMddHHmm} and rt:{tracking_id}:d:{yyyyMMdd},
+ * hashes with events, type:{event_type}, page_views, purchases and revenue.
+ */
+@Service
+public class MinuteCounterService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MinuteCounterService.class);
+    private static final DateTimeFormatter MINUTE = DateTimeFormatter.ofPattern("yyyyMMddHHmm").withZone(ZoneOffset.UTC);
+    private static final DateTimeFormatter DAY = DateTimeFormatter.ofPattern("yyyyMMdd").withZone(ZoneOffset.UTC);
+
+    private static final class Batch {
+        final Map<String, Map<String, Long>> counts = new HashMap<>();
+        final Map<String, Map<String, Double>> amounts = new HashMap<>();
+
+        void count(String key, String field) {
+            counts.computeIfAbsent(key, k -> new HashMap<>()).merge(field, 1L, Long::sum);
+        }
+
+        void add(String key, String field, double amount) {
+            amounts.computeIfAbsent(key, k -> new HashMap<>()).merge(field, amount, Double::sum);
+        }
+
+        boolean isEmpty() {
+            return counts.isEmpty() && amounts.isEmpty();
+        }
+    }
+
+    private final ThreadLocal<Batch> batches = ThreadLocal.withInitial(Batch::new);
+    private final RedisService redisService;
+    private final boolean enabled;
+    private final int expireSeconds;
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder failedFlushes = new LongAdder();
+    private final LongAdder expiredEvents = new LongAdder();
+
+    public MinuteCounterService(RedisService redisService,
+                                @Value("${analytics.counters.enabled:true}") boolean enabled,
+                                @Value("${analytics.counters.ttl-hours:48}") int ttlHours) {
+        this.redisService = redisService;
+        this.enabled = enabled;
+        this.expireSeconds = ttlHours * 3600;
+    }
+
+    /**
+     * eventTime is when the event happened; times ahead of this clock are
+     * counted now, and events older than the counter TTL are dropped rather
+     * than reviving keys that have already expired.
+     */
+    public void record(String trackingId, String eventType, Double revenue, Instant eventTime) {
+        if (!enabled || trackingId == null || trackingId.isEmpty()) {
+            return;
+        }
+        Instant now = Instant.now();
+        Instant at = eventTime == null || eventTime.isAfter(now) ? now : eventTime;
+        if (at.isBefore(now.minusSeconds(expireSeconds))) {
+            expiredEvents.increment();
+            return;
+        }
+        Batch batch = batches.get();
+        for (String key : List.of(minuteKey(trackingId, at), dayKey(trackingId, at))) {
+            batch.count(key, "events");
+            batch.count(key, "type:" + eventType);
+            if ("page_view".equals(eventType)) {
+                batch.count(key, "page_views");
+            } else if ("purchase".equals(eventType)) {
+                batch.count(key, "purchases");
+                if (revenue != null && revenue > 0) {
+                    batch.add(key, "revenue", revenue);
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes this thread's pending counts; called once per poll.
+     */
+    public void flush() {
+        Batch batch = batches.get();
+        if (batch.isEmpty()) {
+            return;
+        }
+        batches.remove();
+        try {
+            redisService.incrementHashes(batch.counts, batch.amounts, expireSeconds);
+            flushes.increment();
+        } catch (Exception e) {
+            failedFlushes.increment();
+            logger.warn("Dropping {} counter keys, Redis flush failed: {}", batch.counts.size(), e.getMessage());
+        }
+    }
+
+    public Map<String, String> today(String trackingId) {
+        return redisService.getHashes(List.of(dayKey(trackingId, Instant.now()))).get(0);
+    }
+
+    /**
+     * The last n minutes, oldest first, including the current minute.
+     */
+    public List<Map<String, Object>> lastMinutes(String trackingId, int minutes) {
+        Instant now = Instant.now();
+        List<String> keys = new ArrayList<>(minutes);
+        List<Instant> starts = new ArrayList<>(minutes);
+        for (int i = minutes - 1; i >= 0; i--) {
+            Instant minute = now.minusSeconds(60L * i);
+            keys.add(minuteKey(trackingId, minute));
+            starts.add(minute.truncatedTo(ChronoUnit.MINUTES));
+        }
+        List<Map<String, String>> hashes = redisService.getHashes(keys);
+        List<Map<String, Object>> series = new ArrayList<>(minutes);
+        for (int i = 0; i < keys.size(); i++) {
+            Map<String, Object> point = new LinkedHashMap<>();
+            point.put("minute", starts.get(i).toString());
+            point.putAll(hashes.get(i));
+            series.add(point);
+        }
+        return series;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Map<String, Object> stats() {
+        return Map.of("enabled", enabled, "flushes", flushes.sum(), "failed_flushes", failedFlushes.sum(),
+            "expired_events", expiredEvents.sum());
+    }
+
+    private static String minuteKey(String trackingId, Instant time) {
+        return "rt:" + trackingId + ":m:" + MINUTE.format(time);
+    }
+
+    private static String dayKey(String trackingId, Instant time) {
+        return "rt:" + trackingId + ":d:" + DAY.format(time);
+    }
+}
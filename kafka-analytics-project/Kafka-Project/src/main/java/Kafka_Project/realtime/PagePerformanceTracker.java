@@ -0,0 +1,124 @@
+package Kafka_Project.realtime;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps one quantile sketch per (tracking_id, page_url, window, metric) so the
+ * dashboard can read p50/p95/p99 load times without scanning page_events.
+ * Every sample is also recorded under the "*" page so site-wide percentiles
+ * are a single lookup as well.
+ */
+@Component
+public class PagePerformanceTracker {
+
+    public static final String ALL_PAGES = "*";
+
+    private static final Logger logger = LoggerFactory.getLogger(PagePerformanceTracker.class);
+
+    private final ConcurrentHashMap<WindowKey, EnumMap<PerformanceMetric, QuantileSketch>> windows =
+        new ConcurrentHashMap<>();
+
+    @Value("${analytics.performance.window-minutes:5}")
+    private int windowMinutes;
+
+    @Value("${analytics.performance.retention-windows:12}")
+    private int retentionWindows;
+
+    @Value("${analytics.performance.relative-accuracy:0.01}")
+    private double relativeAccuracy;
+
+    @Value("${analytics.performance.max-bins:512}")
+    private int maxBins;
+
+    public void record(String trackingId, String pageUrl, LocalDateTime timestamp,
+                       Map<PerformanceMetric, Integer> timings) {
+        if (trackingId == null || trackingId.isEmpty() || timings.isEmpty()) {
+            return;
+        }
+        long windowStart = windowStart(timestamp.toInstant(ZoneOffset.UTC).toEpochMilli());
+        recordInto(new WindowKey(trackingId, PageUrls.normalize(pageUrl), windowStart), timings);
+        recordInto(new WindowKey(trackingId, ALL_PAGES, windowStart), timings);
+    }
+
+    /**
+     * Merges the sketches of the most recent {@code windowCount} windows and
+     * returns p50/p95/p99 plus the sample count for every metric with data.
+     */
+    public Map<String, Map<String, Object>> percentiles(String trackingId, String pageUrl, int windowCount) {
+        String page = pageUrl == null || pageUrl.isEmpty() ? ALL_PAGES : PageUrls.normalize(pageUrl);
+        long current = windowStart(System.currentTimeMillis());
+        long windowMs = windowMinutes * 60_000L;
+        int count = Math.max(1, Math.min(windowCount, retentionWindows));
+
+        EnumMap<PerformanceMetric, QuantileSketch> merged = new EnumMap<>(PerformanceMetric.class);
+        for (int i = 0; i < count; i++) {
+            EnumMap<PerformanceMetric, QuantileSketch> sketches =
+                windows.get(new WindowKey(trackingId, page, current - i * windowMs));
+            if (sketches == null) {
+                continue;
+            }
+            synchronized (sketches) {
+                sketches.forEach((metric, sketch) ->
+                    merged.computeIfAbsent(metric, m -> newSketch()).merge(sketch));
+            }
+        }
+
+        Map<String, Map<String, Object>> result = new LinkedHashMap<>();
+        merged.forEach((metric, sketch) -> {
+            Map<String, Object> values = new LinkedHashMap<>();
+            values.put("p50", Math.round(sketch.quantile(0.50)));
+            values.put("p95", Math.round(sketch.quantile(0.95)));
+            values.put("p99", Math.round(sketch.quantile(0.99)));
+            values.put("count", sketch.getCount());
+            result.put(metric.getColumn(), values);
+        });
+        return result;
+    }
+
+    @Scheduled(fixedDelayString = "${analytics.performance.eviction-interval-ms:60000}")
+    public void evictExpiredWindows() {
+        long cutoff = windowStart(System.currentTimeMillis()) - retentionWindows * windowMinutes * 60_000L;
+        int before = windows.size();
+        windows.keySet().removeIf(key -> key.windowStart() <= cutoff);
+        int evicted = before - windows.size();
+        if (evicted > 0) {
+            logger.debug("Evicted {} expired performance windows", evicted);
+        }
+    }
+
+    private void recordInto(WindowKey key, Map<PerformanceMetric, Integer> timings) {
+        EnumMap<PerformanceMetric, QuantileSketch> sketches =
+            windows.computeIfAbsent(key, k -> new EnumMap<>(PerformanceMetric.class));
+        synchronized (sketches) {
+            timings.forEach((metric, value) ->
+                sketches.computeIfAbsent(metric, m -> newSketch()).add(value));
+        }
+    }
+
+    private QuantileSketch newSketch() {
+        return new QuantileSketch(relativeAccuracy, maxBins);
+    }
+
+    private long windowStart(long epochMs) {
+        long windowMs = windowMinutes * 60_000L;
+        return epochMs - Math.floorMod(epochMs, windowMs);
+    }
+
+    public Instant currentWindowStart() {
+        return Instant.ofEpochMilli(windowStart(System.currentTimeMillis()));
+    }
+
+    private record WindowKey(String trackingId, String pageUrl, long windowStart) {}
+}
@@ -0,0 +1,24 @@
+package Kafka_Project.realtime;
+
+public final class PageUrls {
+
+    private PageUrls() {
+    }
+
+    // Query strings and fragments would give every campaign link its own key
+    public static String normalize(String pageUrl) {
+        if (pageUrl == null) {
+            return "";
+        }
+        int cut = pageUrl.length();
+        int query = pageUrl.indexOf('?');
+        int fragment = pageUrl.indexOf('#');
+        if (query >= 0) {
+            cut = query;
+        }
+        if (fragment >= 0 && fragment < cut) {
+            cut = fragment;
+        }
+        return pageUrl.substring(0, cut);
+    }
+}
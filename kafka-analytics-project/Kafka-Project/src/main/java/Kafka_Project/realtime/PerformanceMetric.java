@@ -0,0 +1,19 @@
+package Kafka_Project.realtime;
+
+public enum PerformanceMetric {
+    DNS_TIME("dns_time"),
+    CONNECT_TIME("connect_time"),
+    RESPONSE_TIME("response_time"),
+    DOM_LOAD_TIME("dom_load_time"),
+    PAGE_LOAD_TIME("page_load_time");
+
+    private final String column;
+
+    PerformanceMetric(String column) {
+        this.column = column;
+    }
+
+    public String getColumn() {
+        return column;
+    }
+}
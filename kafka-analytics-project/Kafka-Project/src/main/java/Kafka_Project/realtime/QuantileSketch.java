@@ -0,0 +1,139 @@
+package Kafka_Project.realtime;
+
+import java.util.Arrays;
+
+/**
+ * DDSketch-style quantile sketch for non-negative values (timings in ms).
+ * Values are mapped to logarithmic buckets so every quantile is returned
+ * within the configured relative accuracy. The bucket store is dense between
+ * the lowest and highest index seen and is capped at maxBins by collapsing
+ * the lowest buckets, so memory stays constant no matter how many values are
+ * added. Two sketches built with the same accuracy can be merged.
+ */
+public class QuantileSketch {
+
+    private final double relativeAccuracy;
+    private final double gamma;
+    private final double logGamma;
+    private final int maxBins;
+
+    private int[] counts = new int[0];
+    private int minIndex;
+    private long zeroCount;
+    private long count;
+
+    public QuantileSketch(double relativeAccuracy, int maxBins) {
+        if (relativeAccuracy <= 0 || relativeAccuracy >= 1) {
+            throw new IllegalArgumentException("relativeAccuracy must be in (0, 1)");
+        }
+        if (maxBins < 1) {
+            throw new IllegalArgumentException("maxBins must be positive");
+        }
+        this.relativeAccuracy = relativeAccuracy;
+        this.gamma = (1 + relativeAccuracy) / (1 - relativeAccuracy);
+        this.logGamma = Math.log(gamma);
+        this.maxBins = maxBins;
+    }
+
+    public synchronized void add(double value) {
+        if (value < 0 || Double.isNaN(value)) {
+            return;
+        }
+        count++;
+        if (value < 1) {
+            zeroCount++;
+            return;
+        }
+        int index = (int) Math.ceil(Math.log(value) / logGamma);
+        increment(index, 1);
+    }
+
+    public synchronized void merge(QuantileSketch other) {
+        if (other.relativeAccuracy != relativeAccuracy) {
+            throw new IllegalArgumentException("Cannot merge sketches with different accuracy");
+        }
+        int[] otherCounts;
+        int otherMin;
+        synchronized (other) {
+            otherCounts = other.counts.clone();
+            otherMin = other.minIndex;
+            zeroCount += other.zeroCount;
+            count += other.count;
+        }
+        for (int i = 0; i < otherCounts.length; i++) {
+            if (otherCounts[i] > 0) {
+                increment(otherMin + i, otherCounts[i]);
+            }
+        }
+    }
+
+    /**
+     * Returns the value at quantile q (0..1), or NaN when the sketch is empty.
+     */
+    public synchronized double quantile(double q) {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        long rank = (long) Math.floor(Math.max(0, Math.min(1, q)) * (count - 1));
+        if (rank < zeroCount) {
+            return 0;
+        }
+        long seen = zeroCount;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen > rank) {
+                return 2 * Math.pow(gamma, minIndex + i) / (gamma + 1);
+            }
+        }
+        return 2 * Math.pow(gamma, minIndex + counts.length - 1) / (gamma + 1);
+    }
+
+    public synchronized long getCount() {
+        return count;
+    }
+
+    public double getRelativeAccuracy() {
+        return relativeAccuracy;
+    }
+
+    private void increment(int index, int by) {
+        if (counts.length == 0) {
+            counts = new int[1];
+            minIndex = index;
+        } else if (index < minIndex) {
+            int grow = minIndex - index;
+            if (counts.length + grow > maxBins) {
+                // Below the retained range: fold into the lowest bucket
+                index = minIndex;
+            } else {
+                int[] grown = new int[counts.length + grow];
+                System.arraycopy(counts, 0, grown, grow, counts.length);
+                counts = grown;
+                minIndex = index;
+            }
+        } else if (index >= minIndex + counts.length) {
+            int newLength = index - minIndex + 1;
+            if (newLength > maxBins) {
+                collapseLowest(newLength - maxBins);
+                newLength = maxBins;
+            }
+            counts = Arrays.copyOf(counts, newLength);
+        }
+        counts[index - minIndex] += by;
+    }
+
+    private void collapseLowest(int shift) {
+        int keep = Math.max(1, counts.length - shift);
+        int folded = 0;
+        for (int i = 0; i <= Math.min(shift, counts.length - 1); i++) {
+            folded += counts[i];
+        }
+        int[] shifted = new int[keep];
+        if (shift < counts.length) {
+            System.arraycopy(counts, shift, shifted, 0, keep);
+        }
+        shifted[0] = folded;
+        counts = shifted;
+        minIndex += shift;
+    }
+}
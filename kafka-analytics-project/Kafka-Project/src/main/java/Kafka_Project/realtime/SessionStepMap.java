@@ -0,0 +1,76 @@
+package Kafka_Project.realtime;
+
+/**
+ * Open-addressing map from a 64-bit session hash to the furthest funnel step
+ * reached (1-based, 0 = none). About 9 bytes per session plus slack, versus
+ * well over 100 for a HashMap&lt;String, Byte&gt; entry.
+ */
+class SessionStepMap {
+
+    private static final long EMPTY = 0L;
+
+    private long[] keys;
+    private byte[] values;
+    private int size;
+
+    SessionStepMap(int initialCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(16, initialCapacity) * 2 - 1);
+        keys = new long[capacity];
+        values = new byte[capacity];
+    }
+
+    int get(long key) {
+        key = normalize(key);
+        int mask = keys.length - 1;
+        for (int i = (int) (key & mask); ; i = (i + 1) & mask) {
+            if (keys[i] == EMPTY) {
+                return 0;
+            }
+            if (keys[i] == key) {
+                return values[i];
+            }
+        }
+    }
+
+    void put(long key, int value) {
+        key = normalize(key);
+        if ((size + 1) * 10 > keys.length * 7) {
+            resize();
+        }
+        int mask = keys.length - 1;
+        for (int i = (int) (key & mask); ; i = (i + 1) & mask) {
+            if (keys[i] == EMPTY) {
+                keys[i] = key;
+                values[i] = (byte) value;
+                size++;
+                return;
+            }
+            if (keys[i] == key) {
+                values[i] = (byte) value;
+                return;
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        byte[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new byte[oldValues.length * 2];
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    // 0 marks an empty slot, so remap the (astronomically unlikely) zero hash
+    private static long normalize(long key) {
+        return key == EMPTY ? 1L : key;
+    }
+}
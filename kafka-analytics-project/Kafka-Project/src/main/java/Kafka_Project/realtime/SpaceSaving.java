@@ -0,0 +1,132 @@
+package Kafka_Project.realtime;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Space-Saving heavy-hitters summary with a fixed number of counters.
+ * Counters live in an indexed min-heap so an increment is O(log capacity)
+ * and an unseen item replaces the current minimum, inheriting its count
+ * as the error bound. Any item whose true frequency exceeds N / capacity
+ * is guaranteed to be tracked.
+ */
+public class SpaceSaving {
+
+    public record Entry(String item, long count, long error) {}
+
+    private static final class Counter {
+        final String item;
+        long count;
+        long error;
+        int heapIndex;
+
+        Counter(String item, long count, long error) {
+            this.item = item;
+            this.count = count;
+            this.error = error;
+        }
+    }
+
+    private final int capacity;
+    private final Counter[] heap;
+    private final Map<String, Counter> index;
+    private int size;
+    private long total;
+
+    public SpaceSaving(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.heap = new Counter[capacity];
+        this.index = new HashMap<>(capacity * 2);
+    }
+
+    public synchronized void offer(String item) {
+        offer(item, 1);
+    }
+
+    public synchronized void offer(String item, long increment) {
+        if (item == null || item.isEmpty() || increment <= 0) {
+            return;
+        }
+        total += increment;
+        Counter counter = index.get(item);
+        if (counter != null) {
+            counter.count += increment;
+            siftDown(counter.heapIndex);
+            return;
+        }
+        if (size < capacity) {
+            counter = new Counter(item, increment, 0);
+            counter.heapIndex = size;
+            heap[size++] = counter;
+            index.put(item, counter);
+            siftUp(counter.heapIndex);
+            return;
+        }
+        Counter min = heap[0];
+        index.remove(min.item);
+        Counter replacement = new Counter(item, min.count + increment, min.count);
+        replacement.heapIndex = 0;
+        heap[0] = replacement;
+        index.put(item, replacement);
+        siftDown(0);
+    }
+
+    public synchronized List<Entry> top(int k) {
+        Counter[] copy = Arrays.copyOf(heap, size);
+        Arrays.sort(copy, Comparator.comparingLong((Counter c) -> c.count).reversed());
+        List<Entry> result = new ArrayList<>(Math.min(k, size));
+        for (int i = 0; i < Math.min(k, size); i++) {
+            result.add(new Entry(copy[i].item, copy[i].count, copy[i].error));
+        }
+        return result;
+    }
+
+    public synchronized long getTotal() {
+        return total;
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (heap[parent].count <= heap[i].count) {
+                return;
+            }
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int left = 2 * i + 1;
+            int right = left + 1;
+            int smallest = i;
+            if (left < size && heap[left].count < heap[smallest].count) {
+                smallest = left;
+            }
+            if (right < size && heap[right].count < heap[smallest].count) {
+                smallest = right;
+            }
+            if (smallest == i) {
+                return;
+            }
+            swap(i, smallest);
+            i = smallest;
+        }
+    }
+
+    private void swap(int a, int b) {
+        Counter tmp = heap[a];
+        heap[a] = heap[b];
+        heap[b] = tmp;
+        heap[a].heapIndex = a;
+        heap[b].heapIndex = b;
+    }
+}
@@ -0,0 +1,262 @@
+package Kafka_Project.scaling;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.admin.ConsumerGroupDescription;
+import org.apache.kafka.clients.admin.MemberDescription;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.admin.TopicDescription;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Periodically reads committed and end offsets for the consumer group with
+ * the admin client and keeps per-partition lag plus a per-lane trend
+ * (produce/consume rates, lag slope, time to catch up). Lanes are the
+ * listener containers registered as "<lane>-lane"; the group-wide view
+ * covers every instance, not just this one.
+ */
+@Service
+public class ConsumerLagMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConsumerLagMonitor.class);
+    private static final String LANE_SUFFIX = "-lane";
+
+    public record LaneState(String lane, List<String> topics, int partitions, long lag,
+                            double produceRate, double consumeRate, double lagSlope, double etaSeconds,
+                            int consumers, int localConcurrency) {}
+
+    private final KafkaListenerEndpointRegistry registry;
+    private final MeterRegistry meterRegistry;
+    private final String bootstrapServers;
+    private final String groupId;
+    private final int windowSamples;
+    private final long timeoutMs;
+
+    private final ConcurrentHashMap<String, LagTrend> laneTrends = new ConcurrentHashMap<>();
+    private final Set<String> gaugedLanes = ConcurrentHashMap.newKeySet();
+    private AdminClient admin;
+    private volatile Map<String, LaneState> lanes = Map.of();
+    private volatile Map<String, Map<Integer, Long>> partitionLag = Map.of();
+    private volatile int instances;
+    private volatile long lastRefreshMillis;
+    private volatile String lastError;
+
+    public ConsumerLagMonitor(KafkaListenerEndpointRegistry registry,
+                              MeterRegistry meterRegistry,
+                              @Value("${spring.kafka.bootstrap-servers}") String bootstrapServers,
+                              @Value("${analytics.scaling.group-id:analytics-consumers}") String groupId,
+                              @Value("${analytics.scaling.window-samples:8}") int windowSamples,
+                              @Value("${analytics.scaling.admin-timeout-ms:5000}") long timeoutMs) {
+        this.registry = registry;
+        this.meterRegistry = meterRegistry;
+        this.bootstrapServers = bootstrapServers;
+        this.groupId = groupId;
+        this.windowSamples = windowSamples;
+        this.timeoutMs = timeoutMs;
+    }
+
+    @Scheduled(fixedDelayString = "${analytics.scaling.poll-ms:15000}",
+               initialDelayString = "${analytics.scaling.initial-delay-ms:30000}")
+    public void refresh() {
+        try {
+            AdminClient client = admin();
+            Map<String, List<String>> laneTopics = laneTopics();
+            Set<String> existing = client.listTopics().names().get(timeoutMs, TimeUnit.MILLISECONDS);
+            Set<String> topics = new HashSet<>();
+            laneTopics.values().forEach(list -> list.stream().filter(existing::contains).forEach(topics::add));
+            if (topics.isEmpty()) {
+                return;
+            }
+
+            Map<String, TopicDescription> described =
+                client.describeTopics(topics).allTopicNames().get(timeoutMs, TimeUnit.MILLISECONDS);
+            Map<TopicPartition, OffsetSpec> latest = new HashMap<>();
+            described.forEach((topic, description) -> description.partitions()
+                .forEach(p -> latest.put(new TopicPartition(topic, p.partition()), OffsetSpec.latest())));
+            Map<TopicPartition, Long> endOffsets = new HashMap<>();
+            client.listOffsets(latest).all().get(timeoutMs, TimeUnit.MILLISECONDS)
+                .forEach((tp, info) -> endOffsets.put(tp, info.offset()));
+            Map<TopicPartition, OffsetAndMetadata> committed = client.listConsumerGroupOffsets(groupId)
+                .partitionsToOffsetAndMetadata().get(timeoutMs, TimeUnit.MILLISECONDS);
+            // Log-start offsets: where an uncommitted partition really starts after retention,
+            // and where a commit that retention has overtaken will be reset to
+            Map<TopicPartition, OffsetSpec> earliest = new HashMap<>();
+            latest.keySet().forEach(tp -> earliest.put(tp, OffsetSpec.earliest()));
+            Map<TopicPartition, Long> startOffsets = new HashMap<>();
+            client.listOffsets(earliest).all().get(timeoutMs, TimeUnit.MILLISECONDS)
+                .forEach((tp, info) -> startOffsets.put(tp, info.offset()));
+            ConsumerGroupDescription group = client.describeConsumerGroups(List.of(groupId))
+                .all().get(timeoutMs, TimeUnit.MILLISECONDS).get(groupId);
+
+            long now = System.currentTimeMillis();
+            Map<String, Map<Integer, Long>> lagByTopic = new TreeMap<>();
+            Map<String, long[]> offsetsByTopic = new HashMap<>();
+            endOffsets.forEach((tp, end) -> {
+                OffsetAndMetadata commit = committed.get(tp);
+                long start = startOffsets.getOrDefault(tp, 0L);
+                // No commit yet: the group starts from the earliest retained offset (auto.offset.reset=earliest)
+                long position = commit == null ? start : Math.max(start, commit.offset());
+                lagByTopic.computeIfAbsent(tp.topic(), t -> new TreeMap<>()).put(tp.partition(), Math.max(0, end - position));
+                long[] sums = offsetsByTopic.computeIfAbsent(tp.topic(), t -> new long[2]);
+                sums[0] += end;
+                sums[1] += position;
+            });
+
+            Set<String> hosts = new HashSet<>();
+            Map<String, LaneState> states = new LinkedHashMap<>();
+            for (Map.Entry<String, List<String>> entry : laneTopics.entrySet()) {
+                String lane = entry.getKey();
+                List<String> laneTopicList = entry.getValue().stream().filter(topics::contains).toList();
+                long end = 0;
+                long position = 0;
+                int partitions = 0;
+                for (String topic : laneTopicList) {
+                    long[] sums = offsetsByTopic.getOrDefault(topic, new long[2]);
+                    end += sums[0];
+                    position += sums[1];
+                    partitions += described.get(topic).partitions().size();
+                }
+                LagTrend trend = laneTrends.computeIfAbsent(lane, l -> new LagTrend(windowSamples));
+                trend.add(now, end, position);
+
+                int consumers = 0;
+                if (group != null) {
+                    for (MemberDescription member : group.members()) {
+                        boolean assigned = member.assignment().topicPartitions().stream()
+                            .anyMatch(tp -> laneTopicList.contains(tp.topic()));
+                        if (assigned) {
+                            consumers++;
+                            hosts.add(member.host());
+                        }
+                    }
+                }
+                states.put(lane, new LaneState(lane, laneTopicList, partitions, trend.lag(),
+                    trend.produceRate(), trend.consumeRate(), trend.lagSlope(), trend.etaSeconds(),
+                    consumers, localConcurrency(lane)));
+                registerGauges(lane);
+            }
+
+            lanes = states;
+            partitionLag = lagByTopic;
+            instances = hosts.size();
+            lastRefreshMillis = now;
+            lastError = null;
+        } catch (Exception e) {
+            lastError = e.getClass().getSimpleName() + ": " + e.getMessage();
+            logger.warn("Consumer lag refresh failed: {}", lastError);
+        }
+    }
+
+    public Map<String, LaneState> lanes() {
+        return lanes;
+    }
+
+    /**
+     * Distinct hosts with partitions assigned in the group.
+     */
+    public int instances() {
+        return instances;
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("group_id", groupId);
+        snapshot.put("refreshed_at", lastRefreshMillis);
+        snapshot.put("instances", instances);
+        snapshot.put("error", lastError);
+        snapshot.put("lanes", lanes);
+        Map<String, Long> topicLag = new TreeMap<>();
+        partitionLag.forEach((topic, partitions) ->
+            topicLag.put(topic, partitions.values().stream().mapToLong(Long::longValue).sum()));
+        snapshot.put("topics", topicLag);
+        snapshot.put("partitions", partitionLag);
+        return snapshot;
+    }
+
+    public MessageListenerContainer container(String lane) {
+        return registry.getListenerContainer(lane + LANE_SUFFIX);
+    }
+
+    private Map<String, List<String>> laneTopics() {
+        Map<String, List<String>> result = new TreeMap<>();
+        for (MessageListenerContainer container : registry.getListenerContainers()) {
+            String id = container.getListenerId();
+            String[] topics = container.getContainerProperties().getTopics();
+            if (id != null && id.endsWith(LANE_SUFFIX) && topics != null) {
+                result.put(id.substring(0, id.length() - LANE_SUFFIX.length()), new ArrayList<>(List.of(topics)));
+            }
+        }
+        return result;
+    }
+
+    private int localConcurrency(String lane) {
+        MessageListenerContainer container = container(lane);
+        if (container instanceof ConcurrentMessageListenerContainer<?, ?> concurrent) {
+            return container.isRunning() ? concurrent.getConcurrency() : 0;
+        }
+        return container != null && container.isRunning() ? 1 : 0;
+    }
+
+    private void registerGauges(String lane) {
+        if (!gaugedLanes.add(lane)) {
+            return;
+        }
+        gauge("analytics.consumer.lag", lane, LaneState::lag);
+        gauge("analytics.consumer.lag.slope", lane, LaneState::lagSlope);
+        gauge("analytics.consumer.lag.eta.seconds", lane, LaneState::etaSeconds);
+        gauge("analytics.consumer.produce.rate", lane, LaneState::produceRate);
+        gauge("analytics.consumer.consume.rate", lane, LaneState::consumeRate);
+    }
+
+    private void gauge(String name, String lane, ToDoubleFunction<LaneState> value) {
+        Gauge.builder(name, this, monitor -> {
+                LaneState state = monitor.lanes.get(lane);
+                return state == null ? Double.NaN : value.applyAsDouble(state);
+            })
+            .tag("lane", lane)
+            .tag("group", groupId)
+            .register(meterRegistry);
+    }
+
+    private synchronized AdminClient admin() {
+        if (admin == null) {
+            admin = AdminClient.create(Map.of(
+                AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers,
+                AdminClientConfig.REQUEST_TIMEOUT_MS_CONFIG, (int) timeoutMs,
+                AdminClientConfig.DEFAULT_API_TIMEOUT_MS_CONFIG, (int) timeoutMs));
+        }
+        return admin;
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        if (admin != null) {
+            admin.close();
+        }
+    }
+}
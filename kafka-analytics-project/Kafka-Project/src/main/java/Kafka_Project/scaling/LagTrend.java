@@ -0,0 +1,80 @@
+package Kafka_Project.scaling;
+
+import java.util.ArrayDeque;
+import java.util.function.ToLongFunction;
+
+/**
+ * Sliding window of (time, end offset sum, committed offset sum) samples for
+ * one topic or lane. Rates are taken between the oldest and newest sample,
+ * which smooths over single slow polls.
+ */
+public class LagTrend {
+
+    private record Sample(long timeMillis, long endOffsets, long committedOffsets) {}
+
+    private final ArrayDeque<Sample> samples = new ArrayDeque<>();
+    private final int maxSamples;
+
+    public LagTrend(int maxSamples) {
+        this.maxSamples = Math.max(2, maxSamples);
+    }
+
+    public synchronized void add(long timeMillis, long endOffsets, long committedOffsets) {
+        samples.addLast(new Sample(timeMillis, endOffsets, committedOffsets));
+        while (samples.size() > maxSamples) {
+            samples.removeFirst();
+        }
+    }
+
+    public synchronized long lag() {
+        Sample last = samples.peekLast();
+        return last == null ? 0 : Math.max(0, last.endOffsets() - last.committedOffsets());
+    }
+
+    /**
+     * Records produced per second.
+     */
+    public synchronized double produceRate() {
+        return rate(Sample::endOffsets);
+    }
+
+    /**
+     * Records committed per second.
+     */
+    public synchronized double consumeRate() {
+        return rate(Sample::committedOffsets);
+    }
+
+    /**
+     * Change in lag per second; negative while catching up.
+     */
+    public synchronized double lagSlope() {
+        return produceRate() - consumeRate();
+    }
+
+    /**
+     * Seconds until lag reaches zero at the current rates, 0 when there is
+     * no lag, or -1 when lag is not shrinking.
+     */
+    public synchronized double etaSeconds() {
+        long lag = lag();
+        if (lag == 0) {
+            return 0;
+        }
+        double slope = lagSlope();
+        return slope < 0 ? lag / -slope : -1;
+    }
+
+    private double rate(ToLongFunction<Sample> offsets) {
+        if (samples.size() < 2) {
+            return 0;
+        }
+        Sample first = samples.peekFirst();
+        Sample last = samples.peekLast();
+        long elapsed = last.timeMillis() - first.timeMillis();
+        if (elapsed <= 0) {
+            return 0;
+        }
+        return Math.max(0, offsets.applyAsLong(last) - offsets.applyAsLong(first)) * 1000.0 / elapsed;
+    }
+}
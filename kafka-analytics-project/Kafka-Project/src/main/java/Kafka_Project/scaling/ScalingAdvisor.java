@@ -0,0 +1,151 @@
+package Kafka_Project.scaling;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import Kafka_Project.realtime.LaneMetrics;
+import Kafka_Project.scaling.ConsumerLagMonitor.LaneState;
+
+/**
+ * Turns lag trends into scaling advice. A lane needs enough consumers to
+ * keep up with the produce rate and drain the current lag within
+ * catch-up-seconds, where one consumer's capacity is what this instance's
+ * listener threads process per busy second. Consumers beyond the partition
+ * count would sit idle, so that is the ceiling.
+ *
+ * With auto-adjust on, this instance's lane containers are restarted with
+ * the recommended per-instance concurrency, within the configured bounds
+ * and at most once per cooldown per lane.
+ */
+@Service
+public class ScalingAdvisor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScalingAdvisor.class);
+
+    private final ConsumerLagMonitor lagMonitor;
+    private final LaneMetrics laneMetrics;
+    private final double catchUpSeconds;
+    private final double headroom;
+    private final int minConcurrency;
+    private final int maxConcurrency;
+    private final boolean autoAdjust;
+    private final long cooldownMillis;
+    private final ConcurrentHashMap<String, Long> lastAdjusted = new ConcurrentHashMap<>();
+
+    public ScalingAdvisor(ConsumerLagMonitor lagMonitor,
+                          LaneMetrics laneMetrics,
+                          @Value("${analytics.scaling.catch-up-seconds:300}") double catchUpSeconds,
+                          @Value("${analytics.scaling.headroom:1.25}") double headroom,
+                          @Value("${analytics.scaling.min-concurrency:1}") int minConcurrency,
+                          @Value("${analytics.scaling.max-concurrency:8}") int maxConcurrency,
+                          @Value("${analytics.scaling.auto-adjust:false}") boolean autoAdjust,
+                          @Value("${analytics.scaling.adjust-cooldown-ms:300000}") long cooldownMillis) {
+        this.lagMonitor = lagMonitor;
+        this.laneMetrics = laneMetrics;
+        this.catchUpSeconds = catchUpSeconds;
+        this.headroom = headroom;
+        this.minConcurrency = minConcurrency;
+        this.maxConcurrency = maxConcurrency;
+        this.autoAdjust = autoAdjust;
+        this.cooldownMillis = cooldownMillis;
+    }
+
+    /**
+     * Consumers needed across the group, or the current count when capacity
+     * has not been measured yet.
+     */
+    public static int consumersNeeded(double produceRate, long lag, double capacityPerConsumer,
+                                      int currentConsumers, int partitions, double catchUpSeconds,
+                                      double headroom) {
+        int ceiling = Math.max(1, partitions);
+        if (capacityPerConsumer <= 0) {
+            return Math.min(ceiling, Math.max(1, currentConsumers));
+        }
+        double requiredRate = (produceRate + lag / Math.max(1.0, catchUpSeconds)) * headroom;
+        int needed = (int) Math.ceil(requiredRate / capacityPerConsumer);
+        return Math.min(ceiling, Math.max(1, needed));
+    }
+
+    public Map<String, Object> recommend() {
+        int instances = Math.max(1, lagMonitor.instances());
+        int recommendedInstances = 1;
+        Map<String, Object> lanes = new LinkedHashMap<>();
+        for (LaneState state : lagMonitor.lanes().values()) {
+            double capacity = laneMetrics.recordsPerBusySecond(state.lane());
+            int needed = consumersNeeded(state.produceRate(), state.lag(), capacity,
+                state.consumers(), state.partitions(), catchUpSeconds, headroom);
+            recommendedInstances = Math.max(recommendedInstances, (int) Math.ceil((double) needed / maxConcurrency));
+
+            Map<String, Object> lane = new LinkedHashMap<>();
+            lane.put("lag", state.lag());
+            lane.put("lag_slope_per_sec", state.lagSlope());
+            lane.put("eta_seconds", state.etaSeconds());
+            lane.put("produce_rate", state.produceRate());
+            lane.put("consume_rate", state.consumeRate());
+            lane.put("capacity_per_consumer", capacity);
+            lane.put("partitions", state.partitions());
+            lane.put("consumers", state.consumers());
+            lane.put("recommended_consumers", needed);
+            lane.put("local_concurrency", state.localConcurrency());
+            lane.put("recommended_concurrency", concurrencyFor(needed, instances));
+            lanes.put(state.lane(), lane);
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("instances", instances);
+        result.put("recommended_instances", recommendedInstances);
+        result.put("catch_up_seconds", catchUpSeconds);
+        result.put("auto_adjust", autoAdjust);
+        result.put("lanes", lanes);
+        return result;
+    }
+
+    @Scheduled(fixedDelayString = "${analytics.scaling.adjust-ms:60000}",
+               initialDelayString = "${analytics.scaling.initial-delay-ms:30000}")
+    public void adjust() {
+        if (!autoAdjust) {
+            return;
+        }
+        int instances = Math.max(1, lagMonitor.instances());
+        long now = System.currentTimeMillis();
+        for (LaneState state : lagMonitor.lanes().values()) {
+            double capacity = laneMetrics.recordsPerBusySecond(state.lane());
+            if (capacity <= 0) {
+                continue;
+            }
+            int target = concurrencyFor(consumersNeeded(state.produceRate(), state.lag(), capacity,
+                state.consumers(), state.partitions(), catchUpSeconds, headroom), instances);
+            MessageListenerContainer container = lagMonitor.container(state.lane());
+            if (!(container instanceof ConcurrentMessageListenerContainer<?, ?> concurrent)
+                    || !container.isRunning() || concurrent.getConcurrency() == target) {
+                continue;
+            }
+            Long last = lastAdjusted.get(state.lane());
+            if (last != null && now - last < cooldownMillis) {
+                continue;
+            }
+            lastAdjusted.put(state.lane(), now);
+            int previous = concurrent.getConcurrency();
+            logger.info("Adjusting {} lane concurrency {} -> {} (lag {}, eta {} s)",
+                state.lane(), previous, target, state.lag(), Math.round(state.etaSeconds()));
+            // Concurrency only applies on start; the restart triggers one rebalance
+            concurrent.stop(() -> {
+                concurrent.setConcurrency(target);
+                concurrent.start();
+            });
+        }
+    }
+
+    private int concurrencyFor(int consumersNeeded, int instances) {
+        int perInstance = (int) Math.ceil((double) consumersNeeded / instances);
+        return Math.max(minConcurrency, Math.min(maxConcurrency, perInstance));
+    }
+}
@@ -0,0 +1,105 @@
+package Kafka_Project.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import Kafka_Project.util.Hashing;
+import Kafka_Project.util.RotatingBloomFilter;
+
+/**
+ * Drops events redelivered by tracker retries and sendBeacon fallbacks.
+ * Events are identified by the client-generated event_id, or by a hash of
+ * the event payload for older tracker builds. Producers key records by
+ * session, so every copy of an event lands on the same partition and a
+ * filter per partition is enough.
+ *
+ * Stats report the worst partition's fill and estimated false-positive
+ * rate next to the duplicate count, so a filter sized too small for its
+ * partition's traffic shows up instead of silently dropping real events.
+ */
+@Component
+public class EventDeduplicator {
+
+    private final ConcurrentHashMap<String, RotatingBloomFilter> filters = new ConcurrentHashMap<>();
+    private final LongAdder duplicates = new LongAdder();
+    private final boolean enabled;
+    private final int expectedPerInterval;
+    private final double falsePositiveRate;
+    private final long intervalMillis;
+
+    public EventDeduplicator(@Value("${analytics.dedup.enabled:true}") boolean enabled,
+                             @Value("${analytics.dedup.expected-per-partition:50000}") int expectedPerInterval,
+                             @Value("${analytics.dedup.false-positive-rate:0.001}") double falsePositiveRate,
+                             @Value("${analytics.dedup.window-minutes:10}") int windowMinutes) {
+        this.enabled = enabled;
+        this.expectedPerInterval = expectedPerInterval;
+        this.falsePositiveRate = falsePositiveRate;
+        // Two generations of half the window each
+        this.intervalMillis = windowMinutes * 60_000L / 2;
+    }
+
+    /**
+     * Checks a record by the event id from its headers, before the payload
+     * is parsed.
+     */
+    public boolean isDuplicate(ConsumerRecord<?, ?> record, String eventId) {
+        return enabled && isDuplicate(record, Hashing.hash64(eventId));
+    }
+
+    public boolean isDuplicate(ConsumerRecord<?, ?> record, JsonNode envelope, JsonNode data) {
+        if (!enabled) {
+            return false;
+        }
+        String eventId = envelope.path("event_id").asText(null);
+        if (eventId == null || eventId.isEmpty()) {
+            eventId = data.path("event_id").asText(null);
+        }
+        long hash = eventId != null && !eventId.isEmpty()
+            ? Hashing.hash64(eventId)
+            : Hashing.hash64(data.toString());
+        return isDuplicate(record, hash);
+    }
+
+    private boolean isDuplicate(ConsumerRecord<?, ?> record, long hash) {
+        RotatingBloomFilter filter = filters.computeIfAbsent(record.topic() + "-" + record.partition(),
+            key -> new RotatingBloomFilter(expectedPerInterval, falsePositiveRate, intervalMillis));
+        if (filter.putIfAbsent(hash, System.currentTimeMillis())) {
+            return false;
+        }
+        duplicates.increment();
+        return true;
+    }
+
+    public long getDuplicateCount() {
+        return duplicates.sum();
+    }
+
+    public Map<String, Object> stats() {
+        double maxFill = 0;
+        double maxFalsePositiveRate = 0;
+        long earlyRotations = 0;
+        for (RotatingBloomFilter filter : filters.values()) {
+            maxFill = Math.max(maxFill, filter.fillRatio());
+            maxFalsePositiveRate = Math.max(maxFalsePositiveRate, filter.estimatedFalsePositiveRate());
+            earlyRotations += filter.earlyRotations();
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("duplicates", duplicates.sum());
+        stats.put("partitions", filters.size());
+        stats.put("max_fill_ratio", maxFill);
+        stats.put("max_estimated_false_positive_rate", maxFalsePositiveRate);
+        stats.put("target_false_positive_rate", falsePositiveRate);
+        // Generations filled before the window elapsed: retention was shorter than window-minutes
+        stats.put("early_rotations", earlyRotations);
+        return stats;
+    }
+}
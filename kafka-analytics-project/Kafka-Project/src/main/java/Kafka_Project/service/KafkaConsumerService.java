@@ -29,7 +29,7 @@
 //     }
 
 //     @KafkaListener(
-//         topics = {"page_load", "page_view", "page_unload", "page_hidden", "page_visible"}, 
+//         topics = "#{@topicRouting.topicsFor('page')}",
 //         groupId = "analytics-consumers",
 //         containerFactory = "kafkaListenerContainerFactory"
 //     )
@@ -72,7 +72,7 @@
 //     }
 
 //     @KafkaListener(
-//         topics = {"mouse_click", "button_click", "link_click", "file_download"}, 
+//         topics = "#{@topicRouting.topicsFor('interaction')}",
 //         groupId = "analytics-consumers",
 //         containerFactory = "kafkaListenerContainerFactory"
 //     )
@@ -111,7 +111,7 @@
 //     }
 
 //     @KafkaListener(
-//         topics = {"form_submit", "form_focus", "form_input"}, 
+//         topics = "#{@topicRouting.topicsFor('form')}",
 //         groupId = "analytics-consumers",
 //         containerFactory = "kafkaListenerContainerFactory"
 //     )
@@ -150,7 +150,7 @@
 //     }
 
 //    @KafkaListener(
-//         topics = {"product_view", "cart_add", "cart_remove", "checkout_step", "purchase"},
+//         topics = "#{@topicRouting.topicsFor('ecommerce')}",
 //         groupId = "analytics-consumers",
 //         containerFactory = "kafkaListenerContainerFactory"
 // )
@@ -289,14 +289,46 @@ import org.springframework.stereotype.Service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import Kafka_Project.config.EventHeaders;
+import Kafka_Project.config.TopicRouting;
+import Kafka_Project.enrichment.GeoIpService;
+import Kafka_Project.enrichment.GeoLocation;
+import Kafka_Project.enrichment.UserAgentInfo;
+import Kafka_Project.enrichment.UserAgentParser;
+import Kafka_Project.profiling.ConsumerDecodeEvent;
+import Kafka_Project.profiling.SinkFlushEvent;
+import Kafka_Project.quota.FairRecordScheduler;
+import Kafka_Project.quota.TenantQuotaService;
+import Kafka_Project.realtime.ActiveUsersTracker;
+import Kafka_Project.realtime.FunnelEngine;
+import Kafka_Project.realtime.HeavyHitterTracker;
+import Kafka_Project.realtime.LaneMetrics;
+import Kafka_Project.realtime.LiveCounterService;
+import Kafka_Project.realtime.MinuteCounterService;
+import Kafka_Project.realtime.PagePerformanceTracker;
+import Kafka_Project.realtime.PageUrls;
+import Kafka_Project.realtime.PerformanceMetric;
+
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class KafkaConsumerService {
@@ -307,26 +339,83 @@ public class KafkaConsumerService {
     private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
     
     private final ConcurrentHashMap<String, SessionData> activeSessions = new ConcurrentHashMap<>();
+    private final PagePerformanceTracker performanceTracker;
+    private final HeavyHitterTracker heavyHitterTracker;
+    private final LiveCounterService liveCounters;
+    private final ActiveUsersTracker activeUsers;
+    private final FunnelEngine funnelEngine;
+    private final UserAgentParser userAgentParser;
+    private final GeoIpService geoIpService;
+    private final EventDeduplicator deduplicator;
+    private final FairRecordScheduler fairScheduler;
+    private final LaneMetrics laneMetrics;
+    private final MinuteCounterService minuteCounters;
+    private final TenantQuotaService quotaService;
+    private final ThreadLocal<SinkTally> sinkTally = ThreadLocal.withInitial(SinkTally::new);
+    private final KafkaProducerService producerService;
  
-    public KafkaConsumerService(JdbcTemplate jdbcTemplate) {
+    public KafkaConsumerService(JdbcTemplate jdbcTemplate,
+                                PagePerformanceTracker performanceTracker,
+                                HeavyHitterTracker heavyHitterTracker,
+                                LiveCounterService liveCounters,
+                                ActiveUsersTracker activeUsers,
+                                FunnelEngine funnelEngine,
+                                UserAgentParser userAgentParser,
+                                GeoIpService geoIpService,
+                                EventDeduplicator deduplicator,
+                                FairRecordScheduler fairScheduler,
+                                LaneMetrics laneMetrics,
+                                MinuteCounterService minuteCounters,
+                                TenantQuotaService quotaService,
+                                KafkaProducerService producerService) {
         this.jdbcTemplate = jdbcTemplate;
         this.objectMapper = new ObjectMapper();
+        this.performanceTracker = performanceTracker;
+        this.heavyHitterTracker = heavyHitterTracker;
+        this.liveCounters = liveCounters;
+        this.activeUsers = activeUsers;
+        this.funnelEngine = funnelEngine;
+        this.userAgentParser = userAgentParser;
+        this.geoIpService = geoIpService;
+        this.deduplicator = deduplicator;
+        this.fairScheduler = fairScheduler;
+        this.laneMetrics = laneMetrics;
+        this.minuteCounters = minuteCounters;
+        this.quotaService = quotaService;
+        this.producerService = producerService;
     }
 
     @KafkaListener(
-        topics = {"page_load", "page_view", "page_unload", "page_hidden", "page_visible"}, 
+        id = "page-lane",
+        topics = "#{@topicRouting.topicsFor('page')}",
         groupId = "analytics-consumers",
-        containerFactory = "kafkaListenerContainerFactory"
+        containerFactory = "pageLaneContainerFactory"
     )
-    public void consumePageEvents(ConsumerRecord<String, String> record) {
+    public void consumePageEvents(List<ConsumerRecord<String, String>> records) {
+        long started = System.nanoTime();
+        SinkFlushEvent sinkEvent = new SinkFlushEvent();
+        sinkTally.get().reset();
+        sinkEvent.begin();
+        for (ConsumerRecord<String, String> record : schedule(records)) {
+            processPageEvent(record);
+        }
+        minuteCounters.flush();
+        commitSinkEvent(sinkEvent, "page");
+        laneMetrics.record("page", records.size(), System.nanoTime() - started, oldestIngestTs(records));
+    }
+
+    private void processPageEvent(ConsumerRecord<String, String> record) {
         try {
-            JsonNode json = objectMapper.readTree(record.value());
-            
-            String eventType = json.has("event_type")
-                ? json.get("event_type").asText()
-                : json.path("type").asText();
+            String eventType = routedEventType(record);
+            if (droppedByHeaders(record, eventType)) {
+                return;
+            }
+            JsonNode json = decode(record);
             
             JsonNode data = json.has("data") ? json.get("data") : json;
+            if (isDuplicatePayload(record, json, data)) {
+                return;
+            }
             
             LocalDateTime timestamp;
             if (json.has("timestamp")) {
@@ -352,14 +441,43 @@ public class KafkaConsumerService {
                 : data.path("url").asText("");
             String pageTitle = data.path("title").asText("");
             String referrer = data.path("referrer").asText("");
+
+            // The tracker nests navigation timings under "performance" and
+            // connection info under "network"; flat fields are accepted too
+            JsonNode performance = data.has("performance") ? data.get("performance") : data;
+            Map<PerformanceMetric, Integer> timings = new EnumMap<>(PerformanceMetric.class);
+            for (PerformanceMetric metric : PerformanceMetric.values()) {
+                Integer value = readTiming(performance, metric.getColumn());
+                if (value == null && performance != data) {
+                    value = readTiming(data, metric.getColumn());
+                }
+                if (value != null) {
+                    timings.put(metric, value);
+                }
+            }
+
+            JsonNode network = data.path("network");
+            String connectionType = network.hasNonNull("effectiveType")
+                ? network.get("effectiveType").asText()
+                : (data.hasNonNull("connection_type") ? data.get("connection_type").asText() : null);
+            Float connectionDownlink = network.path("downlink").isNumber()
+                ? (float) network.get("downlink").asDouble()
+                : (data.path("connection_downlink").isNumber() ? (float) data.get("connection_downlink").asDouble() : null);
+            Integer connectionRtt = readTiming(network, "rtt");
+            if (connectionRtt == null) {
+                connectionRtt = readTiming(data, "connection_rtt");
+            }
+            Integer saveData = network.path("saveData").isBoolean()
+                ? (network.get("saveData").asBoolean() ? 1 : 0)
+                : (data.path("save_data").isNumber() ? data.get("save_data").asInt() : null);
             
             String sql = "INSERT INTO page_events (" +
                 "timestamp, session_id, user_id, tracking_id, event_type, page_url, page_title, referrer, " +
                 "duration_ms, scroll_depth_max, click_count, dns_time, connect_time, response_time, " +
                 "dom_load_time, page_load_time, connection_type, connection_downlink, connection_rtt, save_data" +
-                ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, NULL, NULL, NULL, NULL, NULL, NULL, NULL, NULL, NULL, NULL, NULL, NULL)";
+                ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, NULL, NULL, NULL, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
             
-            jdbcTemplate.update(sql,
+            write(sql,
                 timestamp.format(FORMATTER),
                 sessionId,
                 userId,
@@ -367,11 +485,30 @@ public class KafkaConsumerService {
                 eventType,
                 pageUrl,
                 pageTitle,
-                referrer
+                referrer,
+                timings.get(PerformanceMetric.DNS_TIME),
+                timings.get(PerformanceMetric.CONNECT_TIME),
+                timings.get(PerformanceMetric.RESPONSE_TIME),
+                timings.get(PerformanceMetric.DOM_LOAD_TIME),
+                timings.get(PerformanceMetric.PAGE_LOAD_TIME),
+                connectionType,
+                connectionDownlink,
+                connectionRtt,
+                saveData
             );
+
+            if (!timings.isEmpty()) {
+                performanceTracker.record(trackingId, pageUrl, timestamp, timings);
+            }
+            if ("page_view".equals(eventType)) {
+                heavyHitterTracker.offer(trackingId, HeavyHitterTracker.Dimension.PAGES,
+                    PageUrls.normalize(pageUrl), timestamp);
+            }
+            trackLive(trackingId, sessionId, eventType, null, timestamp);
             
             if ("page_load".equals(eventType)) {
-                updateOrCreateSession(sessionId, userId, trackingId, pageUrl, referrer, timestamp);
+                updateOrCreateSession(sessionId, userId, trackingId, pageUrl, referrer, timestamp,
+                    sessionAttributes(json, data));
             }
             
             logger.info("✓ Inserted page event: {} for tracking_id: {}", eventType, trackingId);
@@ -382,18 +519,36 @@ public class KafkaConsumerService {
     }
 
     @KafkaListener(
-        topics = {"mouse_click", "button_click", "link_click", "file_download"}, 
+        id = "interaction-lane",
+        topics = "#{@topicRouting.topicsFor('interaction')}",
         groupId = "analytics-consumers",
-        containerFactory = "kafkaListenerContainerFactory"
+        containerFactory = "interactionLaneContainerFactory"
     )
-    public void consumeInteractionEvents(ConsumerRecord<String, String> record) {
+    public void consumeInteractionEvents(List<ConsumerRecord<String, String>> records) {
+        long started = System.nanoTime();
+        SinkFlushEvent sinkEvent = new SinkFlushEvent();
+        sinkTally.get().reset();
+        sinkEvent.begin();
+        for (ConsumerRecord<String, String> record : schedule(records)) {
+            processInteractionEvent(record);
+        }
+        minuteCounters.flush();
+        commitSinkEvent(sinkEvent, "interaction");
+        laneMetrics.record("interaction", records.size(), System.nanoTime() - started, oldestIngestTs(records));
+    }
+
+    private void processInteractionEvent(ConsumerRecord<String, String> record) {
         try {
-            JsonNode json = objectMapper.readTree(record.value());
-            String eventType = json.has("event_type")
-                ? json.get("event_type").asText()
-                : json.path("type").asText();
+            String eventType = routedEventType(record);
+            if (droppedByHeaders(record, eventType)) {
+                return;
+            }
+            JsonNode json = decode(record);
             
             JsonNode data = json.has("data") ? json.get("data") : json;
+            if (isDuplicatePayload(record, json, data)) {
+                return;
+            }
             
             LocalDateTime timestamp;
             if (json.has("timestamp")) {
@@ -413,15 +568,21 @@ public class KafkaConsumerService {
             String sql = "INSERT INTO interaction_events (timestamp, session_id, user_id, tracking_id, " +
                         "event_type, page_url, element) VALUES (?, ?, ?, ?, ?, ?, ?)";
             
-            jdbcTemplate.update(sql,
+            String element = data.path("element").asText("");
+            write(sql,
                 timestamp.format(FORMATTER),
                 data.path("session_id").asText(""),
                 data.path("user_id").asText(""),
                 data.path("tracking_id").asText(""),
                 eventType,
                 data.has("page_url") ? data.get("page_url").asText() : data.path("url").asText(""),
-                data.path("element").asText("")
+                element
             );
+
+            heavyHitterTracker.offer(data.path("tracking_id").asText(""),
+                HeavyHitterTracker.Dimension.ELEMENTS, element, timestamp);
+            trackLive(data.path("tracking_id").asText(""),
+                data.path("session_id").asText(""), eventType, null, timestamp);
             
             logger.info("✓ Inserted interaction event: {} for tracking_id: {}", eventType, data.path("tracking_id").asText());
         } catch (Exception e) {
@@ -430,18 +591,36 @@ public class KafkaConsumerService {
     }
 
     @KafkaListener(
-        topics = {"form_submit", "form_focus", "form_input"}, 
+        id = "form-lane",
+        topics = "#{@topicRouting.topicsFor('form')}",
         groupId = "analytics-consumers",
-        containerFactory = "kafkaListenerContainerFactory"
+        containerFactory = "formLaneContainerFactory"
     )
-    public void consumeFormEvents(ConsumerRecord<String, String> record) {
+    public void consumeFormEvents(List<ConsumerRecord<String, String>> records) {
+        long started = System.nanoTime();
+        SinkFlushEvent sinkEvent = new SinkFlushEvent();
+        sinkTally.get().reset();
+        sinkEvent.begin();
+        for (ConsumerRecord<String, String> record : schedule(records)) {
+            processFormEvent(record);
+        }
+        minuteCounters.flush();
+        commitSinkEvent(sinkEvent, "form");
+        laneMetrics.record("form", records.size(), System.nanoTime() - started, oldestIngestTs(records));
+    }
+
+    private void processFormEvent(ConsumerRecord<String, String> record) {
         try {
-            JsonNode json = objectMapper.readTree(record.value());
-            String eventType = json.has("event_type")
-                ? json.get("event_type").asText()
-                : json.path("type").asText();
+            String eventType = routedEventType(record);
+            if (droppedByHeaders(record, eventType)) {
+                return;
+            }
+            JsonNode json = decode(record);
             
             JsonNode data = json.has("data") ? json.get("data") : json;
+            if (isDuplicatePayload(record, json, data)) {
+                return;
+            }
             
             LocalDateTime timestamp;
             if (json.has("timestamp")) {
@@ -461,7 +640,7 @@ public class KafkaConsumerService {
             String sql = "INSERT INTO form_events (timestamp, session_id, user_id, tracking_id, " +
                         "page_url, event_type, form_id, form_name, success) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
             
-            jdbcTemplate.update(sql,
+            write(sql,
                 timestamp.format(FORMATTER),
                 data.path("session_id").asText(""),
                 data.path("user_id").asText(""),
@@ -472,6 +651,9 @@ public class KafkaConsumerService {
                 data.path("form_name").asText("default_form"),
                 data.path("success").asInt(0)
             );
+
+            trackLive(data.path("tracking_id").asText(""),
+                data.path("session_id").asText(""), eventType, null, timestamp);
             
             logger.info("✓ Inserted form event: {} for tracking_id: {}", eventType, data.path("tracking_id").asText());
         } catch (Exception e) {
@@ -480,18 +662,141 @@ public class KafkaConsumerService {
     }
 
     @KafkaListener(
-        topics = {"product_view", "cart_add", "cart_remove", "checkout_step", "purchase"},
+        id = "telemetry-lane",
+        topics = "#{@topicRouting.topicsFor('telemetry')}",
+        groupId = "analytics-consumers",
+        containerFactory = "telemetryLaneContainerFactory"
+    )
+    public void consumeTelemetryEvents(List<ConsumerRecord<String, String>> records) {
+        long started = System.nanoTime();
+        SinkFlushEvent sinkEvent = new SinkFlushEvent();
+        sinkTally.get().reset();
+        sinkEvent.begin();
+        for (ConsumerRecord<String, String> record : schedule(records)) {
+            processTelemetryEvent(record);
+        }
+        minuteCounters.flush();
+        commitSinkEvent(sinkEvent, "telemetry");
+        laneMetrics.record("telemetry", records.size(), System.nanoTime() - started, oldestIngestTs(records));
+    }
+
+    private void processTelemetryEvent(ConsumerRecord<String, String> record) {
+        try {
+            String eventType = routedEventType(record);
+            // The telemetry family also carries types nothing stores yet
+            if (!"mouse_move".equals(eventType) && !"periodic_events".equals(eventType)
+                    || droppedByHeaders(record, eventType)) {
+                return;
+            }
+            JsonNode json = decode(record);
+
+            JsonNode data = json.has("data") ? json.get("data") : json;
+            if (isDuplicatePayload(record, json, data)) {
+                return;
+            }
+
+            LocalDateTime timestamp;
+            if (json.has("timestamp")) {
+                timestamp = LocalDateTime.ofInstant(
+                    Instant.parse(json.get("timestamp").asText()),
+                    ZoneOffset.UTC
+                );
+            } else if (data.has("ts")) {
+                timestamp = LocalDateTime.ofInstant(
+                    Instant.ofEpochMilli(data.get("ts").asLong()),
+                    ZoneOffset.UTC
+                );
+            } else {
+                timestamp = LocalDateTime.now();
+            }
+
+            // Set by the ingest sampler; rows are weighted by 1 / sample_rate at query time
+            float sampleRate = (float) json.path("sample_rate").asDouble(1.0);
+            String sessionId = data.path("session_id").asText("");
+            String userId = data.path("user_id").asText("");
+            String trackingId = data.path("tracking_id").asText("");
+            String pageUrl = data.has("page_url") ? data.get("page_url").asText() : data.path("url").asText("");
+
+            List<Object[]> moves = new ArrayList<>();
+            if ("mouse_move".equals(eventType)) {
+                moves.add(new Object[] {
+                    timestamp.format(FORMATTER), sessionId, userId, trackingId, pageUrl,
+                    clampUInt16(data.path("x").asInt()), clampUInt16(data.path("y").asInt()), sampleRate
+                });
+            } else {
+                int eventCount = 0;
+                Iterator<JsonNode> values = data.elements();
+                while (values.hasNext()) {
+                    JsonNode value = values.next();
+                    if (value.isArray()) {
+                        eventCount += value.size();
+                    }
+                }
+                write("INSERT INTO batch_events (timestamp, session_id, user_id, tracking_id, " +
+                        "event_data, event_count, sample_rate) VALUES (?, ?, ?, ?, ?, ?, ?)",
+                    timestamp.format(FORMATTER), sessionId, userId, trackingId,
+                    data.toString(), clampUInt16(eventCount), sampleRate);
+
+                for (JsonNode move : data.path("mouseMovements")) {
+                    LocalDateTime moveTime = move.has("ts")
+                        ? LocalDateTime.ofInstant(Instant.ofEpochMilli(move.get("ts").asLong()), ZoneOffset.UTC)
+                        : timestamp;
+                    moves.add(new Object[] {
+                        moveTime.format(FORMATTER), sessionId, userId, trackingId,
+                        move.path("page_url").asText(pageUrl),
+                        clampUInt16(move.path("x").asInt()), clampUInt16(move.path("y").asInt()), sampleRate
+                    });
+                }
+            }
+
+            if (!moves.isEmpty()) {
+                writeBatch("INSERT INTO mouse_events (timestamp, session_id, user_id, tracking_id, " +
+                    "page_url, x, y, sample_rate) VALUES (?, ?, ?, ?, ?, ?, ?, ?)", moves);
+            }
+
+            logger.info("✓ Inserted {} event ({} mouse rows) for tracking_id: {}", eventType, moves.size(), trackingId);
+        } catch (Exception e) {
+            logger.error("✗ Error processing telemetry event from topic {}: {}", record.topic(), e.getMessage(), e);
+        }
+    }
+
+    @KafkaListener(
+        id = "ecommerce-lane",
+        topics = "#{@topicRouting.topicsFor('ecommerce')}",
         groupId = "analytics-consumers",
-        containerFactory = "kafkaListenerContainerFactory"
+        containerFactory = "ecommerceLaneContainerFactory"
     )
-    public void consumeEcommerceEvents(ConsumerRecord<String, String> record) {
+    public void consumeEcommerceEvents(List<ConsumerRecord<String, String>> records) {
+        long started = System.nanoTime();
+        SinkFlushEvent sinkEvent = new SinkFlushEvent();
+        sinkTally.get().reset();
+        sinkEvent.begin();
+        for (ConsumerRecord<String, String> record : schedule(records)) {
+            processEcommerceEvent(record);
+        }
+        minuteCounters.flush();
+        commitSinkEvent(sinkEvent, "ecommerce");
+        laneMetrics.record("ecommerce", records.size(), System.nanoTime() - started, oldestIngestTs(records));
+    }
+
+    private void processEcommerceEvent(ConsumerRecord<String, String> record) {
         logger.info("🟢 KAFKA CONSUMER START | topic={} partition={} offset={} key={}",
                 record.topic(), record.partition(), record.offset(), record.key());
         
         logger.info("📦 RAW MESSAGE: {}", record.value());
 
         try {
-            JsonNode json = objectMapper.readTree(record.value());
+            String eventType = routedEventType(record);
+            if (EventHeaders.schemaVersion(record.headers()) > 0
+                    && EventHeaders.get(record.headers(), EventHeaders.TRACKING_ID) == null) {
+                logger.error("❌ MISSING tracking_id header | topic={} offset={}", record.topic(), record.offset());
+                return;
+            }
+            if (droppedByHeaders(record, eventType)) {
+                return;
+            }
+
+            JsonNode json = decode(record);
             JsonNode data = json.has("data") ? json.get("data") : json;
             
             if (!json.has("event_type") || data.isMissingNode()) {
@@ -499,7 +804,9 @@ public class KafkaConsumerService {
                 return;
             }
 
-            String eventType = json.get("event_type").asText();
+            if (isDuplicatePayload(record, json, data)) {
+                return;
+            }
             String trackingId = data.path("tracking_id").asText(null);
 
             if (trackingId == null) {
@@ -546,7 +853,7 @@ public class KafkaConsumerService {
             logger.info("🧪 INSERT VALUES | price={} quantity={} total={} step={}",
                     price, quantity, total, step);
 
-            jdbcTemplate.update(
+            write(
                     "INSERT INTO ecommerce_events (" +
                             "timestamp, session_id, user_id, tracking_id, page_url, event_type, " +
                             "product_id, product_name, price, quantity, category, currency, " +
@@ -570,6 +877,18 @@ public class KafkaConsumerService {
                     data.path("step_name").isMissingNode() ? null : data.path("step_name").asText()
             );
 
+            if ("product_view".equals(eventType)) {
+                String product = data.hasNonNull("product_id")
+                    ? data.get("product_id").asText()
+                    : data.path("product_name").asText("");
+                heavyHitterTracker.offer(trackingId, HeavyHitterTracker.Dimension.PRODUCTS, product, timestamp);
+            }
+            Double revenue = total != null
+                ? Double.valueOf(total)
+                : (price != null ? (double) price * (quantity == null ? 1 : quantity) : null);
+            trackLive(trackingId, data.path("session_id").asText(""), eventType, revenue, timestamp);
+            funnelEngine.record(trackingId, data.path("session_id").asText(""), eventType, step, timestamp);
+
             logger.info("✅ INSERT SUCCESS | trackingId={} offset={}", trackingId, record.offset());
 
         } catch (Exception e) {
@@ -578,8 +897,275 @@ public class KafkaConsumerService {
         }
     }
 
+    /**
+     * Event type from the record header (family topics), falling back to
+     * the topic name for records on per-type topics.
+     */
+    private static String routedEventType(ConsumerRecord<String, String> record) {
+        String eventType = TopicRouting.eventTypeOf(record.headers());
+        return eventType != null ? eventType : record.topic();
+    }
+
+    /**
+     * Tenants over their ingest quota land on the overflow topic; a single
+     * consumer drains it through the normal handlers at lower priority.
+     */
+    @KafkaListener(
+        id = "overflow-lane",
+        topics = "${analytics.quota.overflow-topic:overflow_events}",
+        groupId = "analytics-consumers",
+        containerFactory = "overflowLaneContainerFactory"
+    )
+    public void consumeOverflowEvents(List<ConsumerRecord<String, String>> records) {
+        long started = System.nanoTime();
+        SinkFlushEvent sinkEvent = new SinkFlushEvent();
+        sinkTally.get().reset();
+        sinkEvent.begin();
+        for (ConsumerRecord<String, String> record : fairScheduler.order(records)) {
+            String family = TopicRouting.familyOf(routedEventType(record));
+            if (family == null) {
+                continue;
+            }
+            switch (family) {
+                case "page" -> processPageEvent(record);
+                case "interaction" -> processInteractionEvent(record);
+                case "form" -> processFormEvent(record);
+                case "ecommerce" -> processEcommerceEvent(record);
+                case "telemetry" -> processTelemetryEvent(record);
+                default -> logger.debug("No handler for overflow event family {}", family);
+            }
+        }
+        minuteCounters.flush();
+        commitSinkEvent(sinkEvent, "overflow");
+        laneMetrics.record("overflow", records.size(), System.nanoTime() - started, oldestIngestTs(records));
+    }
+
+    private JsonNode decode(ConsumerRecord<String, String> record) throws JsonProcessingException {
+        ConsumerDecodeEvent event = new ConsumerDecodeEvent();
+        event.begin();
+        boolean succeeded = false;
+        try {
+            JsonNode json = objectMapper.readTree(record.value());
+            succeeded = true;
+            return json;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.topic = record.topic();
+                event.partition = record.partition();
+                event.bytes = Math.max(0, record.serializedValueSize());
+                event.succeeded = succeeded;
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * The lanes write row by row while they process a poll, so a lane's sink
+     * flush spans the whole poll, Redis counter flush included. Rows and bytes
+     * are what actually reached ClickHouse during it, not what was polled.
+     */
+    private void commitSinkEvent(SinkFlushEvent event, String lane) {
+        event.end();
+        if (event.shouldCommit()) {
+            SinkTally tally = sinkTally.get();
+            event.lane = lane;
+            event.rows = tally.rows;
+            event.bytes = tally.bytes;
+            event.commit();
+        }
+    }
+
+    private void write(String sql, Object... args) {
+        jdbcTemplate.update(sql, args);
+        sinkTally.get().add(1, approxBytes(args));
+    }
+
+    private void writeBatch(String sql, List<Object[]> rows) {
+        jdbcTemplate.batchUpdate(sql, rows);
+        long bytes = 0;
+        for (Object[] row : rows) {
+            bytes += approxBytes(row);
+        }
+        sinkTally.get().add(rows.size(), bytes);
+    }
+
+    /** Rough size of the bound values: string length, eight bytes for anything else. */
+    private static long approxBytes(Object[] args) {
+        long bytes = 0;
+        for (Object arg : args) {
+            if (arg instanceof CharSequence text) {
+                bytes += text.length();
+            } else if (arg != null) {
+                bytes += arg instanceof Number || arg instanceof Boolean ? 8 : arg.toString().length();
+            }
+        }
+        return bytes;
+    }
+
+    /** Per listener thread: each lane's container polls and writes on its own thread. */
+    private static final class SinkTally {
+        int rows;
+        long bytes;
+
+        void reset() {
+            rows = 0;
+            bytes = 0;
+        }
+
+        void add(int rows, long bytes) {
+            this.rows += rows;
+            this.bytes += bytes;
+        }
+    }
+
+    /**
+     * Fair order for a family lane's poll, minus the records of tenants the
+     * quota service demotes, which go to the overflow topic. A demoted
+     * tenant's records in the poll all move, so its sessions keep their order
+     * within the overflow lane. Offsets are only committed after the overflow
+     * sends are acknowledged; a failed send is processed here.
+     */
+    private List<ConsumerRecord<String, String>> schedule(List<ConsumerRecord<String, String>> records) {
+        List<ConsumerRecord<String, String>> ordered = fairScheduler.order(records);
+        if (!quotaService.isDemotingOverBudget()) {
+            return ordered;
+        }
+        Map<String, Integer> recordsPerTenant = new HashMap<>();
+        for (ConsumerRecord<String, String> record : ordered) {
+            String trackingId = EventHeaders.get(record.headers(), EventHeaders.TRACKING_ID);
+            if (trackingId != null) {
+                recordsPerTenant.merge(trackingId, 1, Integer::sum);
+            }
+        }
+        Set<String> demotedTenants = quotaService.tenantsToDemote(recordsPerTenant);
+        if (demotedTenants.isEmpty()) {
+            return ordered;
+        }
+        List<ConsumerRecord<String, String>> kept = new ArrayList<>(ordered.size());
+        Map<ConsumerRecord<String, String>, CompletableFuture<?>> forwarded = new LinkedHashMap<>();
+        for (ConsumerRecord<String, String> record : ordered) {
+            String trackingId = EventHeaders.get(record.headers(), EventHeaders.TRACKING_ID);
+            if (trackingId != null && demotedTenants.contains(trackingId)) {
+                forwarded.put(record, producerService.forward(quotaService.getOverflowTopic(), record));
+            } else {
+                kept.add(record);
+            }
+        }
+        for (Map.Entry<ConsumerRecord<String, String>, CompletableFuture<?>> entry : forwarded.entrySet()) {
+            try {
+                entry.getValue().get(30, TimeUnit.SECONDS);
+            } catch (Exception e) {
+                logger.warn("Failed to demote record from {} to overflow, processing it here: {}",
+                    entry.getKey().topic(), e.getMessage());
+                kept.add(entry.getKey());
+            }
+        }
+        logger.debug("Demoted {} records of {} to overflow", forwarded.size(), demotedTenants);
+        return kept;
+    }
+
+    private static long oldestIngestTs(List<ConsumerRecord<String, String>> records) {
+        long oldest = 0;
+        for (ConsumerRecord<String, String> record : records) {
+            String value = EventHeaders.get(record.headers(), EventHeaders.INGEST_TS);
+            if (value != null) {
+                try {
+                    long ingestTs = Long.parseLong(value);
+                    if (oldest == 0 || ingestTs < oldest) {
+                        oldest = ingestTs;
+                    }
+                } catch (NumberFormatException ignored) {
+                    // Malformed header; freshness just skips this record
+                }
+            }
+        }
+        return oldest;
+    }
+
+    /**
+     * Header-only checks that let a record be dropped before its payload is
+     * decoded: unsupported schema versions and event ids already seen.
+     * Records from producers that predate headers always pass here and are
+     * deduplicated on their payload instead.
+     */
+    private boolean droppedByHeaders(ConsumerRecord<String, String> record, String eventType) {
+        int schemaVersion = EventHeaders.schemaVersion(record.headers());
+        if (schemaVersion < 0 || schemaVersion > EventHeaders.CURRENT_SCHEMA_VERSION) {
+            logger.warn("Skipping {} event with unsupported schema version from {}-{}",
+                eventType, record.topic(), record.partition());
+            return true;
+        }
+        String eventId = EventHeaders.get(record.headers(), EventHeaders.EVENT_ID);
+        if (eventId != null && deduplicator.isDuplicate(record, eventId)) {
+            logger.debug("Skipping duplicate {} event from {}-{}", eventType, record.topic(), record.partition());
+            return true;
+        }
+        return false;
+    }
+
+    private boolean isDuplicatePayload(ConsumerRecord<String, String> record, JsonNode json, JsonNode data) {
+        // Already checked against the event_id header
+        if (EventHeaders.get(record.headers(), EventHeaders.EVENT_ID) != null) {
+            return false;
+        }
+        if (deduplicator.isDuplicate(record, json, data)) {
+            logger.debug("Skipping duplicate {} event from {}-{}",
+                routedEventType(record), record.topic(), record.partition());
+            return true;
+        }
+        return false;
+    }
+
+    private void trackLive(String trackingId, String sessionId, String eventType, Double revenue,
+                           LocalDateTime timestamp) {
+        liveCounters.record(trackingId, eventType, revenue);
+        minuteCounters.record(trackingId, eventType, revenue, timestamp.toInstant(ZoneOffset.UTC));
+        activeUsers.record(trackingId, sessionId);
+    }
+
+    // Navigation timings are UInt16 milliseconds; the browser reports negative
+    // values when an event (e.g. loadEventEnd) had not fired yet
+    private Integer readTiming(JsonNode node, String field) {
+        JsonNode value = node.path(field);
+        if (!value.isNumber()) {
+            return null;
+        }
+        long ms = value.asLong();
+        if (ms < 0) {
+            return null;
+        }
+        return (int) Math.min(ms, 65535);
+    }
+
+    // The User-Agent header captured at ingest wins over the tracker's
+    // navigator.userAgent copy in data.browser
+    private SessionAttributes sessionAttributes(JsonNode json, JsonNode data) {
+        String userAgent = json.hasNonNull("user_agent")
+            ? json.get("user_agent").asText()
+            : data.path("browser").asText(data.path("user_agent").asText(""));
+        UserAgentInfo agent = userAgentParser.parse(userAgent);
+        JsonNode screen = data.path("screen_resolution");
+        JsonNode viewport = data.path("viewport");
+        return new SessionAttributes(
+            agent,
+            geoIpService.lookup(json.path("client_ip").asText("")),
+            clampUInt16(screen.path("width").asInt(0)),
+            clampUInt16(screen.path("height").asInt(0)),
+            clampUInt16(viewport.path("width").asInt(0)),
+            clampUInt16(viewport.path("height").asInt(0)),
+            data.path("language").asText("en"),
+            data.path("timezone").asText("UTC")
+        );
+    }
+
+    private static int clampUInt16(int value) {
+        return Math.max(0, Math.min(value, 65535));
+    }
+
     private void updateOrCreateSession(String sessionId, String userId, String trackingId, 
-                                      String pageUrl, String referrer, LocalDateTime timestamp) {
+                                      String pageUrl, String referrer, LocalDateTime timestamp,
+                                      SessionAttributes attributes) {
         try {
             SessionData session = activeSessions.get(sessionId);
             
@@ -589,14 +1175,26 @@ public class KafkaConsumerService {
 
                 String sql = "INSERT INTO sessions (" +
                     "session_id, user_id, tracking_id, start_time, end_time, device_type, " +
-                    "operating_system, browser, screen_width, screen_height, country, country_code, " +
+                    "operating_system, browser, screen_width, screen_height, viewport_width, viewport_height, " +
+                    "country, country_code, language, timezone, " +
                     "referrer, entry_page, exit_page, duration_ms, bounce, page_views" +
-                    ") VALUES (?, ?, ?, ?, NULL, 'desktop', 'Unknown', 'Unknown', 0, 0, " +
-                    "'Unknown', 'XX', ?, ?, NULL, NULL, 1, 1)";
+                    ") VALUES (?, ?, ?, ?, NULL, ?, ?, ?, ?, ?, ?, ?, " +
+                    "?, ?, ?, ?, ?, ?, NULL, NULL, 1, 1)";
 
-                jdbcTemplate.update(sql,
+                write(sql,
                     sessionId, userId, trackingId,
                     timestamp.format(FORMATTER),
+                    attributes.agent().deviceType(),
+                    attributes.agent().operatingSystem(),
+                    attributes.agent().browser(),
+                    attributes.screenWidth(),
+                    attributes.screenHeight(),
+                    attributes.viewportWidth(),
+                    attributes.viewportHeight(),
+                    attributes.geo().country(),
+                    attributes.geo().countryCode(),
+                    attributes.language(),
+                    attributes.timezone(),
                     referrer, pageUrl
                 );
 
@@ -612,7 +1210,7 @@ public class KafkaConsumerService {
                     "end_time = ?, exit_page = ?, page_views = ?, bounce = ?, duration_ms = ? " +
                     "WHERE session_id = ?";
 
-                jdbcTemplate.update(sql,
+                write(sql,
                     session.lastSeen.format(FORMATTER),
                     session.exitPage,
                     session.pageViews,
@@ -629,6 +1227,10 @@ public class KafkaConsumerService {
         }
     }
 
+    private record SessionAttributes(UserAgentInfo agent, GeoLocation geo, int screenWidth, int screenHeight,
+                                     int viewportWidth, int viewportHeight,
+                                     String language, String timezone) {}
+
     private static class SessionData {
         String sessionId;
         String userId;
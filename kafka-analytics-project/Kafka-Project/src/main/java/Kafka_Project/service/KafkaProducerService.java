@@ -1,5 +1,7 @@
 package Kafka_Project.service;
 
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
 import org.springframework.lang.NonNull;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.SendResult;
@@ -9,22 +11,77 @@ import org.slf4j.LoggerFactory;
 
 import java.util.concurrent.CompletableFuture;
 
+import Kafka_Project.config.EventHeaders;
+import Kafka_Project.config.SessionAwarePartitioner;
+import Kafka_Project.config.TopicRouting;
+import Kafka_Project.profiling.ProducerSendEvent;
+
 @Service
 public class KafkaProducerService {
     
     private static final Logger logger = LoggerFactory.getLogger(KafkaProducerService.class);
     private final KafkaTemplate<String, String> kafkaTemplate;
+    private final TopicRouting topicRouting;
     
-    public KafkaProducerService(KafkaTemplate<String, String> kafkaTemplate) {
+    public KafkaProducerService(KafkaTemplate<String, String> kafkaTemplate, TopicRouting topicRouting) {
         this.kafkaTemplate = kafkaTemplate;
+        this.topicRouting = topicRouting;
+    }
+
+    /**
+     * Produces a tracker event to the topic chosen by {@link TopicRouting},
+     * carrying its routing metadata as headers. The "tracking_id|session_id"
+     * key is what {@link SessionAwarePartitioner} places it by.
+     */
+    public void sendEvent(@NonNull String message, @NonNull String eventType,
+                          String trackingId, String sessionId, String eventId) {
+        sendEventTo(topicRouting.topicFor(eventType), message, eventType, trackingId, sessionId, eventId);
+    }
+
+    public void sendEventTo(@NonNull String topic, @NonNull String message, @NonNull String eventType,
+                            String trackingId, String sessionId, String eventId) {
+        String key = sessionId == null ? null : (trackingId == null ? "" : trackingId) + "|" + sessionId;
+        ProducerRecord<String, String> record = new ProducerRecord<>(topic, key, message);
+        EventHeaders.put(record.headers(), EventHeaders.EVENT_TYPE, eventType);
+        EventHeaders.put(record.headers(), EventHeaders.TRACKING_ID, trackingId);
+        EventHeaders.put(record.headers(), EventHeaders.SESSION_ID, sessionId);
+        EventHeaders.put(record.headers(), EventHeaders.EVENT_ID, eventId);
+        EventHeaders.put(record.headers(), EventHeaders.INGEST_TS, Long.toString(System.currentTimeMillis()));
+        EventHeaders.put(record.headers(), EventHeaders.SCHEMA_VERSION,
+            Integer.toString(EventHeaders.CURRENT_SCHEMA_VERSION));
+        send(record);
     }
     
     public void sendMessage(@NonNull String message, @NonNull String topic) {
+        sendMessage(message, topic, null);
+    }
+
+    public void sendMessage(@NonNull String message, @NonNull String topic, String key) {
+        send(new ProducerRecord<>(topic, key, message));
+    }
+
+    private void send(ProducerRecord<String, String> record) {
+        String topic = record.topic();
+        ProducerSendEvent sendEvent = new ProducerSendEvent();
+        sendEvent.begin();
         try {
             CompletableFuture<SendResult<String, String>> future = 
-                kafkaTemplate.send(topic, message);
+                kafkaTemplate.send(record);
             
             future.whenComplete((result, ex) -> {
+                sendEvent.end();
+                if (sendEvent.shouldCommit()) {
+                    sendEvent.topic = topic;
+                    sendEvent.bytes = record.value() == null ? 0 : record.value().length();
+                    sendEvent.succeeded = ex == null;
+                    if (ex == null) {
+                        sendEvent.partition = result.getRecordMetadata().partition();
+                        sendEvent.offset = result.getRecordMetadata().offset();
+                    } else {
+                        sendEvent.error = ex.getMessage();
+                    }
+                    sendEvent.commit();
+                }
                 if (ex == null) {
                     logger.info("Message sent successfully to topic: {} at offset: {}", 
                         topic, result.getRecordMetadata().offset());
@@ -39,6 +96,14 @@ public class KafkaProducerService {
         }
     }
     
+    /**
+     * Re-produces a consumed record to another topic with its key and headers.
+     */
+    public CompletableFuture<SendResult<String, String>> forward(@NonNull String topic,
+                                                                 ConsumerRecord<String, String> record) {
+        return kafkaTemplate.send(new ProducerRecord<>(topic, null, record.key(), record.value(), record.headers()));
+    }
+
     public void sendMessageSync(@NonNull String message, @NonNull String topic) {
         try {
             SendResult<String, String> result = kafkaTemplate.send(topic, message).get();
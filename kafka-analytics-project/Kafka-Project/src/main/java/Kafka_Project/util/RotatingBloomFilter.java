@@ -0,0 +1,115 @@
+package Kafka_Project.util;
+
+import java.util.Arrays;
+
+/**
+ * Time-bounded set membership over pre-hashed 64-bit keys. Two Bloom
+ * filter generations are kept: inserts go to the current one, lookups
+ * check both, and every rotation interval the older generation is cleared
+ * and becomes current. A key is therefore remembered for at least one and
+ * at most two intervals, at a fixed memory cost.
+ *
+ * A generation also rotates once it holds the expected number of keys, so
+ * the false-positive rate stays near its target under any load; past that
+ * rate the retention shrinks instead, which early rotations make visible.
+ */
+public class RotatingBloomFilter {
+
+    private final long intervalMillis;
+    private final int numBits;
+    private final int numHashes;
+    private final int expectedPerInterval;
+    private long[] current;
+    private long[] previous;
+    private int currentCount;
+    private int previousCount;
+    private long rotatedAt;
+    private long earlyRotations;
+
+    public RotatingBloomFilter(int expectedPerInterval, double falsePositiveRate, long intervalMillis) {
+        double bits = -expectedPerInterval * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2));
+        this.numBits = (int) Math.min(Integer.MAX_VALUE - 63, Math.max(64, Math.ceil(bits)));
+        this.numHashes = Math.max(1, (int) Math.round((double) numBits / expectedPerInterval * Math.log(2)));
+        this.expectedPerInterval = Math.max(1, expectedPerInterval);
+        this.intervalMillis = intervalMillis;
+        this.current = new long[(numBits + 63) >>> 6];
+        this.previous = new long[current.length];
+    }
+
+    /**
+     * Records the key and reports whether it (probably) was already seen
+     * within the retention window.
+     */
+    public synchronized boolean putIfAbsent(long hash, long nowMillis) {
+        if (rotatedAt == 0) {
+            rotatedAt = nowMillis;
+        } else if (nowMillis - rotatedAt >= intervalMillis) {
+            rotate(nowMillis);
+        }
+        if (contains(current, hash) || contains(previous, hash)) {
+            return false;
+        }
+        if (currentCount >= expectedPerInterval) {
+            earlyRotations++;
+            rotate(nowMillis);
+        }
+        currentCount++;
+        // Kirsch-Mitzenmacher: derive k indexes from the two hash halves
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < numHashes; i++) {
+            int index = ((h1 + i * h2) & Integer.MAX_VALUE) % numBits;
+            current[index >>> 6] |= 1L << index;
+        }
+        return true;
+    }
+
+    private void rotate(long nowMillis) {
+        long[] cleared = previous;
+        Arrays.fill(cleared, 0L);
+        previous = current;
+        current = cleared;
+        previousCount = currentCount;
+        currentCount = 0;
+        rotatedAt = nowMillis;
+    }
+
+    /**
+     * Keys in the current generation relative to its capacity, 0..1.
+     */
+    public synchronized double fillRatio() {
+        return (double) currentCount / expectedPerInterval;
+    }
+
+    /**
+     * Chance that a new key is reported as seen, estimated from the number
+     * of keys in each generation.
+     */
+    public synchronized double estimatedFalsePositiveRate() {
+        return 1 - (1 - falsePositiveRate(currentCount)) * (1 - falsePositiveRate(previousCount));
+    }
+
+    public synchronized long earlyRotations() {
+        return earlyRotations;
+    }
+
+    private double falsePositiveRate(int keys) {
+        return Math.pow(1 - Math.exp(-(double) numHashes * keys / numBits), numHashes);
+    }
+
+    private boolean contains(long[] bits, long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < numHashes; i++) {
+            int index = ((h1 + i * h2) & Integer.MAX_VALUE) % numBits;
+            if ((bits[index >>> 6] & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int sizeInBytes() {
+        return (current.length + previous.length) * Long.BYTES;
+    }
+}
@@ -0,0 +1,100 @@
+package Kafka_Project;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Test;
+
+import Kafka_Project.query.BucketedSeriesCache;
+import Kafka_Project.query.TimeRange;
+
+class BucketedSeriesCacheTest {
+
+    private final List<TimeRange> closedCalls = new ArrayList<>();
+    private final List<TimeRange> openCalls = new ArrayList<>();
+
+    // One row per hour except 02:00, which has no data
+    private final Function<TimeRange, List<Map<String, Object>>> closedLoader = range -> {
+        closedCalls.add(range);
+        return rows(range);
+    };
+    private final Function<TimeRange, List<Map<String, Object>>> openLoader = range -> {
+        openCalls.add(range);
+        return rows(range);
+    };
+
+    @Test
+    void onlyTheOpenEdgeIsQueriedOnRefresh() {
+        BucketedSeriesCache cache = new BucketedSeriesCache(1000, 120, 86400, 86400);
+        TimeRange range = new TimeRange(LocalDateTime.parse("2026-01-01T00:00"), LocalDateTime.parse("2026-01-01T06:00"));
+        LocalDateTime now = LocalDateTime.parse("2026-01-01T05:30");
+
+        List<Map<String, Object>> first = cache.fetch("traffic:t:1h", "1h", range, closedLoader, openLoader, now);
+        assertEquals(5, first.size());
+        assertEquals(List.of(new TimeRange(LocalDateTime.parse("2026-01-01T00:00"), LocalDateTime.parse("2026-01-01T05:00"))),
+            closedCalls);
+        assertEquals(1, openCalls.size());
+
+        List<Map<String, Object>> second = cache.fetch("traffic:t:1h", "1h", range, closedLoader, openLoader, now);
+        assertEquals(first, second);
+        assertEquals(1, closedCalls.size());
+        assertEquals(2, openCalls.size());
+        assertEquals(new TimeRange(LocalDateTime.parse("2026-01-01T05:00"), LocalDateTime.parse("2026-01-01T06:00")),
+            openCalls.get(1));
+    }
+
+    @Test
+    void missingClosedRunsAreFilledAfterTheWatermarkMoves() {
+        BucketedSeriesCache cache = new BucketedSeriesCache(1000, 120, 86400, 86400);
+        TimeRange range = new TimeRange(LocalDateTime.parse("2026-01-01T00:00"), LocalDateTime.parse("2026-01-01T06:00"));
+
+        cache.fetch("s", "1h", range, closedLoader, openLoader, LocalDateTime.parse("2026-01-01T03:30"));
+        closedCalls.clear();
+        cache.fetch("s", "1h", range, closedLoader, openLoader, LocalDateTime.parse("2026-01-01T07:00"));
+
+        // 00:00-03:00 were cached (02:00 as an empty bucket); only 03:00-06:00 is new
+        assertEquals(List.of(new TimeRange(LocalDateTime.parse("2026-01-01T03:00"), LocalDateTime.parse("2026-01-01T06:00"))),
+            closedCalls);
+        assertEquals(1L, cache.stats().get("open_queries"));
+    }
+
+    @Test
+    void emptyAndExpiredClosedBucketsAreQueriedAgain() {
+        BucketedSeriesCache cache = new BucketedSeriesCache(1000, 120, 3600, 60);
+        TimeRange range = new TimeRange(LocalDateTime.parse("2026-01-01T00:00"), LocalDateTime.parse("2026-01-01T04:00"));
+
+        cache.fetch("s", "1h", range, closedLoader, openLoader, LocalDateTime.parse("2026-01-01T05:00"));
+        closedCalls.clear();
+
+        // Within the empty TTL nothing is reloaded
+        cache.fetch("s", "1h", range, closedLoader, openLoader, LocalDateTime.parse("2026-01-01T05:00:30"));
+        assertEquals(List.of(), closedCalls);
+
+        // 02:00 came back empty, so it is retried once the short TTL has passed
+        cache.fetch("s", "1h", range, closedLoader, openLoader, LocalDateTime.parse("2026-01-01T05:02"));
+        assertEquals(List.of(new TimeRange(LocalDateTime.parse("2026-01-01T02:00"), LocalDateTime.parse("2026-01-01T03:00"))),
+            closedCalls);
+        closedCalls.clear();
+
+        // Buckets with rows expire after the closed TTL
+        cache.fetch("s", "1h", range, closedLoader, openLoader, LocalDateTime.parse("2026-01-01T06:00"));
+        assertEquals(List.of(new TimeRange(LocalDateTime.parse("2026-01-01T00:00"), LocalDateTime.parse("2026-01-01T04:00"))),
+            closedCalls);
+        assertEquals(5L, cache.stats().get("expired_buckets"));
+    }
+
+    private static List<Map<String, Object>> rows(TimeRange range) {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (LocalDateTime t = range.from(); t.isBefore(range.to()); t = t.plusHours(1)) {
+            if (t.getHour() != 2) {
+                rows.add(Map.of("bucket", t.toString().replace('T', ' ') + ":00", "sessions", t.getHour()));
+            }
+        }
+        return rows;
+    }
+}
@@ -14,6 +14,7 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.http.MediaType;
 
 import Kafka_Project.Redis.*;
+import Kafka_Project.health.DependencyProbes;
 import org.springframework.kafka.test.context.EmbeddedKafka;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
@@ -58,6 +59,9 @@ public class CompleteIntegrationTest {
     @Autowired
     private JdbcTemplate jdbcTemplate;
 
+    @Autowired
+    private DependencyProbes dependencyProbes;
+
     @Autowired
     private MockMvc mockMvc;
 // In ClickHouseDatabaseTest.java
@@ -116,11 +120,19 @@ void cleanup() {
 
     @Test
     void testReadyCheck() throws Exception {
+        // Readiness follows the embedded broker only; ClickHouse and Redis are reported as detail
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (dependencyProbes.result(DependencyProbes.KAFKA) == null && System.currentTimeMillis() < deadline) {
+            dependencyProbes.probeAll();
+            Thread.sleep(100);
+        }
         mockMvc.perform(get("/ready"))
                .andExpect(status().isOk())
+               .andExpect(jsonPath("$.status").value("ready"))
                .andExpect(jsonPath("$.kafka").exists())
                .andExpect(jsonPath("$.redis").exists())
-               .andExpect(jsonPath("$.clickhouse").exists());
+               .andExpect(jsonPath("$.clickhouse").exists())
+               .andExpect(jsonPath("$.degraded").exists());
     }
 
     @Test
@@ -0,0 +1,64 @@
+package Kafka_Project;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import Kafka_Project.auth.DashboardTokenVerifier;
+import Kafka_Project.auth.DashboardTokenVerifier.Scope;
+
+class DashboardTokenVerifierTest {
+
+    private static final long NOW = 1_800_000_000L;
+
+    @Test
+    void acceptsOnlySignedUnexpiredTokensWithAnAllowedRole() throws Exception {
+        DashboardTokenVerifier verifier = new DashboardTokenVerifier("s3cret", "admin", "admin", new ObjectMapper());
+
+        assertNull(verifier.reject(token("s3cret", "{\"sub\":1,\"role\":\"admin\",\"tracking_ids\":[\"site-a\"],\"exp\":" + (NOW + 60) + "}"), NOW, Scope.EXPORT, "site-a"));
+        assertEquals("Role not allowed",
+            verifier.reject(token("s3cret", "{\"sub\":1,\"role\":\"user\",\"tracking_ids\":[\"site-a\"],\"exp\":" + (NOW + 60) + "}"), NOW, Scope.EXPORT, "site-a"));
+        assertEquals("Token expired",
+            verifier.reject(token("s3cret", "{\"sub\":1,\"role\":\"admin\",\"exp\":" + (NOW - 600) + "}"), NOW, Scope.EXPORT, "site-a"));
+        assertEquals("Invalid token signature",
+            verifier.reject(token("other", "{\"sub\":1,\"role\":\"admin\",\"exp\":" + (NOW + 60) + "}"), NOW, Scope.EXPORT, "site-a"));
+        assertEquals("Missing bearer token", verifier.reject(null, NOW, Scope.EXPORT, "site-a"));
+        assertEquals("Malformed token", verifier.reject("a.b", NOW, Scope.EXPORT, "site-a"));
+
+        DashboardTokenVerifier unconfigured = new DashboardTokenVerifier("", "admin", "admin", new ObjectMapper());
+        assertNotNull(unconfigured.reject(token("", "{\"role\":\"admin\",\"exp\":" + (NOW + 60) + "}"), NOW, Scope.OPERATOR, null));
+    }
+
+    @Test
+    void tenantScopesNeedTheRequestedTrackingIdInTheToken() throws Exception {
+        DashboardTokenVerifier verifier = new DashboardTokenVerifier("s3cret", "admin", "admin", new ObjectMapper());
+        String siteA = token("s3cret", "{\"sub\":1,\"role\":\"user\",\"tracking_ids\":[\"site-a\"],\"exp\":" + (NOW + 60) + "}");
+        String allSites = token("s3cret", "{\"sub\":2,\"role\":\"admin\",\"tracking_ids\":[\"*\"],\"exp\":" + (NOW + 60) + "}");
+
+        assertNull(verifier.reject(siteA, NOW, Scope.TENANT, "site-a"));
+        assertEquals("Token does not grant tracking_id site-b", verifier.reject(siteA, NOW, Scope.TENANT, "site-b"));
+        assertEquals("Missing tracking_id", verifier.reject(siteA, NOW, Scope.TENANT, null));
+        assertEquals("Role not allowed", verifier.reject(siteA, NOW, Scope.OPERATOR, null));
+
+        assertNull(verifier.reject(allSites, NOW, Scope.TENANT, "site-b"));
+        assertNull(verifier.reject(allSites, NOW, Scope.EXPORT, "site-b"));
+        assertNull(verifier.reject(allSites, NOW, Scope.OPERATOR, null));
+    }
+
+    private static String token(String secret, String claims) throws Exception {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        String signingInput = encoder.encodeToString("{\"typ\":\"JWT\",\"alg\":\"HS256\"}".getBytes(StandardCharsets.UTF_8))
+            + "." + encoder.encodeToString(claims.getBytes(StandardCharsets.UTF_8));
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(secret.isEmpty() ? new byte[1] : secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        return signingInput + "." + encoder.encodeToString(mac.doFinal(signingInput.getBytes(StandardCharsets.US_ASCII)));
+    }
+}
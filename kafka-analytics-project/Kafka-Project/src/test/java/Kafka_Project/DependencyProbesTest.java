@@ -0,0 +1,46 @@
+package Kafka_Project;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import Kafka_Project.Redis.RedisService;
+import Kafka_Project.health.DependencyProbes;
+
+class DependencyProbesTest {
+
+    @Test
+    void resultsAreCachedPerDependency() throws Exception {
+        RedisService redis = mock(RedisService.class);
+        when(redis.ping()).thenReturn("PONG");
+        JdbcTemplate jdbc = mock(JdbcTemplate.class);
+        when(jdbc.queryForObject(eq("SELECT 1"), eq(Integer.class)))
+            .thenThrow(new IllegalStateException("connection refused"));
+        DependencyProbes probes = new DependencyProbes(redis, jdbc, "127.0.0.1:1", 300, 30_000);
+
+        try {
+            assertNull(probes.result(DependencyProbes.REDIS));
+            probes.probeAll();
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (probes.results().containsValue(null) && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+
+            assertTrue(probes.result(DependencyProbes.REDIS).up());
+            assertTrue(probes.result(DependencyProbes.REDIS).latencyMs() >= 0);
+            DependencyProbes.ProbeResult clickhouse = probes.result(DependencyProbes.CLICKHOUSE);
+            assertFalse(clickhouse.up());
+            assertTrue(clickhouse.error().contains("connection refused"));
+            assertFalse(probes.result(DependencyProbes.KAFKA).up());
+
+            // Reads come from the cache, not the dependency
+            probes.results();
+            verify(redis, times(1)).ping();
+        } finally {
+            probes.close();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package Kafka_Project;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import Kafka_Project.filter.EventSampler;
+
+class EventSamplerTest {
+
+    @Test
+    void ratesComeFromTopicAndTenantConfig() {
+        EventSampler sampler = new EventSampler("mouse_move:0.25", "site-a/mouse_move:0.05", 0, 0.01);
+
+        assertEquals(0.25, sampler.rateFor("site-b", "mouse_move"));
+        assertEquals(0.05, sampler.rateFor("site-a", "mouse_move"));
+        assertEquals(1.0, sampler.rateFor("site-a", "page_view"));
+    }
+
+    @Test
+    void ignoresTopicsWithoutSampleRateColumn() {
+        EventSampler sampler = new EventSampler("page_view:0.5,mouse_move:0.25", "site-a/purchase:0.1", 0, 0.01);
+
+        assertEquals(1.0, sampler.rateFor("site-a", "page_view"));
+        assertEquals(1.0, sampler.rateFor("site-a", "purchase"));
+        assertEquals(0.25, sampler.rateFor("site-a", "mouse_move"));
+        assertFalse(sampler.stats().containsKey("page_view"));
+    }
+
+    @Test
+    void keepsWholeSessionsAtRoughlyTheRate() {
+        EventSampler sampler = new EventSampler("mouse_move:0.25", "", 0, 0.01);
+        int kept = 0;
+        for (int i = 0; i < 10_000; i++) {
+            String session = "session-" + i;
+            boolean first = sampler.keep(session, 0.25);
+            assertEquals(first, sampler.keep(session, 0.25));
+            // Nested: anything kept at a lower rate is kept at a higher one
+            if (sampler.keep(session, 0.1)) {
+                assertTrue(first);
+            }
+            if (first) {
+                kept++;
+            }
+        }
+        assertTrue(kept > 2_300 && kept < 2_700, "kept " + kept);
+    }
+
+    @Test
+    void scalesDownWhenOverBudget() throws Exception {
+        EventSampler sampler = new EventSampler("mouse_move:0.5", "", 10, 0.01);
+        Thread.sleep(20);
+        sampler.adjust();
+        for (int i = 0; i < 10_000; i++) {
+            sampler.rateFor("site", "mouse_move");
+        }
+        sampler.adjust();
+
+        assertTrue(sampler.rateFor("site", "mouse_move") < 0.5);
+    }
+}
@@ -0,0 +1,86 @@
+package Kafka_Project;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.sun.net.httpserver.HttpServer;
+
+import Kafka_Project.query.ExportService;
+import Kafka_Project.query.TimeRange;
+
+class ExportServiceTest {
+
+    private HttpServer server;
+    private final AtomicReference<String> lastQuery = new AtomicReference<>();
+    private final AtomicReference<String> lastBody = new AtomicReference<>();
+
+    @BeforeEach
+    void startFakeClickHouse() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            lastQuery.set(exchange.getRequestURI().getRawQuery());
+            lastBody.set(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write("\"timestamp\",\"page_url\"\n".getBytes(StandardCharsets.UTF_8));
+                for (int i = 0; i < 1000; i++) {
+                    out.write(("\"2026-01-01 00:00:00\",\"/p" + i + "\"\n").getBytes(StandardCharsets.UTF_8));
+                }
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void stop() {
+        server.stop(0);
+    }
+
+    @Test
+    void streamsRowsWithBoundParameters() throws Exception {
+        String url = "jdbc:clickhouse://127.0.0.1:" + server.getAddress().getPort() + "/analytics;?use_binary_format=false";
+        ExportService service = new ExportService(url, "default;", "secret", 60, 1);
+        TimeRange range = new TimeRange(LocalDateTime.parse("2026-01-01T00:00"), LocalDateTime.parse("2026-01-02T00:00"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        ExportService.Export export = service.tryStart("page_events", "site'1", range, ExportService.Format.CSV, false);
+        assertNotNull(export);
+        assertNull(service.tryStart("page_events", "site'1", range, ExportService.Format.CSV, false));
+        export.writeTo(out);
+
+        String csv = out.toString(StandardCharsets.UTF_8);
+        assertTrue(csv.startsWith("\"timestamp\",\"page_url\"\n"));
+        assertEquals(1001, csv.lines().count());
+        assertTrue(lastBody.get().contains("tracking_id = {tid:String}"));
+        assertTrue(lastBody.get().endsWith("FORMAT CSVWithNames"));
+        assertTrue(lastQuery.get().contains("database=analytics"));
+        assertTrue(lastQuery.get().contains("param_tid=site%271"));
+        assertNotNull(service.tryStart("sessions", "site", range, ExportService.Format.JSON, false));
+    }
+
+    @Test
+    void slotIsFreedOnceWhenTheBodyNeverRuns() {
+        String url = "jdbc:clickhouse://127.0.0.1:" + server.getAddress().getPort() + "/analytics";
+        ExportService service = new ExportService(url, "default", "", 60, 1);
+        TimeRange range = new TimeRange(LocalDateTime.parse("2026-01-01T00:00"), LocalDateTime.parse("2026-01-02T00:00"));
+
+        ExportService.Export abandoned = service.tryStart("sessions", "site", range, ExportService.Format.CSV, false);
+        abandoned.close();
+        abandoned.close();
+
+        assertNotNull(service.tryStart("sessions", "site", range, ExportService.Format.CSV, false));
+        assertNull(service.tryStart("sessions", "site", range, ExportService.Format.CSV, false));
+        assertThrows(IllegalArgumentException.class,
+            () -> service.tryStart("users", "site", range, ExportService.Format.CSV, false));
+    }
+}
@@ -0,0 +1,85 @@
+package Kafka_Project;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import Kafka_Project.profiling.FlightRecorderService;
+import Kafka_Project.profiling.RateLimitEvent;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+class FlightRecorderServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void dumpsCustomEventsFromTheRunningRecording() throws Exception {
+        FlightRecorderService recorder = new FlightRecorderService(false, "default", 5, 16, tempDir.toString(), 2, 60, 64);
+        assertThrows(IllegalStateException.class, recorder::dump);
+
+        try {
+            assertEquals(true, recorder.start(null, null, null).get("running"));
+            RateLimitEvent event = new RateLimitEvent();
+            event.limiter = "ip";
+            event.key = "10.0.0.1";
+            event.decision = "REJECT";
+            event.commit();
+
+            Path dump = recorder.dump();
+            List<RecordedEvent> events = RecordingFile.readAllEvents(dump);
+            assertTrue(events.stream().anyMatch(recorded ->
+                "analytics.RateLimit".equals(recorded.getEventType().getName())
+                    && "REJECT".equals(recorded.getString("decision"))));
+            assertTrue(events.stream().noneMatch(recorded ->
+                "jdk.InitialEnvironmentVariable".equals(recorded.getEventType().getName())
+                    || "jdk.InitialSystemProperty".equals(recorded.getEventType().getName())));
+
+            assertEquals(dump, recorder.dumpFile(dump.getFileName().toString()));
+            assertNull(recorder.dumpFile("../" + dump.getFileName()));
+            assertNull(recorder.dumpFile("missing.jfr"));
+        } finally {
+            assertEquals(false, recorder.stop().get("running"));
+        }
+    }
+
+    @Test
+    void rejectsRecordingsOutsideTheCaps() {
+        FlightRecorderService recorder = new FlightRecorderService(false, "default", 5, 16, tempDir.toString(), 2, 60, 64);
+
+        assertThrows(IllegalArgumentException.class, () -> recorder.start(null, 61, null));
+        assertThrows(IllegalArgumentException.class, () -> recorder.start(null, null, 65));
+        assertThrows(IllegalArgumentException.class, () -> recorder.start(null, null, 0));
+        assertThrows(IllegalArgumentException.class, () -> recorder.start("/etc/custom.jfc", null, null));
+        assertEquals(false, recorder.status().get("running"));
+    }
+
+    @Test
+    void keepsOnlyTheNewestDumps() throws Exception {
+        FlightRecorderService recorder = new FlightRecorderService(false, "default", 5, 16, tempDir.toString(), 2, 60, 64);
+        Path oldest = Files.createFile(tempDir.resolve("analytics-20240101-000000-1.jfr"));
+        Path older = Files.createFile(tempDir.resolve("analytics-20240102-000000-1.jfr"));
+        Path unrelated = Files.createFile(tempDir.resolve("notes.txt"));
+        Files.setLastModifiedTime(oldest, FileTime.fromMillis(1_000));
+        Files.setLastModifiedTime(older, FileTime.fromMillis(2_000));
+
+        try {
+            recorder.start(null, null, null);
+            Path dump = recorder.dump();
+
+            assertTrue(Files.exists(dump));
+            assertTrue(Files.exists(older));
+            assertFalse(Files.exists(oldest));
+            assertTrue(Files.exists(unrelated));
+        } finally {
+            recorder.stop();
+        }
+    }
+}
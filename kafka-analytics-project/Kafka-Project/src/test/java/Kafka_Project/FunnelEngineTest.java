@@ -0,0 +1,71 @@
+package Kafka_Project;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import Kafka_Project.realtime.FunnelEngine;
+
+class FunnelEngineTest {
+
+    private final LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
+    private final LocalDate today = now.toLocalDate();
+
+    @Test
+    void countsFurthestStepPerSession() {
+        FunnelEngine engine = new FunnelEngine(null, "product_view,cart_add,checkout_step:2,purchase", 2);
+
+        engine.record("site", "s1", "product_view", null, now);
+        engine.record("site", "s1", "product_view", null, now);
+        engine.record("site", "s1", "cart_add", null, now);
+        engine.record("site", "s2", "product_view", null, now);
+        engine.record("site", "s3", "checkout_step", 1, now);
+        engine.record("site", "s3", "checkout_step", 2, now);
+        engine.record("site", "s4", "purchase", null, now);
+
+        List<Map<String, Object>> steps = engine.snapshot("site", today);
+        assertEquals(List.of(4L, 3L, 2L, 1L), steps.stream().map(s -> s.get("users")).toList());
+        assertEquals(0.5, (double) steps.get(2).get("conversion_rate"), 1e-9);
+    }
+
+    @Test
+    void sitesAndUnknownEventsAreIsolated() {
+        FunnelEngine engine = new FunnelEngine(null, "product_view,purchase", 2);
+
+        engine.record("a", "s1", "purchase", null, now);
+        engine.record("b", "s1", "cart_remove", null, now);
+
+        assertEquals(1L, engine.snapshot("a", today).get(1).get("users"));
+        assertEquals(0L, engine.snapshot("b", today).get(0).get("users"));
+        assertEquals(List.of("product_view", "purchase"), engine.stepNames());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flushWritesUserDeltasWithoutAPerFlushRate() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        FunnelEngine engine = new FunnelEngine(jdbcTemplate, "product_view,purchase", 2);
+        engine.record("site", "s1", "product_view", null, now);
+        engine.record("site", "s2", "purchase", null, now);
+
+        engine.flush();
+
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("INSERT INTO conversion_funnel"), rows.capture());
+        assertEquals(2, rows.getValue().size());
+        for (Object[] row : rows.getValue()) {
+            assertEquals(0f, row[4]);
+        }
+        assertEquals(List.of(2L, 1L), rows.getValue().stream().map(row -> row[3]).toList());
+    }
+}
@@ -0,0 +1,51 @@
+package Kafka_Project;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import Kafka_Project.realtime.HyperLogLog;
+import Kafka_Project.util.Hashing;
+
+class HyperLogLogTest {
+
+    @Test
+    void smallCardinalitiesAreNearlyExact() {
+        HyperLogLog hll = new HyperLogLog(9);
+        for (int i = 0; i < 50; i++) {
+            hll.add(Hashing.hash64("session-" + i));
+            hll.add(Hashing.hash64("session-" + i));
+        }
+
+        assertEquals(50, hll.estimate(), 3);
+    }
+
+    @Test
+    void largeCardinalityWithinExpectedError() {
+        HyperLogLog hll = new HyperLogLog(12);
+        for (int i = 0; i < 100_000; i++) {
+            hll.add(Hashing.hash64("session-" + i));
+        }
+
+        // Standard error at p=12 is about 1.6%
+        assertEquals(100_000, hll.estimate(), 100_000 * 0.05);
+    }
+
+    @Test
+    void mergeIsUnionAndSurvivesSerialization() {
+        HyperLogLog a = new HyperLogLog(10);
+        HyperLogLog b = new HyperLogLog(10);
+        for (int i = 0; i < 3_000; i++) {
+            a.add(Hashing.hash64("s" + i));
+        }
+        for (int i = 2_000; i < 5_000; i++) {
+            b.add(Hashing.hash64("s" + i));
+        }
+
+        HyperLogLog copy = HyperLogLog.fromBytes(a.toBytes());
+        copy.merge(b);
+
+        assertEquals(5_000, copy.estimate(), 5_000 * 0.1);
+        assertEquals(3_000, a.estimate(), 3_000 * 0.1);
+    }
+}
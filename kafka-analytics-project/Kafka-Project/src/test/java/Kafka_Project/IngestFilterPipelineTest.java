@@ -0,0 +1,55 @@
+package Kafka_Project;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import Kafka_Project.enrichment.UserAgentParser;
+import Kafka_Project.filter.BotUserAgentFilter;
+import Kafka_Project.filter.IngestContext;
+import Kafka_Project.filter.IngestFilterPipeline;
+import Kafka_Project.filter.MalformedEnvelopeFilter;
+import Kafka_Project.filter.SessionRateFilter;
+
+class IngestFilterPipelineTest {
+
+    private static final String CHROME =
+        "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0.0.0 Safari/537.36";
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private final IngestFilterPipeline pipeline = new IngestFilterPipeline(List.of(
+        new MalformedEnvelopeFilter(10, 64),
+        new BotUserAgentFilter(new UserAgentParser(100), false),
+        new SessionRateFilter(3, 60, 100)), true, "drop", "filtered_events");
+
+    private IngestContext event(String json, String userAgent) throws Exception {
+        JsonNode data = mapper.readTree(json);
+        return new IngestContext("page_view", data, "10.0.0.1", userAgent);
+    }
+
+    @Test
+    void rejectsBotsMalformedAndRunawaySessions() throws Exception {
+        assertNull(pipeline.evaluate(event("{\"session_id\":\"s1\",\"tracking_id\":\"t\"}", CHROME)));
+        assertNull(pipeline.evaluate(event("{\"session_id\":\"s1\",\"tracking_id\":\"t\"}", null)));
+        assertEquals("bot_user_agent", pipeline.evaluate(event(
+            "{\"session_id\":\"s2\",\"tracking_id\":\"t\"}", "Mozilla/5.0 (compatible; Googlebot/2.1)")));
+        assertEquals("malformed_envelope", pipeline.evaluate(event("{\"type\":\"page_view\"}", CHROME)));
+        assertEquals("malformed_envelope", pipeline.evaluate(event(
+            "{\"session_id\":\"s3\",\"tracking_id\":\"t\",\"url\":\"" + "x".repeat(100) + "\"}", CHROME)));
+
+        assertNull(pipeline.evaluate(event("{\"session_id\":\"s1\",\"tracking_id\":\"t\"}", CHROME)));
+        assertEquals("session_rate", pipeline.evaluate(event("{\"session_id\":\"s1\",\"tracking_id\":\"t\"}", CHROME)));
+
+        @SuppressWarnings("unchecked")
+        Map<String, Long> hits = (Map<String, Long>) pipeline.stats().get("hits");
+        assertEquals(Map.of("malformed_envelope", 2L, "bot_user_agent", 1L, "session_rate", 1L), hits);
+        assertEquals(7L, pipeline.stats().get("evaluated"));
+    }
+}
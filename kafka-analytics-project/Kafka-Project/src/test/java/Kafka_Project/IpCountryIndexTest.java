@@ -0,0 +1,60 @@
+package Kafka_Project;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import Kafka_Project.enrichment.GeoLocation;
+import Kafka_Project.enrichment.IpCountryIndex;
+
+class IpCountryIndexTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void looksUpDottedAndNumericRanges() throws Exception {
+        Path csv = tempDir.resolve("ip-country.csv");
+        Files.writeString(csv, String.join("\n",
+            "# start,end,code,name",
+            "\"8.8.8.0\",\"8.8.8.255\",\"US\",\"United States\"",
+            "1.0.0.0,1.0.0.255,AU",
+            "3232235520,3232301055,ZZ,Private",
+            "200.0.0.0,255.255.255.255,BR,Brazil",
+            "2001:db8::,2001:db8::ffff,DE",
+            "not,an,entry"));
+
+        IpCountryIndex index = IpCountryIndex.load(csv);
+
+        assertEquals(4, index.size());
+        assertEquals(new GeoLocation("United States", "US"), index.lookup("8.8.8.8"));
+        assertEquals(new GeoLocation("Australia", "AU"), index.lookup("1.0.0.1"));
+        assertEquals("ZZ", index.lookup("192.168.1.10").countryCode());
+        assertEquals("BR", index.lookup("255.255.255.255").countryCode());
+        assertEquals(GeoLocation.UNKNOWN, index.lookup("8.8.9.1"));
+        assertEquals(GeoLocation.UNKNOWN, index.lookup("2001:db8::1"));
+        assertEquals(GeoLocation.UNKNOWN, index.lookup("999.1.1.1"));
+        assertEquals(GeoLocation.UNKNOWN, IpCountryIndex.EMPTY.lookup("8.8.8.8"));
+    }
+
+    @Test
+    void keepsQuotedNamesWithCommasAndSortsUnorderedFiles() throws Exception {
+        Path csv = tempDir.resolve("ip-country.csv");
+        Files.writeString(csv, String.join("\n",
+            "\"210.0.0.0\",\"210.0.0.255\",\"KR\",\"Korea, Republic of\"",
+            "5.0.0.0,5.0.0.255,IR,\"Iran, Islamic Republic of\"",
+            "\"1.0.0.0\",\"1.0.0.255\",\"GB\",\"United Kingdom of \"\"Great\"\" Britain\""));
+
+        IpCountryIndex index = IpCountryIndex.load(csv);
+
+        assertEquals(3, index.size());
+        assertEquals(new GeoLocation("Korea, Republic of", "KR"), index.lookup("210.0.0.7"));
+        assertEquals(new GeoLocation("Iran, Islamic Republic of", "IR"), index.lookup("5.0.0.9"));
+        assertEquals("United Kingdom of \"Great\" Britain", index.lookup("1.0.0.1").country());
+        assertEquals(GeoLocation.UNKNOWN, index.lookup("6.0.0.1"));
+    }
+}
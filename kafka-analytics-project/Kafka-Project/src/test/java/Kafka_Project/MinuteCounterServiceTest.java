@@ -0,0 +1,81 @@
+package Kafka_Project;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import Kafka_Project.Redis.RedisService;
+import Kafka_Project.realtime.MinuteCounterService;
+
+class MinuteCounterServiceTest {
+
+    private static final Instant NOW = Instant.now();
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void aPollIsFlushedAsOnePipeline() {
+        RedisService redis = mock(RedisService.class);
+        MinuteCounterService counters = new MinuteCounterService(redis, true, 48);
+
+        counters.record("site", "page_view", null, NOW);
+        counters.record("site", "page_view", null, NOW);
+        counters.record("site", "purchase", 20.5, NOW);
+        counters.record("", "page_view", null, NOW);
+        counters.flush();
+        counters.flush();
+
+        ArgumentCaptor<Map<String, Map<String, Long>>> counts = ArgumentCaptor.forClass(Map.class);
+        ArgumentCaptor<Map<String, Map<String, Double>>> amounts = ArgumentCaptor.forClass(Map.class);
+        verify(redis, times(1)).incrementHashes(counts.capture(), amounts.capture(), eq(48 * 3600));
+
+        assertEquals(2, counts.getValue().size());
+        for (Map<String, Long> fields : counts.getValue().values()) {
+            assertEquals(3L, fields.get("events"));
+            assertEquals(2L, fields.get("page_views"));
+            assertEquals(1L, fields.get("purchases"));
+            assertEquals(2L, fields.get("type:page_view"));
+        }
+        for (Map<String, Double> fields : amounts.getValue().values()) {
+            assertEquals(20.5, fields.get("revenue"), 1e-9);
+        }
+    }
+
+    @Test
+    void redisFailuresDoNotReachTheConsumer() {
+        RedisService redis = mock(RedisService.class);
+        doThrow(new RuntimeException("down")).when(redis).incrementHashes(any(), any(), anyInt());
+        MinuteCounterService counters = new MinuteCounterService(redis, true, 48);
+
+        counters.record("site", "click", null, NOW);
+        assertDoesNotThrow(counters::flush);
+        assertEquals(1L, counters.stats().get("failed_flushes"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void eventsAreBucketedByWhenTheyHappened() {
+        RedisService redis = mock(RedisService.class);
+        MinuteCounterService counters = new MinuteCounterService(redis, true, 48);
+        Instant lateEvent = NOW.minus(3, ChronoUnit.HOURS);
+
+        counters.record("site", "page_view", null, lateEvent);
+        counters.record("site", "page_view", null, NOW.minus(3, ChronoUnit.DAYS));
+        counters.flush();
+
+        ArgumentCaptor<Map<String, Map<String, Long>>> counts = ArgumentCaptor.forClass(Map.class);
+        verify(redis).incrementHashes(counts.capture(), any(), anyInt());
+        String minute = DateTimeFormatter.ofPattern("yyyyMMddHHmm").withZone(ZoneOffset.UTC).format(lateEvent);
+        assertEquals(1L, counts.getValue().get("rt:site:m:" + minute).get("events"));
+        assertEquals(2, counts.getValue().size());
+        assertEquals(1L, counters.stats().get("expired_events"));
+    }
+}
@@ -0,0 +1,54 @@
+package Kafka_Project;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import Kafka_Project.realtime.QuantileSketch;
+
+class QuantileSketchTest {
+
+    @Test
+    void quantilesStayWithinRelativeAccuracy() {
+        QuantileSketch sketch = new QuantileSketch(0.01, 2048);
+        for (int i = 1; i <= 10_000; i++) {
+            sketch.add(i);
+        }
+
+        assertEquals(10_000, sketch.getCount());
+        assertEquals(5_000, sketch.quantile(0.50), 5_000 * 0.01 + 1);
+        assertEquals(9_500, sketch.quantile(0.95), 9_500 * 0.01 + 1);
+        assertEquals(9_900, sketch.quantile(0.99), 9_900 * 0.01 + 1);
+    }
+
+    @Test
+    void mergedSketchMatchesSingleSketch() {
+        Random random = new Random(42);
+        QuantileSketch all = new QuantileSketch(0.01, 2048);
+        QuantileSketch left = new QuantileSketch(0.01, 2048);
+        QuantileSketch right = new QuantileSketch(0.01, 2048);
+        for (int i = 0; i < 5_000; i++) {
+            double value = 50 + random.nextInt(4_000);
+            all.add(value);
+            (i % 2 == 0 ? left : right).add(value);
+        }
+
+        left.merge(right);
+
+        assertEquals(all.getCount(), left.getCount());
+        assertEquals(all.quantile(0.95), left.quantile(0.95));
+    }
+
+    @Test
+    void binCountIsBoundedAndHighQuantilesSurvive() {
+        QuantileSketch sketch = new QuantileSketch(0.01, 64);
+        for (int i = 1; i <= 60_000; i++) {
+            sketch.add(i);
+        }
+
+        assertEquals(59_400, sketch.quantile(0.99), 59_400 * 0.01 + 1);
+        assertTrue(Double.isNaN(new QuantileSketch(0.01, 64).quantile(0.5)));
+    }
+}
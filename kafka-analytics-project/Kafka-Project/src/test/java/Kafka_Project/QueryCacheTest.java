@@ -0,0 +1,130 @@
+package Kafka_Project;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import Kafka_Project.Redis.RedisService;
+import Kafka_Project.query.QueryCache;
+import Kafka_Project.query.SingleFlight;
+import Kafka_Project.query.TimeRange;
+
+class QueryCacheTest {
+
+    private static final TypeReference<List<Integer>> INTS = new TypeReference<>() {};
+
+    @Test
+    void concurrentMissesShareOneLoad() throws Exception {
+        RedisService redis = mock(RedisService.class);
+        QueryCache cache = new QueryCache(redis, new ObjectMapper(), new SingleFlight(5000), 100);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<List<Integer>>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(pool.submit(() -> cache.get("k", Duration.ofMinutes(1), INTS, () -> {
+                loads.incrementAndGet();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return List.of(1, 2, 3);
+            })));
+        }
+        Thread.sleep(200);
+        release.countDown();
+        for (Future<List<Integer>> result : results) {
+            assertEquals(List.of(1, 2, 3), result.get(5, TimeUnit.SECONDS));
+        }
+        pool.shutdown();
+
+        assertEquals(1, loads.get());
+        verify(redis, times(1)).saveData(eq("query:k"), eq("[1,2,3]"), eq(60));
+    }
+
+    @Test
+    void fallsBackToRedisBeforeLoading() {
+        RedisService redis = mock(RedisService.class);
+        when(redis.getDataWithTtl("query:k")).thenReturn(new RedisService.ExpiringValue("[4,5]", 30_000));
+        QueryCache cache = new QueryCache(redis, new ObjectMapper(), new SingleFlight(5000), 100);
+
+        assertEquals(List.of(4, 5), cache.get("k", Duration.ofMinutes(1), INTS, () -> fail("should not load")));
+        assertEquals(List.of(4, 5), cache.get("k", Duration.ofMinutes(1), INTS, () -> fail("should not load")));
+        verify(redis, times(1)).getDataWithTtl("query:k");
+        assertEquals(1L, cache.stats().get("local_hits"));
+        assertEquals(1L, cache.stats().get("redis_hits"));
+    }
+
+    @Test
+    void redisHitsExpireLocallyWithTheirRemainingTtl() throws Exception {
+        RedisService redis = mock(RedisService.class);
+        when(redis.getDataWithTtl("query:k")).thenReturn(new RedisService.ExpiringValue("[4,5]", 1));
+        QueryCache cache = new QueryCache(redis, new ObjectMapper(), new SingleFlight(5000), 100);
+
+        cache.get("k", Duration.ofMinutes(1), INTS, () -> fail("should not load"));
+        Thread.sleep(5);
+        cache.get("k", Duration.ofMinutes(1), INTS, () -> fail("should not load"));
+        verify(redis, times(2)).getDataWithTtl("query:k");
+    }
+
+    @Test
+    void singleFlightWaitIsBounded() throws Exception {
+        SingleFlight flight = new SingleFlight(50);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        Future<String> leader = pool.submit(() -> flight.execute("traffic:t", () -> {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "done";
+        }));
+        started.await(5, TimeUnit.SECONDS);
+
+        assertThrows(SingleFlight.WaitTimeoutException.class, () -> flight.execute("traffic:t", () -> "own"));
+        release.countDown();
+        assertEquals("done", leader.get(5, TimeUnit.SECONDS));
+        pool.shutdown();
+
+        assertEquals(1L, flight.stats().get("timeouts"));
+        assertEquals(0.5, (double) flight.stats().get("coalescing_ratio"), 1e-9);
+    }
+
+    @Test
+    void parsesRanges() {
+        TimeRange range = TimeRange.parse("2026-01-01", "2026-01-02T06:30:00", 7, 30);
+        assertEquals("2026-01-01 00:00:00", range.sqlFrom());
+        assertEquals("2026-01-02 06:30:00", range.sqlTo());
+        assertThrows(IllegalArgumentException.class, () -> TimeRange.parse("2026-01-02", "2026-01-01", 7, 30));
+        assertThrows(IllegalArgumentException.class, () -> TimeRange.parse("2025-01-01", "2026-01-01", 7, 30));
+    }
+
+    @Test
+    void openEndedRangesRoundUpToTheStep() {
+        TimeRange range = TimeRange.parse("2026-01-01", null, 7, 400, Duration.ofSeconds(10));
+        assertEquals(0, range.to().getSecond() % 10);
+        assertFalse(range.to().isBefore(LocalDateTime.now(ZoneOffset.UTC).withNano(0)));
+    }
+}
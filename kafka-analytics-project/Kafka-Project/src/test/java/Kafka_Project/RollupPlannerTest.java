@@ -0,0 +1,62 @@
+package Kafka_Project;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import Kafka_Project.query.RollupPlanner;
+import Kafka_Project.query.RollupPlanner.Level;
+import Kafka_Project.query.RollupPlanner.Plan;
+import Kafka_Project.query.RollupPlanner.Segment;
+import Kafka_Project.query.TimeRange;
+
+class RollupPlannerTest {
+
+    private static final List<Level> ALL = List.of(Level.FIVE_MINUTES, Level.HOUR, Level.DAY);
+
+    private final RollupPlanner planner = new RollupPlanner(48, 7, 500);
+
+    @Test
+    void raggedShortRangeUsesEveryLevel() {
+        Plan plan = planner.plan(range("2026-01-01T22:57:30", "2026-01-03T01:07"), ALL);
+
+        assertEquals(List.of(
+            segment(Level.RAW, "2026-01-01T22:57:30", "2026-01-01T23:00"),
+            segment(Level.HOUR, "2026-01-01T23:00", "2026-01-02T00:00"),
+            segment(Level.DAY, "2026-01-02T00:00", "2026-01-03T00:00"),
+            segment(Level.HOUR, "2026-01-03T00:00", "2026-01-03T01:00"),
+            segment(Level.FIVE_MINUTES, "2026-01-03T01:00", "2026-01-03T01:05"),
+            segment(Level.RAW, "2026-01-03T01:05", "2026-01-03T01:07")
+        ), plan.segments());
+    }
+
+    @Test
+    void longRangesStayOnRollups() {
+        Plan plan = planner.plan(range("2025-10-01T10:20", "2025-12-30T13:40"), List.of(Level.HOUR, Level.DAY));
+
+        assertTrue(plan.segments().stream().noneMatch(s -> s.level() == Level.RAW));
+        assertEquals(range("2025-10-01T10:00", "2025-12-30T14:00"), plan.range());
+        assertEquals(3, plan.segments().size());
+        assertEquals(Level.DAY, plan.segments().get(1).level());
+    }
+
+    @Test
+    void autoSeriesLevelKeepsPointsBounded() {
+        assertEquals(Level.FIVE_MINUTES, planner.seriesLevel(range("2026-01-01T00:00", "2026-01-02T00:00"), ALL, "auto"));
+        assertEquals(Level.HOUR, planner.seriesLevel(range("2026-01-01T00:00", "2026-01-15T00:00"), ALL, "auto"));
+        assertEquals(Level.DAY, planner.seriesLevel(range("2025-01-01T00:00", "2026-01-01T00:00"), ALL, "auto"));
+        assertThrows(IllegalArgumentException.class,
+            () -> planner.seriesLevel(range("2026-01-01T00:00", "2026-01-02T00:00"), List.of(Level.HOUR), "5m"));
+    }
+
+    private static TimeRange range(String from, String to) {
+        return new TimeRange(LocalDateTime.parse(from), LocalDateTime.parse(to));
+    }
+
+    private static Segment segment(Level level, String from, String to) {
+        return new Segment(level, range(from, to));
+    }
+}
@@ -0,0 +1,65 @@
+package Kafka_Project;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import Kafka_Project.util.Hashing;
+import Kafka_Project.util.RotatingBloomFilter;
+
+class RotatingBloomFilterTest {
+
+    @Test
+    void remembersKeysForOneToTwoIntervals() {
+        RotatingBloomFilter filter = new RotatingBloomFilter(1000, 0.001, 60_000);
+        long key = Hashing.hash64("event-1");
+
+        assertTrue(filter.putIfAbsent(key, 1_000));
+        assertFalse(filter.putIfAbsent(key, 2_000));
+        // Rotated once: still held in the previous generation
+        assertFalse(filter.putIfAbsent(key, 61_000));
+        // Rotated twice: forgotten
+        assertTrue(filter.putIfAbsent(key, 121_000));
+    }
+
+    @Test
+    void falsePositiveRateStaysNearTarget() {
+        RotatingBloomFilter filter = new RotatingBloomFilter(10_000, 0.01, 60_000);
+        for (int i = 0; i < 10_000; i++) {
+            filter.putIfAbsent(Hashing.hash64("seen-" + i), 1_000);
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 1_000; i++) {
+            if (!filter.putIfAbsent(Hashing.hash64("new-" + i), 1_000)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 40, "false positives: " + falsePositives);
+    }
+
+    @Test
+    void rotatesEarlyWhenAGenerationIsFull() {
+        RotatingBloomFilter filter = new RotatingBloomFilter(1_000, 0.01, 60_000);
+        long key = Hashing.hash64("event-1");
+        assertTrue(filter.putIfAbsent(key, 1_000));
+        for (int i = 0; i < 999; i++) {
+            filter.putIfAbsent(Hashing.hash64("a-" + i), 1_000);
+        }
+        assertTrue(filter.fillRatio() > 0.98, "fill: " + filter.fillRatio());
+
+        // Ten times the expected load within one interval
+        for (int i = 0; i < 9_000; i++) {
+            filter.putIfAbsent(Hashing.hash64("b-" + i), 2_000);
+        }
+        assertTrue(filter.earlyRotations() >= 8, "early rotations: " + filter.earlyRotations());
+        assertTrue(filter.estimatedFalsePositiveRate() < 0.03,
+            "estimated fp rate: " + filter.estimatedFalsePositiveRate());
+        int falsePositives = 0;
+        for (int i = 0; i < 1_000; i++) {
+            if (!filter.putIfAbsent(Hashing.hash64("new-" + i), 2_000)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 50, "false positives: " + falsePositives);
+    }
+}
@@ -0,0 +1,39 @@
+package Kafka_Project;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import Kafka_Project.scaling.LagTrend;
+import Kafka_Project.scaling.ScalingAdvisor;
+
+class ScalingAdvisorTest {
+
+    @Test
+    void trendReportsRatesAndCatchUpTime() {
+        LagTrend trend = new LagTrend(4);
+        trend.add(0, 10_000, 4_000);
+        trend.add(10_000, 11_000, 6_000);
+        trend.add(20_000, 12_000, 8_000);
+
+        assertEquals(4_000, trend.lag());
+        assertEquals(100.0, trend.produceRate(), 1e-9);
+        assertEquals(200.0, trend.consumeRate(), 1e-9);
+        assertEquals(-100.0, trend.lagSlope(), 1e-9);
+        assertEquals(40.0, trend.etaSeconds(), 1e-9);
+
+        trend.add(30_000, 14_000, 8_500);
+        trend.add(40_000, 16_000, 9_000);
+        assertEquals(-1.0, trend.etaSeconds(), 1e-9);
+    }
+
+    @Test
+    void recommendsConsumersWithinPartitionCount() {
+        // 900/s plus 60k lag over 300 s = 1100/s, x1.25 headroom over 250/s per consumer
+        assertEquals(6, ScalingAdvisor.consumersNeeded(900, 60_000, 250, 3, 12, 300, 1.25));
+        assertEquals(12, ScalingAdvisor.consumersNeeded(9_000, 0, 250, 3, 12, 300, 1.25));
+        assertEquals(1, ScalingAdvisor.consumersNeeded(0, 0, 250, 3, 12, 300, 1.25));
+        // Capacity not measured yet: keep what is running
+        assertEquals(3, ScalingAdvisor.consumersNeeded(900, 60_000, 0, 3, 12, 300, 1.25));
+    }
+}
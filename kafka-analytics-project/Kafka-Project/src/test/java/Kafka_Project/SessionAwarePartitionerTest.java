@@ -0,0 +1,96 @@
+package Kafka_Project;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.kafka.common.Cluster;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.PartitionInfo;
+import org.junit.jupiter.api.Test;
+
+import Kafka_Project.config.SessionAwarePartitioner;
+
+class SessionAwarePartitionerTest {
+
+    private static final Node NODE = new Node(0, "localhost", 9092);
+
+    private static Cluster cluster(int partitions) {
+        List<PartitionInfo> infos = new ArrayList<>();
+        for (int i = 0; i < partitions; i++) {
+            infos.add(new PartitionInfo("page_view", i, NODE, new Node[] {NODE}, new Node[] {NODE}));
+        }
+        return new Cluster("test", List.of(NODE), infos, Set.of(), Set.of());
+    }
+
+    private static int partition(SessionAwarePartitioner partitioner, Cluster cluster, String key) {
+        return partitioner.partition("page_view", key, null, null, null, cluster);
+    }
+
+    @Test
+    void keepsTenantsOnTheirHomePartitionAndSessionsStable() {
+        SessionAwarePartitioner partitioner = new SessionAwarePartitioner();
+        partitioner.configure(Map.of());
+        Cluster cluster = cluster(12);
+
+        int home = partition(partitioner, cluster, "site-a|s1");
+        for (int i = 0; i < 50; i++) {
+            assertEquals(home, partition(partitioner, cluster, "site-a|s" + i));
+        }
+    }
+
+    @Test
+    void spreadsHotTenantOverSeveralPartitions() throws Exception {
+        SessionAwarePartitioner partitioner = new SessionAwarePartitioner();
+        partitioner.configure(Map.of(
+            SessionAwarePartitioner.WINDOW_MS_CONFIG, "50",
+            SessionAwarePartitioner.MIN_SAMPLES_CONFIG, "10",
+            SessionAwarePartitioner.MAX_SPREAD_CONFIG, "4"));
+        Cluster cluster = cluster(12);
+
+        for (int i = 0; i < 900; i++) {
+            partition(partitioner, cluster, "huge|s" + (i % 100));
+        }
+        for (int i = 0; i < 100; i++) {
+            partition(partitioner, cluster, "small-" + i + "|s");
+        }
+        Thread.sleep(60);
+
+        // New sessions are spread; each keeps its partition
+        Set<Integer> used = new HashSet<>();
+        for (int i = 0; i < 100; i++) {
+            int first = partition(partitioner, cluster, "huge|n" + i);
+            assertEquals(first, partition(partitioner, cluster, "huge|n" + i));
+            used.add(first);
+        }
+        assertEquals(4, used.size());
+    }
+
+    @Test
+    void liveSessionsKeepTheirPartitionWhenTheWidthChanges() throws Exception {
+        SessionAwarePartitioner partitioner = new SessionAwarePartitioner();
+        partitioner.configure(Map.of(
+            SessionAwarePartitioner.WINDOW_MS_CONFIG, "50",
+            SessionAwarePartitioner.MIN_SAMPLES_CONFIG, "10",
+            SessionAwarePartitioner.MAX_SPREAD_CONFIG, "4"));
+        Cluster cluster = cluster(12);
+
+        int home = partition(partitioner, cluster, "huge|s0");
+        for (int i = 0; i < 900; i++) {
+            assertEquals(home, partition(partitioner, cluster, "huge|s" + (i % 100)));
+        }
+        for (int i = 0; i < 100; i++) {
+            partition(partitioner, cluster, "small-" + i + "|s");
+        }
+        Thread.sleep(60);
+
+        // Widened to 4, but sessions already placed stay on home
+        for (int i = 0; i < 100; i++) {
+            assertEquals(home, partition(partitioner, cluster, "huge|s" + i));
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package Kafka_Project;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import Kafka_Project.realtime.SpaceSaving;
+
+class SpaceSavingTest {
+
+    @Test
+    void exactCountsWhileUnderCapacity() {
+        SpaceSaving summary = new SpaceSaving(10);
+        for (int i = 0; i < 5; i++) {
+            summary.offer("/home");
+        }
+        summary.offer("/pricing");
+        summary.offer("/pricing");
+        summary.offer("/docs");
+
+        List<SpaceSaving.Entry> top = summary.top(2);
+        assertEquals(2, top.size());
+        assertEquals("/home", top.get(0).item());
+        assertEquals(5, top.get(0).count());
+        assertEquals("/pricing", top.get(1).item());
+        assertEquals(0, top.get(1).error());
+        assertEquals(8, summary.getTotal());
+    }
+
+    @Test
+    void heavyHittersSurviveLongTailWithFixedCounters() {
+        SpaceSaving summary = new SpaceSaving(20);
+        Random random = new Random(7);
+        for (int i = 0; i < 50_000; i++) {
+            if (i % 5 == 0) {
+                summary.offer("hot-a");
+            } else if (i % 7 == 0) {
+                summary.offer("hot-b");
+            } else {
+                summary.offer("tail-" + random.nextInt(10_000));
+            }
+        }
+
+        List<SpaceSaving.Entry> top = summary.top(2);
+        assertEquals("hot-a", top.get(0).item());
+        assertEquals("hot-b", top.get(1).item());
+        assertTrue(top.get(0).count() - top.get(0).error() <= 10_000);
+        assertEquals(20, summary.top(100).size());
+    }
+}
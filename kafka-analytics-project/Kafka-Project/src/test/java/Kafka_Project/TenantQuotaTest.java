@@ -0,0 +1,102 @@
+package Kafka_Project;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import Kafka_Project.config.EventHeaders;
+import Kafka_Project.quota.FairRecordScheduler;
+import Kafka_Project.quota.TenantQuotaService;
+import Kafka_Project.quota.TenantQuotaService.Decision;
+import Kafka_Project.quota.TenantTiers;
+
+class TenantQuotaTest {
+
+    private final TenantTiers tiers = new TenantTiers("free:5:100000:1,big:1000:10000000:3", "site-big:big", "free");
+
+    @Test
+    void demotesThenShedsTenantsOverQuota() {
+        TenantQuotaService quotas = new TenantQuotaService(tiers, null, true, "overflow", 1, "overflow_events", 100);
+
+        int admitted = 0;
+        int overflowed = 0;
+        int shed = 0;
+        for (int i = 0; i < 20; i++) {
+            Decision decision = quotas.admit("site-small", 100);
+            if (decision == Decision.ADMIT) {
+                admitted++;
+            } else if (decision == Decision.OVERFLOW) {
+                overflowed++;
+            } else {
+                shed++;
+            }
+        }
+        assertEquals(5, admitted);
+        assertEquals(5, overflowed);
+        assertEquals(10, shed);
+        // Other tenants are unaffected
+        assertEquals(Decision.ADMIT, quotas.admit("site-big", 100));
+    }
+
+    @Test
+    void eventRejectedOnBytesKeepsEventQuota() {
+        TenantTiers narrow = new TenantTiers("narrow:2:100:1", "", "narrow");
+        TenantQuotaService quotas = new TenantQuotaService(narrow, null, true, "overflow", 1, "overflow_events", 100);
+
+        assertEquals(Decision.ADMIT, quotas.admit("site", 100));
+        assertEquals(Decision.OVERFLOW, quotas.admit("site", 100));
+        // The second event token was not charged by the rejected event
+        assertEquals(Decision.ADMIT, quotas.admit("site", 0));
+    }
+
+    @Test
+    void demotesOnlyTenantsOverBudgetAndOverTheirShareOfThePoll() {
+        TenantQuotaService quotas = new TenantQuotaService(tiers, null, true, "overflow", 1, "overflow_events", 100);
+        ReflectionTestUtils.setField(quotas, "demoteOverBudget", true);
+        ReflectionTestUtils.setField(quotas, "drainBurstSeconds", 2.0);
+
+        // Alone in its polls: nobody to be fair to, never demoted however far over budget
+        assertEquals(Set.of(), quotas.tenantsToDemote(Map.of("site-small", 50)));
+        // Within its drain budget (full tier rate, burst 2s = 10 records)
+        assertEquals(Set.of(), quotas.tenantsToDemote(Map.of("site-other", 8, "site-big", 2)));
+        // Over budget and most of a shared poll
+        assertEquals(Set.of("site-other"), quotas.tenantsToDemote(Map.of("site-other", 40, "site-big", 5)));
+        // Over budget but under its weighted share of the poll
+        assertEquals(Set.of(), quotas.tenantsToDemote(Map.of("site-other", 5, "site-big", 500)));
+        assertEquals(40L, quotas.stats().get("demoted_at_consume"));
+    }
+
+    @Test
+    void fairSchedulerInterleavesTenantsByWeight() {
+        FairRecordScheduler scheduler = new FairRecordScheduler(tiers, true, 100);
+        List<ConsumerRecord<String, String>> batch = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            batch.add(record("site-small", "s" + i, i));
+        }
+        batch.add(record("site-big", "b0", 6));
+        batch.add(record("site-big", "b1", 7));
+
+        List<String> order = scheduler.order(batch).stream().map(ConsumerRecord::value).toList();
+
+        assertEquals(List.of("s0", "b0", "b1", "s1", "s2", "s3", "s4", "s5"), order);
+    }
+
+    private static ConsumerRecord<String, String> record(String trackingId, String value, long offset) {
+        RecordHeaders headers = new RecordHeaders();
+        headers.add(EventHeaders.TRACKING_ID, trackingId.getBytes(StandardCharsets.UTF_8));
+        // 100 serialized bytes each: one quantum for weight 1
+        return new ConsumerRecord<>("page_view", 0, offset, 0L, TimestampType.CREATE_TIME,
+            0, 100, null, value, headers, Optional.empty());
+    }
+}
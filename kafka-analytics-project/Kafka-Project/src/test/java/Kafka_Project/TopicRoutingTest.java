@@ -0,0 +1,48 @@
+package Kafka_Project;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.Test;
+
+import Kafka_Project.config.EventHeaders;
+import Kafka_Project.config.TopicRouting;
+
+class TopicRoutingTest {
+
+    @Test
+    void perTypeModeKeepsOneTopicPerEventType() {
+        TopicRouting routing = new TopicRouting("per-type", "events_", true);
+
+        assertEquals("file_download", routing.topicFor("file_download"));
+        assertArrayEquals(new String[] {"form_submit", "form_focus", "form_input"}, routing.topicsFor("form"));
+    }
+
+    @Test
+    void familyModeGroupsEventTypes() {
+        TopicRouting routing = new TopicRouting("family", "events_", false);
+
+        assertEquals("events_interaction", routing.topicFor("file_download"));
+        assertEquals("events_page", routing.topicFor("page_visible"));
+        assertEquals("events_telemetry", routing.topicFor("mouse_move"));
+        assertArrayEquals(new String[] {"events_form"}, routing.topicsFor("form"));
+        assertEquals(5, new TopicRouting("family", "events_", true).topicsFor("ecommerce").length - 1);
+    }
+
+    @Test
+    void perTypeTopicsOnlyInPerTypeModeOrWhileMigrating() {
+        assertTrue(new TopicRouting("per-type", "events_", false).usesPerTypeTopics());
+        assertTrue(new TopicRouting("family", "events_", true).usesPerTypeTopics());
+        assertFalse(new TopicRouting("family", "events_", false).usesPerTypeTopics());
+    }
+
+    @Test
+    void readsEventTypeHeader() {
+        RecordHeaders headers = new RecordHeaders();
+        assertNull(TopicRouting.eventTypeOf(headers));
+        headers.add(EventHeaders.EVENT_TYPE, "cart_add".getBytes(StandardCharsets.UTF_8));
+        assertEquals("cart_add", TopicRouting.eventTypeOf(headers));
+    }
+}
@@ -0,0 +1,67 @@
+package Kafka_Project;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import Kafka_Project.enrichment.UserAgentInfo;
+import Kafka_Project.enrichment.UserAgentParser;
+
+class UserAgentParserTest {
+
+    private final UserAgentParser parser = new UserAgentParser(100);
+
+    @Test
+    void desktopBrowsers() {
+        assertEquals(new UserAgentInfo("Desktop", "Windows", "Chrome"), parser.parse(
+            "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) "
+                + "Chrome/120.0.0.0 Safari/537.36"));
+        assertEquals(new UserAgentInfo("Desktop", "Windows", "Edge"), parser.parse(
+            "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) "
+                + "Chrome/120.0.0.0 Safari/537.36 Edg/120.0.2210.91"));
+        assertEquals(new UserAgentInfo("Desktop", "macOS", "Safari"), parser.parse(
+            "Mozilla/5.0 (Macintosh; Intel Mac OS X 10_15_7) AppleWebKit/605.1.15 (KHTML, like Gecko) "
+                + "Version/17.1 Safari/605.1.15"));
+        assertEquals(new UserAgentInfo("Desktop", "Linux", "Firefox"), parser.parse(
+            "Mozilla/5.0 (X11; Linux x86_64; rv:121.0) Gecko/20100101 Firefox/121.0"));
+    }
+
+    @Test
+    void mobileTabletAndBots() {
+        assertEquals(new UserAgentInfo("Mobile", "iOS", "Safari"), parser.parse(
+            "Mozilla/5.0 (iPhone; CPU iPhone OS 17_1 like Mac OS X) AppleWebKit/605.1.15 "
+                + "(KHTML, like Gecko) Version/17.1 Mobile/15E148 Safari/604.1"));
+        assertEquals(new UserAgentInfo("Mobile", "Android", "Samsung Internet"), parser.parse(
+            "Mozilla/5.0 (Linux; Android 13; SM-S908B) AppleWebKit/537.36 (KHTML, like Gecko) "
+                + "SamsungBrowser/23.0 Chrome/115.0.0.0 Mobile Safari/537.36"));
+        assertEquals("Tablet", parser.parse(
+            "Mozilla/5.0 (Linux; Android 13; SM-X700) AppleWebKit/537.36 (KHTML, like Gecko) "
+                + "Chrome/120.0.0.0 Safari/537.36").deviceType());
+        assertEquals("Bot", parser.parse(
+            "Mozilla/5.0 (compatible; Googlebot/2.1; +http://www.google.com/bot.html)").deviceType());
+        assertEquals(UserAgentInfo.UNKNOWN, parser.parse(null));
+    }
+
+    @Test
+    void chromeOsOnlyForTheCrOsToken() {
+        assertEquals(new UserAgentInfo("Desktop", "Chrome OS", "Chrome"), parser.parse(
+            "Mozilla/5.0 (X11; CrOS x86_64 14541.0.0) AppleWebKit/537.36 (KHTML, like Gecko) "
+                + "Chrome/120.0.0.0 Safari/537.36"));
+        assertEquals("Windows", parser.parse(
+            "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) "
+                + "Chrome/120.0.0.0 Safari/537.36 Teams/1.6.00.4472 Microsoft Outlook 16.0").operatingSystem());
+        assertEquals("macOS", parser.parse(
+            "Microsoft Office/16.0 (Macintosh; Mac OS X 10_15_7; Microsoft Outlook 16.78)").operatingSystem());
+    }
+
+    @Test
+    void repeatedUserAgentsHitTheCache() {
+        String ua = "Mozilla/5.0 (X11; Linux x86_64; rv:121.0) Gecko/20100101 Firefox/121.0";
+        parser.parse(ua);
+        parser.parse(ua);
+        parser.parse(ua);
+
+        assertEquals(1, parser.getCache().getMisses());
+        assertEquals(2, parser.getCache().getHits());
+    }
+}
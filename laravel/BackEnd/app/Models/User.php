@@ -35,6 +35,15 @@ class User extends Authenticatable implements JWTSubject, MustVerifyEmail
         'password'
     ];
 
+    protected $casts = [
+        'tracking_ids' => 'array',
+    ];
+
+    public function roles()
+    {
+        return $this->belongsToMany(Role::class);
+    }
+
     /**
      * JWT Identifier
      */
@@ -48,6 +57,11 @@ public function getJWTIdentifier()
      */
     public function getJWTCustomClaims()
     {
-        return [];
+        // Checked by the analytics service: the role for exports and
+        // operator stats, tracking_ids for which sites' analytics it serves
+        return [
+            'role' => $this->roles()->value('name'),
+            'tracking_ids' => $this->tracking_ids ?? [],
+        ];
     }
 }
@@ -179,7 +179,8 @@ CREATE TABLE IF NOT EXISTS mouse_events (
     tracking_id String,
     page_url String,
     x UInt16,
-    y UInt16
+    y UInt16,
+    sample_rate Float32 DEFAULT 1
 ) ENGINE = MergeTree()
 PARTITION BY toYYYYMM(timestamp)
 ORDER BY (tracking_id, session_id, timestamp);
@@ -230,7 +231,8 @@ CREATE TABLE IF NOT EXISTS batch_events (
     user_id String,
     tracking_id String,
     event_data String,
-    event_count UInt16
+    event_count UInt16,
+    sample_rate Float32 DEFAULT 1
 ) ENGINE = MergeTree()
 PARTITION BY toYYYYMM(timestamp)
 ORDER BY (tracking_id, session_id, timestamp);
@@ -448,6 +450,11 @@ CREATE TABLE IF NOT EXISTS conversion_funnel (
 PARTITION BY toYYYYMM(date)
 ORDER BY (tracking_id, date, funnel_step);
 
+-- Sampled telemetry: rows carry the ingest sample rate so counts can be
+-- scaled back up with sum(1 / sample_rate). Existing tables need the column.
+ALTER TABLE mouse_events ADD COLUMN IF NOT EXISTS sample_rate Float32 DEFAULT 1;
+ALTER TABLE batch_events ADD COLUMN IF NOT EXISTS sample_rate Float32 DEFAULT 1;
+
 -- =====================================================
 -- BLOOM FILTER INDEXES
 -- =====================================================
@@ -93,6 +93,14 @@
       );
     }
 
+    // Unique per event and kept across retries so the server can drop duplicates
+    generateEventId() {
+      if (window.crypto && typeof window.crypto.randomUUID === 'function') {
+        return window.crypto.randomUUID();
+      }
+      return `${Date.now().toString(16)}-${this.generateId()}-${this.generateId()}`;
+    }
+
     async sendFirstTimeData() {
       const firstTimeData = {
         url: window.document.URL,
@@ -114,7 +122,6 @@
         language: window.navigator.language,
         timezone: Intl.DateTimeFormat().resolvedOptions().timeZone,
         device_type: this.getDeviceType(),
-        location: await this.getLocation(),
         session_id: this.sessionId,
         user_id: this.userId,
         tracking_id: this.config.trackingId,
@@ -187,28 +194,6 @@
       return 'Desktop';
     }
 
-    async getLocation() {
-      try {
-        const response = await fetch('https://ipapi.co/json/');
-        if (!response.ok) throw new Error('Network response was not ok');
-
-        const data = await response.json();
-        return {
-          country: data.country_name,
-          country_code: data.country_code,
-          city: data.city,
-          region: data.region,
-          postal: data.postal,
-          ip: data.ip,
-          latitude: data.latitude,
-          longitude: data.longitude,
-        };
-      } catch (err) {
-        this.log('GeoIP error:', err);
-        return { error: 'Unable to fetch location' };
-      }
-    }
-
     setupEventListeners() {
       // Form submission tracking
       document.addEventListener('submit', (event) => {
@@ -518,6 +503,7 @@
       eventData.user_id = this.userId;
       eventData.tracking_id = this.config.trackingId;
       eventData.url = window.location.href;
+      eventData.event_id = eventData.event_id || this.generateEventId();
 
       this.log('Event:', eventData);
 
@@ -532,6 +518,7 @@
       eventData.session_id = this.sessionId;
       eventData.user_id = this.userId;
       eventData.tracking_id = this.config.trackingId;
+      eventData.event_id = eventData.event_id || this.generateEventId();
 
       // Use sendBeacon for immediate sending (like page unload)
       if (navigator.sendBeacon) {